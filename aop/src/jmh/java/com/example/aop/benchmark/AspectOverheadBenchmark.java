@@ -0,0 +1,146 @@
+package com.example.aop.benchmark;
+
+import com.example.aop.MainApplication;
+import com.example.aop.aspect.auth.SecurityContext;
+import com.example.aop.dao.AccountDao;
+import com.example.aop.entity.Account;
+import com.example.aop.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each aspect: advised calls through the Spring proxy against the same call on the
+ * unwrapped target. Run with {@code ./gradlew :aop:jmh}; the gc profiler reports
+ * allocation per call ({@code gc.alloc.rate.norm}).
+ * <p>
+ * Logging is set to WARN so the numbers show the aspect's own cost, not console I/O.
+ * Single-threaded: the authorization role is a ThreadLocal set during setup.
+ * <p>
+ * With {@code -PaspectjWeaving} the beans are not proxied and the advice is woven into the
+ * methods themselves, so "unadvised" is the same woven bean: compare the advised numbers of a
+ * proxy run against those of a woven run instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(1)
+public class AspectOverheadBenchmark {
+
+    private static final List<Integer> IDS = List.of(1, 2, 3);
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkTarget advised;
+    private BenchmarkTarget unadvised;
+    private AccountDao advisedDao;
+    private AccountDao unadvisedDao;
+    private AccountService advisedService;
+    private AccountService unadvisedService;
+    private int missKey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MainApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.com.example.aop=WARN")
+                .run();
+        advised = context.getBean(BenchmarkTarget.class);
+        unadvised = targetOf(advised);
+        advisedDao = context.getBean(AccountDao.class);
+        unadvisedDao = targetOf(advisedDao);
+        advisedService = context.getBean(AccountService.class);
+        unadvisedService = targetOf(advisedService);
+
+        SecurityContext.setRole("ADMIN");
+        advised.cached(1);
+        advised.fullChain(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T targetOf(T bean) {
+        var target = AopProxyUtils.getSingletonTarget(bean);
+        return target != null ? (T) target : bean;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContext.clear();
+        context.close();
+    }
+
+    @Benchmark
+    public Account unadvised() {
+        return unadvised.plain(1);
+    }
+
+    @Benchmark
+    public Account proxyOnly() {
+        return advised.plain(1);
+    }
+
+    @Benchmark
+    public Account logging() {
+        return advised.logged(1);
+    }
+
+    @Benchmark
+    public Account performance() {
+        return advised.monitored(1);
+    }
+
+    @Benchmark
+    public Account cacheHit() {
+        return advised.cached(1);
+    }
+
+    @Benchmark
+    public Account cacheMiss() {
+        // keys never repeat, so every call misses and the bounded store keeps evicting
+        return advised.cached(missKey++);
+    }
+
+    @Benchmark
+    public Account retrySuccess() {
+        return advised.retried(1);
+    }
+
+    @Benchmark
+    public Account authorization() {
+        return advised.authorized(1);
+    }
+
+    @Benchmark
+    public Account audit() {
+        return advised.audited(1);
+    }
+
+    @Benchmark
+    public Account fullChain() {
+        return advised.fullChain(1);
+    }
+
+    @Benchmark
+    public List<Account> accountDaoFindAdvised() {
+        return advisedDao.find(IDS);
+    }
+
+    @Benchmark
+    public List<Account> accountDaoFindUnadvised() {
+        return unadvisedDao.find(IDS);
+    }
+
+    @Benchmark
+    public void accountServiceServeAdvised() throws InterruptedException {
+        advisedService.serve(0);
+    }
+
+    @Benchmark
+    public void accountServiceServeUnadvised() throws InterruptedException {
+        unadvisedService.serve(0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.aop.benchmark;
+
+import com.example.aop.aspect.ExecutionLogging;
+import com.example.aop.aspect.MonitorPerformance;
+import com.example.aop.aspect.audit.Audited;
+import com.example.aop.aspect.auth.RequiresRole;
+import com.example.aop.aspect.cache.SimpleCache;
+import com.example.aop.aspect.retry.Retryable;
+import com.example.aop.entity.Account;
+import org.springframework.stereotype.Component;
+
+/**
+ * Trivial methods, each advised by exactly one aspect, so a benchmark measures the aspect
+ * rather than the method body. The bodies match across methods so the unadvised
+ * baseline applies to all of them.
+ */
+@Component
+public class BenchmarkTarget {
+
+    public Account plain(int id) {
+        return new Account(id, "Account");
+    }
+
+    @ExecutionLogging
+    public Account logged(int id) {
+        return new Account(id, "Account");
+    }
+
+    @MonitorPerformance
+    public Account monitored(int id) {
+        return new Account(id, "Account");
+    }
+
+    @SimpleCache(maxEntries = 1024)
+    public Account cached(int id) {
+        return new Account(id, "Account");
+    }
+
+    @Retryable
+    public Account retried(int id) {
+        return new Account(id, "Account");
+    }
+
+    @RequiresRole("ADMIN")
+    public Account authorized(int id) {
+        return new Account(id, "Account");
+    }
+
+    @Audited(action = "READ", entity = "Account")
+    public Account audited(int id) {
+        return new Account(id, "Account");
+    }
+
+    @Retryable
+    @ExecutionLogging
+    @MonitorPerformance
+    @SimpleCache(maxEntries = 1024)
+    @RequiresRole("ADMIN")
+    @Audited(action = "READ", entity = "Account")
+    public Account fullChain(int id) {
+        return new Account(id, "Account");
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.aop.benchmark;
+
+import com.example.aop.aspect.cache.CacheKey;
+import com.example.aop.aspect.support.MethodMetadata;
+import com.example.aop.dao.AccountDao;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache lookup with the former string key ({@code toShortString() + Arrays.toString(args)})
+ * against {@link CacheKey}. Run with the gc profiler to compare allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheKeyBenchmark {
+
+    private final ConcurrentHashMap<String, Object> stringKeyed = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CacheKey, Object> objectKeyed = new ConcurrentHashMap<>();
+    private Method method;
+    private MethodMetadata metadata;
+    private Object[] args;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        method = AccountDao.class.getMethod("slowFindById", int.class);
+        metadata = new MethodMetadata(method, shortString(method), MethodMetadata.signatureOf(method), null, null, null);
+        args = new Object[]{42};
+        stringKeyed.put(shortString(method) + Arrays.toString(args), "value");
+        objectKeyed.put(new CacheKey(metadata, args.clone()), "value");
+    }
+
+    @Benchmark
+    public Object stringKey() {
+        return stringKeyed.get(shortString(method) + Arrays.toString(args.clone()));
+    }
+
+    @Benchmark
+    public Object cacheKey() {
+        return objectKeyed.get(new CacheKey(metadata, args.clone()));
+    }
+
+    /**
+     * Same work as Spring's {@code MethodSignature.toShortString()}.
+     */
+    private static String shortString(Method method) {
+        return ClassUtils.getShortName(method.getDeclaringClass()) + "." + method.getName() + "(..)";
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.aop.benchmark;
+
+import com.example.aop.aspect.correlation.CorrelationIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlation-ID throughput under contention: the former truncated random UUID against
+ * {@link CorrelationIdGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class CorrelationIdBenchmark {
+
+    private final CorrelationIdGenerator generator = new CorrelationIdGenerator();
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Benchmark
+    public String generator() {
+        return generator.next();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.aop.benchmark;
+
+import com.example.aop.MainApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to start and stop the application context. Proxy creation is part of startup, so running
+ * this with and without {@code -PaspectjWeaving} shows what compile-time weaving saves there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class StartupBenchmark {
+
+    @Benchmark
+    public void startAndClose() {
+        try (var context = new SpringApplicationBuilder(MainApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.com.example.aop=WARN", "logging.level.root=WARN")
+                .run()) {
+            context.getBean(BenchmarkTarget.class);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.aop.aspect;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+
+/**
+ * Aspect ordering for compile-time weaving, where @Order is not consulted.
+ * Mirrors the @Order values: retry outermost, then controller logging, execution logging,
+ * performance monitoring, bulkhead, batching, the demo aspect, and finally the unordered aspects.
+ * <p>
+ * Not a bean, so Spring AOP ignores it in proxy mode.
+ */
+@Aspect
+@DeclarePrecedence("com.example.aop.aspect.retry.RetryAspect, "
+        + "com.example.aop.aspect.ControllerLoggingAspect, "
+        + "com.example.aop.aspect.ExecutionLoggingAspect, "
+        + "com.example.aop.aspect.PerformanceMonitoringAspect, "
+        + "com.example.aop.aspect.bulkhead.BulkheadAspect, "
+        + "com.example.aop.aspect.batch.BatchingAspect, "
+        + "com.example.aop.aspect.DemoAspect, "
+        + "*")
+public class AspectPrecedence {
+}
@@ -1,24 +1,30 @@
 package com.example.aop.aspect;
 
+import com.example.aop.aspect.correlation.CorrelationId;
+import com.example.aop.aspect.correlation.CorrelationIdGenerator;
+import com.example.aop.aspect.support.BoundedRenderer;
+import com.example.aop.aspect.support.LogSampler;
+import com.example.aop.aspect.support.MethodMetadataRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.UUID;
-
 /**
  * Controller logging aspect with correlation IDs for distributed tracing.
  * Automatically intercepts all @RestController methods to provide:
- * - Unique correlation ID per request (propagated via MDC)
+ * - Unique correlation ID per request (bound as a ScopedValue and mirrored into MDC,
+ *   see {@link CorrelationId} for handing it to executor tasks and virtual threads)
  * - Entry/exit logging with arguments and results
  * - Request duration tracking
  * - Exception logging with timing
  * <p>
+ * Entry/exit lines are sampled (aop.logging.sample-rate) and arguments/results are
+ * rendered up to aop.logging.max-chars characters, only when INFO is enabled.
+ * <p>
  * This aspect is specifically for the web layer. For business logic logging,
  * use @ExecutionLogging annotation with ExecutionLoggingAspect.
  */
@@ -27,45 +33,42 @@ import java.util.UUID;
 @Order(1)
 @Component
 public class ControllerLoggingAspect {
-    private static final String CORRELATION_ID_KEY = "correlationId";
+    private final CorrelationIdGenerator correlationIds = new CorrelationIdGenerator();
 
-    @Around("@within(org.springframework.web.bind.annotation.RestController)")
-    public Object logControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
-        var correlationId = generateCorrelationId();
-        var methodName = joinPoint.getSignature().toShortString();
+    @Value("${aop.logging.sample-rate:1.0}")
+    private double sampleRate;
 
-        MDC.put(CORRELATION_ID_KEY, correlationId);
-        try {
-            log.info("[{}] Entering: {} with args: {}", correlationId, methodName, Arrays.toString(joinPoint.getArgs()));
+    @Value("${aop.logging.max-chars:100}")
+    private int maxChars;
 
-            var start = System.currentTimeMillis();
-            try {
-                var result = joinPoint.proceed();
-                var duration = System.currentTimeMillis() - start;
-                log.info("[{}] Exiting: {} in {}ms with result: {}", correlationId, methodName, duration, summarizeResult(result));
-                return result;
-            } catch (Exception e) {
-                var duration = System.currentTimeMillis() - start;
-                log.error("[{}] Exception in {} after {}ms: {}", correlationId, methodName, duration, e.getMessage());
-                throw e;
-            }
-        } finally {
-            MDC.remove(CORRELATION_ID_KEY);
-        }
+    @Around("execution(* *(..)) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object logControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
+        // a controller called from another request keeps that request's ID
+        var current = CorrelationId.current();
+        var correlationId = current != null ? current : correlationIds.next();
+        return CorrelationId.callWith(correlationId, () -> proceedLogged(joinPoint, correlationId));
     }
 
-    private String generateCorrelationId() {
-        return UUID.randomUUID().toString().substring(0, 8);
-    }
+    private Object proceedLogged(ProceedingJoinPoint joinPoint, String correlationId) throws Throwable {
+        var methodName = MethodMetadataRegistry.get(joinPoint).shortName();
+        var logged = log.isInfoEnabled() && LogSampler.sample(sampleRate);
 
-    private String summarizeResult(Object result) {
-        if (result == null) {
-            return "null";
+        if (logged) {
+            log.info("[{}] Entering: {} with args: {}", correlationId, methodName, BoundedRenderer.render(joinPoint.getArgs(), maxChars));
         }
-        var str = result.toString();
-        if (str.length() > 100) {
-            return str.substring(0, 100) + "...";
+
+        var start = System.currentTimeMillis();
+        try {
+            var result = joinPoint.proceed();
+            if (logged) {
+                var duration = System.currentTimeMillis() - start;
+                log.info("[{}] Exiting: {} in {}ms with result: {}", correlationId, methodName, duration, BoundedRenderer.render(result, maxChars));
+            }
+            return result;
+        } catch (Exception e) {
+            var duration = System.currentTimeMillis() - start;
+            log.error("[{}] Exception in {} after {}ms: {}", correlationId, methodName, duration, e.getMessage());
+            throw e;
         }
-        return str;
     }
 }
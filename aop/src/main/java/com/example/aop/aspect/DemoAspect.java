@@ -38,7 +38,7 @@ public class DemoAspect {
      * AND (&&): Matches methods in @Service classes that also have @ExecutionLogging.
      * Demonstrates combining class-level and method-level pointcuts.
      */
-    @Pointcut("@within(org.springframework.stereotype.Service) && @annotation(ExecutionLogging)")
+    @Pointcut("execution(* *(..)) && @within(org.springframework.stereotype.Service) && @annotation(ExecutionLogging)")
     private void serviceWithExecutionLogging() {
     }
 
@@ -1,19 +1,24 @@
 package com.example.aop.aspect;
 
+import com.example.aop.aspect.support.BoundedRenderer;
+import com.example.aop.aspect.support.LogSampler;
+import com.example.aop.aspect.support.MethodMetadataRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-
 /**
  * Aspect for logging method execution details when annotated with @ExecutionLogging.
  * Provides detailed logging of method signature, arguments, execution time, and return values.
  * <p>
  * Use this aspect to opt-in specific methods for detailed execution tracking.
+ * Arguments and results are only rendered when INFO is enabled and the call is sampled
+ * (aop.logging.sample-rate), and rendering stops after aop.logging.max-chars characters.
+ * Failures are always logged.
  */
 @Slf4j
 @Aspect
@@ -21,38 +26,35 @@ import java.util.Arrays;
 @Component
 public class ExecutionLoggingAspect {
 
-    @Around("@annotation(ExecutionLogging)")
+    @Value("${aop.logging.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${aop.logging.max-chars:100}")
+    private int maxChars;
+
+    @Around("execution(* *(..)) && @annotation(ExecutionLogging)")
     public Object logMethodExecution(ProceedingJoinPoint joinPoint) throws Throwable {
-        var signature = joinPoint.getSignature();
-        var args = joinPoint.getArgs();
+        var methodName = MethodMetadataRegistry.get(joinPoint).shortName();
+        var logged = log.isInfoEnabled() && LogSampler.sample(sampleRate);
 
-        log.info("Executing: {} with args: {}", signature.toShortString(), Arrays.toString(args));
+        if (logged) {
+            log.info("Executing: {} with args: {}", methodName, BoundedRenderer.render(joinPoint.getArgs(), maxChars));
+        }
 
         var start = System.currentTimeMillis();
         try {
             var result = joinPoint.proceed();
-            var duration = System.currentTimeMillis() - start;
-
-            log.info("Completed: {} in {}ms with result: {}",
-                    signature.toShortString(), duration, summarizeResult(result));
-
+            if (logged) {
+                var duration = System.currentTimeMillis() - start;
+                log.info("Completed: {} in {}ms with result: {}",
+                        methodName, duration, BoundedRenderer.render(result, maxChars));
+            }
             return result;
         } catch (Throwable e) {
             var duration = System.currentTimeMillis() - start;
             log.error("Failed: {} after {}ms with exception: {}",
-                    signature.toShortString(), duration, e.getMessage());
+                    methodName, duration, e.getMessage());
             throw e;
         }
     }
-
-    private String summarizeResult(Object result) {
-        if (result == null) {
-            return "null";
-        }
-        var str = result.toString();
-        if (str.length() > 100) {
-            return str.substring(0, 100) + "...";
-        }
-        return str;
-    }
 }
@@ -0,0 +1,30 @@
+package com.example.aop.aspect;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event for a call monitored by PerformanceMonitoringAspect. Disabled unless enabled by
+ * JFR settings (see {@code jfr/aop.jfc}), whose threshold keeps only slow calls.
+ */
+@Name("com.example.aop.MethodExecution")
+@Label("Method Execution")
+@Description("Call to a @MonitorPerformance method")
+@Category({"Spring AOP", "Performance"})
+@Enabled(false)
+@StackTrace(false)
+public class MethodExecutionEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    /**
+     * Ends the event and commits it if enabled and above the configured threshold.
+     */
+    void complete(String method) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            commit();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.aop.aspect;
 
+import com.example.aop.aspect.latency.LatencySnapshot;
+import com.example.aop.aspect.latency.MethodLatencyHistograms;
+import com.example.aop.aspect.support.MethodMetadataRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -8,9 +12,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Aspect for performance monitoring of methods annotated with @MonitorPerformance.
- * Logs warnings when method execution exceeds the configured threshold.
+ * Logs warnings when method execution exceeds the configured threshold, and records
+ * every call into a per-method HdrHistogram for percentile reporting. Calls are also
+ * emitted as {@link MethodExecutionEvent} when enabled in the JFR settings.
  * <p>
  * Can also be applied at class level to monitor all methods in the class.
  */
@@ -20,41 +29,54 @@ import org.springframework.stereotype.Component;
 @Component
 public class PerformanceMonitoringAspect {
 
+    private final MethodLatencyHistograms histograms = new MethodLatencyHistograms();
+
     @Value("${aop.performance.slow-threshold-ms:1000}")
     private long defaultSlowThresholdMs;
 
-    @Around("@annotation(monitorPerformance)")
+    @Around("execution(* *(..)) && @annotation(monitorPerformance)")
     public Object monitorMethodAnnotation(ProceedingJoinPoint joinPoint, MonitorPerformance monitorPerformance) throws Throwable {
-        return monitor(joinPoint, monitorPerformance);
+        return monitor(joinPoint);
     }
 
-    @Around("@within(monitorPerformance)")
+    @Around("execution(* *(..)) && @within(monitorPerformance)")
     public Object monitorClassAnnotation(ProceedingJoinPoint joinPoint, MonitorPerformance monitorPerformance) throws Throwable {
-        return monitor(joinPoint, monitorPerformance);
+        return monitor(joinPoint);
     }
 
-    private Object monitor(ProceedingJoinPoint joinPoint, MonitorPerformance monitorPerformance) throws Throwable {
-        var start = System.currentTimeMillis();
-        var method = joinPoint.getSignature().toShortString();
+    private Object monitor(ProceedingJoinPoint joinPoint) throws Throwable {
+        var metadata = MethodMetadataRegistry.get(joinPoint);
+        var event = new MethodExecutionEvent();
+        event.begin();
+        var start = System.nanoTime();
 
         try {
             return joinPoint.proceed();
         } finally {
-            var duration = System.currentTimeMillis() - start;
-            var threshold = getThreshold(monitorPerformance);
+            var elapsed = System.nanoTime() - start;
+            event.complete(metadata.shortName());
+            histograms.record(metadata.method(), metadata.signature(), elapsed);
+
+            var duration = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            var threshold = metadata.thresholdMs() > 0 ? metadata.thresholdMs() : defaultSlowThresholdMs;
 
             if (duration > threshold) {
-                log.warn("SLOW METHOD: {} took {}ms (threshold: {}ms)", method, duration, threshold);
+                log.warn("SLOW METHOD: {} took {}ms (threshold: {}ms)", metadata.shortName(), duration, threshold);
             } else {
-                log.debug("Method {} completed in {}ms", method, duration);
+                log.debug("Method {} completed in {}ms", metadata.shortName(), duration);
             }
         }
     }
 
-    private long getThreshold(MonitorPerformance annotation) {
-        if (annotation != null && annotation.thresholdMs() > 0) {
-            return annotation.thresholdMs();
-        }
-        return defaultSlowThresholdMs;
+    /**
+     * Latency percentiles per monitored method over rolling windows.
+     */
+    public Map<String, Map<String, LatencySnapshot>> latencySnapshots() {
+        return histograms.snapshots();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        histograms.shutdown();
     }
 }
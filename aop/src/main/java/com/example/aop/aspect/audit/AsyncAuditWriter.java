@@ -0,0 +1,194 @@
+package com.example.aop.aspect.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves audit writes off the caller's thread.
+ * <p>
+ * Callers publish {@link AuditLog} records into a {@link RingBuffer}; a single writer
+ * thread drains them in batches into the {@link AuditJournal}, forcing each batch to disk
+ * once. When the buffer is full the configured {@link OverflowPolicy} applies.
+ * <p>
+ * On shutdown the writer thread drains what callers already queued, waits for writes still in
+ * progress and then closes the journal itself. Records written after shutdown began, and blocked
+ * {@code BLOCK} writes while the buffer stays full, are refused and counted as dropped.
+ * <p>
+ * Publishes {@code aop.audit.queue.depth}, {@code aop.audit.flush} and {@code aop.audit.dropped}.
+ */
+@Slf4j
+@Component
+public class AsyncAuditWriter implements MeterBinder {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Value("${aop.audit.journal.directory:${java.io.tmpdir}/aop-audit}")
+    private Path journalDirectory;
+
+    @Value("${aop.audit.journal.segment-size-bytes:16777216}")
+    private int segmentSize;
+
+    @Value("${aop.audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${aop.audit.batch-size:256}")
+    private int batchSize;
+
+    @Value("${aop.audit.overflow-policy:SYNC}")
+    private OverflowPolicy overflowPolicy;
+
+    private final AtomicLong dropped = new AtomicLong();
+    // callers inside write(), so the writer thread does not close the journal under them
+    private final AtomicInteger activeWriters = new AtomicInteger();
+    private volatile long flushedCount;
+    private volatile boolean running;
+    private volatile Timer flushTimer;
+    private RingBuffer<AuditLog> buffer;
+    private AuditJournal journal;
+    private Thread writerThread;
+
+    @PostConstruct
+    public void start() {
+        buffer = new RingBuffer<>(bufferCapacity);
+        journal = new AuditJournal(journalDirectory, segmentSize);
+        running = true;
+        writerThread = Thread.ofPlatform().name("audit-writer").daemon().start(this::runWriter);
+    }
+
+    /**
+     * Queues the record for the writer thread, applying the overflow policy when full.
+     */
+    public void write(AuditLog auditLog) {
+        activeWriters.incrementAndGet();
+        try {
+            if (!running) {
+                drop("Audit writer stopped", auditLog);
+                return;
+            }
+            if (buffer.offer(auditLog)) {
+                return;
+            }
+            switch (overflowPolicy) {
+                case BLOCK -> {
+                    while (!buffer.offer(auditLog)) {
+                        if (!running) {
+                            drop("Audit writer stopped while buffer full", auditLog);
+                            return;
+                        }
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                }
+                case DROP -> drop("Audit buffer full", auditLog);
+                case SYNC -> journal.append(List.of(auditLog));
+            }
+        } finally {
+            activeWriters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Waits until every record queued before this call has been forced to disk.
+     */
+    public void flush(long timeout, TimeUnit unit) {
+        var target = buffer.producedCount();
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (flushedCount < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    public Path currentSegment() {
+        return journal.currentSegment();
+    }
+
+    public int queueDepth() {
+        return buffer.size();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("aop.audit.queue.depth", this, AsyncAuditWriter::queueDepth)
+                .description("Audit records waiting for the writer thread")
+                .register(registry);
+        Gauge.builder("aop.audit.dropped", this, AsyncAuditWriter::droppedCount)
+                .description("Audit records dropped because the buffer was full")
+                .register(registry);
+        flushTimer = Timer.builder("aop.audit.flush")
+                .description("Time to write and force one batch to the journal")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    /**
+     * Stops accepting records and waits up to 5 seconds for the writer thread to drain the buffer
+     * and close the journal. If it takes longer it still finishes, in the background.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        if (writerThread.isAlive()) {
+            log.warn("Audit writer still draining {} records, the journal is closed once it is done", buffer.size());
+        }
+    }
+
+    private void drop(String reason, AuditLog auditLog) {
+        dropped.incrementAndGet();
+        log.warn("{}, dropped: {}", reason, auditLog);
+    }
+
+    private void runWriter() {
+        try {
+            drain();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void drain() {
+        var batch = new ArrayList<AuditLog>(batchSize);
+        // active writers are read before the buffer: a write that saw running has offered once it is done
+        while (running || activeWriters.get() > 0 || buffer.size() > 0) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                var start = System.nanoTime();
+                journal.append(batch);
+                recordFlush(System.nanoTime() - start);
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} audit records: {}", batch.size(), e.getMessage(), e);
+            }
+            flushedCount = buffer.consumedCount();
+            batch.clear();
+        }
+    }
+
+    private void recordFlush(long nanos) {
+        var timer = flushTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
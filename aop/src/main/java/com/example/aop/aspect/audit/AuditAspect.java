@@ -1,52 +1,64 @@
 package com.example.aop.aspect.audit;
 
+import com.example.aop.aspect.support.BoundedRenderer;
+import com.example.aop.aspect.support.MethodMetadataRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
-import java.util.Arrays;
 
 /**
  * Aspect for audit trail logging.
  * Tracks data modifications on methods annotated with @Audited.
+ * <p>
+ * The caller only builds the {@link AuditLog}; writing it to the journal happens
+ * asynchronously in {@link AsyncAuditWriter}.
  */
 @Slf4j
 @Aspect
 @Component
 public class AuditAspect {
 
-    @AfterReturning(pointcut = "@annotation(audited)", returning = "result")
+    private static final int MAX_RENDERED_CHARS = 200;
+
+    @Autowired
+    private AsyncAuditWriter auditWriter;
+
+    @AfterReturning(pointcut = "execution(* *(..)) && @annotation(audited)", returning = "result")
     public void auditSuccess(JoinPoint joinPoint, Audited audited, Object result) {
         var auditLog = AuditLog.builder()
                 .timestamp(Instant.now())
                 .user(getCurrentUser())
                 .action(audited.action())
                 .entity(audited.entity())
-                .method(joinPoint.getSignature().toShortString())
-                .args(Arrays.toString(joinPoint.getArgs()))
-                .result(result != null ? summarizeResult(result) : "null")
+                .method(MethodMetadataRegistry.get(joinPoint).shortName())
+                .args(BoundedRenderer.render(joinPoint.getArgs(), MAX_RENDERED_CHARS))
+                .result(BoundedRenderer.render(result, MAX_RENDERED_CHARS))
                 .build();
 
-        log.info("AUDIT: {}", auditLog);
+        log.debug("AUDIT: {}", auditLog);
+        auditWriter.write(auditLog);
     }
 
-    @AfterThrowing(pointcut = "@annotation(audited)", throwing = "exception")
+    @AfterThrowing(pointcut = "execution(* *(..)) && @annotation(audited)", throwing = "exception")
     public void auditFailure(JoinPoint joinPoint, Audited audited, Throwable exception) {
         var auditLog = AuditLog.builder()
                 .timestamp(Instant.now())
                 .user(getCurrentUser())
                 .action(audited.action() + "_FAILED")
                 .entity(audited.entity())
-                .method(joinPoint.getSignature().toShortString())
-                .args(Arrays.toString(joinPoint.getArgs()))
+                .method(MethodMetadataRegistry.get(joinPoint).shortName())
+                .args(BoundedRenderer.render(joinPoint.getArgs(), MAX_RENDERED_CHARS))
                 .result("EXCEPTION: " + exception.getMessage())
                 .build();
 
-        log.warn("AUDIT: {}", auditLog);
+        log.debug("AUDIT: {}", auditLog);
+        auditWriter.write(auditLog);
     }
 
     private String getCurrentUser() {
@@ -55,12 +67,4 @@ public class AuditAspect {
         // return auth != null ? auth.getName() : "anonymous";
         return "anonymous";
     }
-
-    private String summarizeResult(Object result) {
-        var str = result.toString();
-        if (str.length() > 200) {
-            return str.substring(0, 200) + "...";
-        }
-        return str;
-    }
 }
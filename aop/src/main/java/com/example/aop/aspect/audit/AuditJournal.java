@@ -0,0 +1,115 @@
+package com.example.aop.aspect.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only audit journal made of memory-mapped segment files.
+ * <p>
+ * Records are written as one UTF-8 line each. A batch is copied into the mapped segment
+ * and then forced to disk once (group commit). When a record does not fit, the segment
+ * is forced and a new one, {@code audit-<n>.log}, is mapped. Unused space at the end of
+ * a segment is zero-filled.
+ */
+@Slf4j
+public class AuditJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    public AuditJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            this.segmentIndex = lastSegmentIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the records and forces them to disk.
+     */
+    public synchronized void append(List<AuditLog> records) {
+        for (var record : records) {
+            write(record);
+        }
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    public synchronized Path currentSegment() {
+        return segmentPath(segmentIndex);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        segment.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close audit segment {}: {}", currentSegment(), e.getMessage());
+        }
+        channel = null;
+        segment = null;
+    }
+
+    private void write(AuditLog record) {
+        var bytes = (record.toString() + '\n').getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > segmentSize) {
+            log.error("Audit record of {} bytes exceeds segment size {}, skipped: {}", bytes.length, segmentSize, record);
+            return;
+        }
+        if (segment == null || segment.remaining() < bytes.length) {
+            roll();
+        }
+        segment.put(bytes);
+    }
+
+    private void roll() {
+        close();
+        segmentIndex++;
+        var path = segmentPath(segmentIndex);
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create audit segment " + path, e);
+        }
+        log.info("Audit journal rolled to {}", path);
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%08d", index) + SEGMENT_SUFFIX);
+    }
+
+    private long lastSegmentIndex() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.aop.aspect.audit;
+
+/**
+ * What {@link AsyncAuditWriter} does when its ring buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait until the writer thread frees a slot.
+     */
+    BLOCK,
+    /**
+     * Discard the record and count it as dropped.
+     */
+    DROP,
+    /**
+     * Write the record to the journal on the caller's thread.
+     */
+    SYNC
+}
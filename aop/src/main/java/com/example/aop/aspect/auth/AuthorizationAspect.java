@@ -1,5 +1,6 @@
 package com.example.aop.aspect.auth;
 
+import com.example.aop.aspect.support.MethodMetadataRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
@@ -8,25 +9,30 @@ import org.springframework.stereotype.Component;
 
 /**
  * Aspect that enforces role-based authorization using @RequiresRole.
+ * Each decision is emitted as an {@link AuthorizationEvent} when enabled in the JFR settings.
  */
 @Slf4j
 @Aspect
 @Component
 public class AuthorizationAspect {
 
-    @Before("@annotation(requiresRole)")
+    @Before("execution(* *(..)) && @annotation(requiresRole)")
     public void checkRole(JoinPoint joinPoint, RequiresRole requiresRole) {
+        var event = new AuthorizationEvent();
+        event.begin();
         var requiredRole = requiresRole.value();
         var currentRole = SecurityContext.getRole();
-        var method = joinPoint.getSignature().toShortString();
+        var method = MethodMetadataRegistry.get(joinPoint).shortName();
 
         if (!requiredRole.equals(currentRole)) {
+            event.complete(method, requiredRole, currentRole, false);
             log.warn("ACCESS DENIED: {} requires role '{}' but current role is '{}'", method, requiredRole, currentRole);
             throw new AccessDeniedException(
                     "Access denied: required role '" + requiredRole + "' but was '" + currentRole + "'"
             );
         }
 
+        event.complete(method, requiredRole, currentRole, true);
         log.info("ACCESS GRANTED: {} for role '{}'", method, currentRole);
     }
 }
@@ -0,0 +1,38 @@
+package com.example.aop.aspect.auth;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event for a @RequiresRole check. Disabled unless enabled by JFR settings.
+ */
+@Name("com.example.aop.Authorization")
+@Label("Authorization")
+@Description("Role check of a @RequiresRole method")
+@Category({"Spring AOP", "Authorization"})
+@Enabled(false)
+@StackTrace(false)
+public class AuthorizationEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Required Role")
+    String requiredRole;
+
+    @Label("Role")
+    String role;
+
+    @Label("Granted")
+    boolean granted;
+
+    void complete(String method, String requiredRole, String role, boolean granted) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.requiredRole = requiredRole;
+            this.role = role;
+            this.granted = granted;
+            commit();
+        }
+    }
+}
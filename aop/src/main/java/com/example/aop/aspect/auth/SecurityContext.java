@@ -22,4 +22,25 @@ public final class SecurityContext {
     public static void clear() {
         CURRENT_ROLE.remove();
     }
+
+    /**
+     * Captures the current role so the task runs with it on whichever thread executes it, and
+     * restores that thread's own role afterwards.
+     */
+    public static Runnable wrap(Runnable task) {
+        var role = getRole();
+        return () -> {
+            var previous = getRole();
+            CURRENT_ROLE.set(role);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT_ROLE.set(previous);
+                } else {
+                    CURRENT_ROLE.remove();
+                }
+            }
+        };
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.aop.aspect.batch;
+
+/**
+ * Point-in-time counters of a single @Batched method. {@code callCount / batchCount}
+ * is the average number of calls answered per bulk call.
+ */
+public record BatchStatistics(
+        long callCount,
+        long batchCount,
+        long keyCount
+) {
+
+    BatchStatistics plus(BatchStatistics other) {
+        return new BatchStatistics(callCount + other.callCount, batchCount + other.batchCount, keyCount + other.keyCount);
+    }
+}
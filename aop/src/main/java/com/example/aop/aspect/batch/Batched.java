@@ -0,0 +1,52 @@
+package com.example.aop.aspect.batch;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation to merge concurrent single-key lookups into one bulk call (DataLoader style).
+ * <p>
+ * The annotated method takes one key. Calls arriving within {@link #window()} of the first one,
+ * or until {@link #maxBatchSize()} distinct keys are collected, are answered by a single call
+ * to {@link #bulkMethod()} on the same bean. Each caller receives the result whose
+ * {@link #keyProperty()} equals its key, or null if the bulk call returned none.
+ * <pre>
+ * &#64;Batched(bulkMethod = "find")
+ * public Account findById(int id) { ... }
+ *
+ * public List&lt;Account&gt; find(List&lt;Integer&gt; ids) { ... }
+ * </pre>
+ * The annotated method may also return {@code CompletableFuture} to avoid blocking the caller.
+ * Its body only runs when called without the proxy.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+
+    /**
+     * Name of the bulk method on the same bean, taking a {@code List} of keys and returning
+     * a collection of results.
+     */
+    String bulkMethod();
+
+    /**
+     * Property of a result that holds its key. Its type must match the boxed key type.
+     */
+    String keyProperty() default "id";
+
+    /**
+     * How long the first call of a batch waits for more calls to join.
+     */
+    long window() default 2;
+
+    /**
+     * Number of distinct keys that dispatches a batch without waiting for the window to end.
+     */
+    int maxBatchSize() default 100;
+
+    /**
+     * Unit of {@link #window()}.
+     */
+    TimeUnit timeUnit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,171 @@
+package com.example.aop.aspect.batch;
+
+import com.example.aop.aspect.support.MethodMetadata;
+import com.example.aop.aspect.support.MethodMetadataRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect that answers concurrent @Batched single-key calls with one bulk call.
+ * <p>
+ * Never proceeds to the annotated method: each call joins the method's {@link MicroBatcher}
+ * and waits for its result. The bulk method is called through the proxy, so aspects on it
+ * still apply. Each bulk call is recorded in {@code aop.batch.latency} (percentiles set by
+ * aop.batch.latency.percentiles) and {@code aop.batch.size}, tagged by method.
+ * <p>
+ * Each bean instance gets its own batchers, so keys are always loaded through the instance they
+ * were asked of. Instances are held weakly, and a collected prototype takes its batchers with it.
+ * On shutdown, batches still waiting for their window are dispatched and in-flight bulk calls
+ * are given 5 seconds to finish.
+ */
+@Slf4j
+@Aspect
+@Order(5)
+@Component
+public class BatchingAspect implements MeterBinder {
+
+    // bean instance (compared by identity) -> method -> batcher
+    private final Cache<Object, ConcurrentHashMap<Method, MicroBatcher>> batchers = Caffeine.newBuilder().weakKeys().build();
+    private final ScheduledExecutorService windowTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("batch-window").daemon().factory());
+    private final ExecutorService bulkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${aop.batch.latency.percentiles:0.5,0.95,0.99}")
+    private double[] percentiles;
+
+    @Value("${aop.batch.latency.percentile-histogram:false}")
+    private boolean percentileHistogram;
+
+    private volatile MeterRegistry registry;
+
+    @Around("execution(* *(..)) && @annotation(batched)")
+    public Object batch(ProceedingJoinPoint joinPoint, Batched batched) throws Throwable {
+        var metadata = MethodMetadataRegistry.get(joinPoint);
+        var batcher = batcherFor(metadata, batched, joinPoint.getThis());
+        var result = batcher.submit(joinPoint.getArgs()[0]);
+
+        if (CompletableFuture.class.isAssignableFrom(metadata.method().getReturnType())) {
+            return result;
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private MicroBatcher batcherFor(MethodMetadata metadata, Batched batched, Object proxy) {
+        var byMethod = batchers.get(proxy, instance -> new ConcurrentHashMap<>());
+        var batcher = byMethod.get(metadata.method());
+        if (batcher != null) {
+            return batcher;
+        }
+        return byMethod.computeIfAbsent(metadata.method(), method -> register(createBatcher(metadata, batched, proxy)));
+    }
+
+    private MicroBatcher createBatcher(MethodMetadata metadata, Batched batched, Object proxy) {
+        var method = metadata.method();
+        if (method.getParameterCount() != 1) {
+            throw new IllegalStateException("@Batched method must take exactly one key: " + metadata.shortName());
+        }
+
+        var bulk = ReflectionUtils.findMethod(method.getDeclaringClass(), batched.bulkMethod(), List.class);
+        if (bulk == null || !Collection.class.isAssignableFrom(bulk.getReturnType())) {
+            throw new IllegalStateException("@Batched " + metadata.shortName() + " needs a method "
+                    + batched.bulkMethod() + "(List) returning a collection");
+        }
+        ReflectionUtils.makeAccessible(bulk);
+        // weak, so the batcher does not keep its own bean instance reachable; callers waiting on it do
+        var target = new WeakReference<>(proxy);
+        MicroBatcher.BulkLoader loader = keys -> {
+            try {
+                return (Collection<?>) bulk.invoke(target.get(), keys);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+
+        var resultType = CompletableFuture.class.isAssignableFrom(method.getReturnType())
+                ? ResolvableType.forMethodReturnType(method).getGeneric(0).resolve()
+                : method.getReturnType();
+        var property = resultType == null ? null : BeanUtils.getPropertyDescriptor(resultType, batched.keyProperty());
+        if (property == null || property.getReadMethod() == null) {
+            throw new IllegalStateException("@Batched " + metadata.shortName() + " result has no readable property "
+                    + batched.keyProperty());
+        }
+        var keyGetter = property.getReadMethod();
+
+        log.debug("BATCHED: {} -> {}(List), window {} {}, max {} keys", metadata.shortName(), batched.bulkMethod(),
+                batched.window(), batched.timeUnit(), batched.maxBatchSize());
+        return new MicroBatcher(metadata.signature(), loader, result -> ReflectionUtils.invokeMethod(keyGetter, result),
+                batched.window(), batched.timeUnit(), batched.maxBatchSize(), windowTimer, bulkExecutor);
+    }
+
+    /**
+     * Call, batch and key counters per batched method, summed over its bean instances and keyed by
+     * method signature with parameter types, e.g. {@code AccountDao.findById(int)}.
+     */
+    public Map<String, BatchStatistics> statistics() {
+        var result = new TreeMap<String, BatchStatistics>();
+        allBatchers().forEach(batcher -> result.merge(batcher.getName(), batcher.statistics(), BatchStatistics::plus));
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        allBatchers().forEach(this::register);
+    }
+
+    private List<MicroBatcher> allBatchers() {
+        return batchers.asMap().values().stream().flatMap(byMethod -> byMethod.values().stream()).toList();
+    }
+
+    // batchers are created on first call, which may be before or after the registry is bound
+    private MicroBatcher register(MicroBatcher batcher) {
+        var meters = registry;
+        if (meters != null) {
+            batcher.bindTo(meters, percentiles, percentileHistogram);
+        }
+        return batcher;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        windowTimer.shutdownNow();
+        allBatchers().forEach(MicroBatcher::flush);
+        bulkExecutor.shutdown();
+        if (!bulkExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Bulk calls still running 5 seconds into shutdown, interrupting them");
+            bulkExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.aop.aspect.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Collects keys for one @Batched method and answers them with bulk loads.
+ * <p>
+ * The first key of a batch schedules a flush after the window; reaching the maximum batch size
+ * dispatches immediately and the stale timer is ignored. Duplicate keys within a batch share one
+ * future. Bulk loads run on the given executor, never on the timer or a caller's thread.
+ */
+public class MicroBatcher {
+
+    private final String name;
+    private final BulkLoader loader;
+    private final Function<Object, Object> keyOf;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+    private final Executor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private LinkedHashMap<Object, CompletableFuture<Object>> pending = new LinkedHashMap<>();
+    private long generation;
+
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder keyCount = new LongAdder();
+    private volatile Timer latency;
+    private volatile DistributionSummary size;
+
+    public MicroBatcher(String name, BulkLoader loader, Function<Object, Object> keyOf, long window, TimeUnit unit,
+                        int maxBatchSize, ScheduledExecutorService timer, Executor executor) {
+        this.name = name;
+        this.loader = loader;
+        this.keyOf = keyOf;
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timer = timer;
+        this.executor = executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds the key to the current batch; the future completes with its result once the batch is loaded.
+     */
+    public CompletableFuture<Object> submit(Object key) {
+        callCount.increment();
+        LinkedHashMap<Object, CompletableFuture<Object>> full = null;
+        CompletableFuture<Object> result;
+
+        lock.lock();
+        try {
+            result = pending.get(key);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                pending.put(key, result);
+                if (pending.size() >= maxBatchSize) {
+                    full = takeBatch();
+                } else if (pending.size() == 1) {
+                    long batch = generation;
+                    timer.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            var batch = full;
+            executor.execute(() -> dispatch(batch));
+        }
+        return result;
+    }
+
+    /**
+     * Dispatches the current batch without waiting for its window, e.g. on shutdown.
+     */
+    public void flush() {
+        flush(-1);
+    }
+
+    private void flush(long batch) {
+        LinkedHashMap<Object, CompletableFuture<Object>> due;
+        lock.lock();
+        try {
+            // already dispatched because it reached the maximum size
+            if (batch >= 0 && generation != batch || pending.isEmpty()) {
+                return;
+            }
+            due = takeBatch();
+        } finally {
+            lock.unlock();
+        }
+        executor.execute(() -> dispatch(due));
+    }
+
+    private LinkedHashMap<Object, CompletableFuture<Object>> takeBatch() {
+        var batch = pending;
+        pending = new LinkedHashMap<>();
+        generation++;
+        return batch;
+    }
+
+    private void dispatch(LinkedHashMap<Object, CompletableFuture<Object>> batch) {
+        var keys = new ArrayList<>(batch.keySet());
+        var start = System.nanoTime();
+        try {
+            var results = loader.load(keys);
+            record(keys.size(), System.nanoTime() - start);
+            for (var result : results) {
+                if (result == null) {
+                    continue;
+                }
+                var future = batch.remove(keyOf.apply(result));
+                if (future != null) {
+                    future.complete(result);
+                }
+            }
+            batch.values().forEach(future -> future.complete(null));
+        } catch (Throwable e) {
+            record(keys.size(), System.nanoTime() - start);
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void record(int keys, long nanos) {
+        batchCount.increment();
+        keyCount.add(keys);
+        var timer = latency;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            size.record(keys);
+        }
+    }
+
+    /**
+     * Registers the per-batch latency timer and batch size summary.
+     */
+    public void bindTo(MeterRegistry registry, double[] percentiles, boolean percentileHistogram) {
+        size = DistributionSummary.builder("aop.batch.size")
+                .description("Distinct keys per bulk call")
+                .tag("name", name)
+                .register(registry);
+        latency = Timer.builder("aop.batch.latency")
+                .description("Duration of one bulk call")
+                .tag("name", name)
+                .publishPercentiles(percentiles)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry);
+    }
+
+    public BatchStatistics statistics() {
+        return new BatchStatistics(callCount.sum(), batchCount.sum(), keyCount.sum());
+    }
+
+    @FunctionalInterface
+    public interface BulkLoader {
+        Collection<?> load(List<Object> keys) throws Throwable;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.aop.aspect.bulkhead;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation to cap the number of concurrent calls into a method, protecting a slow
+ * dependency from piling up callers.
+ * <p>
+ * Calls beyond the limit wait in a bounded queue for up to {@link #maxWaitMs()}; once the queue
+ * is full or the wait times out they fail fast with {@link BulkheadFullException}. With
+ * {@link #adaptive()} on, the limit follows observed latency instead of staying fixed.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    /**
+     * Bulkhead name. Methods with the same name share one limit (the first method called
+     * defines its settings). Defaults to the method signature with parameter types,
+     * e.g. {@code AccountDao.fetch(int)}, so overloads have separate limits.
+     */
+    String name() default "";
+
+    /**
+     * Maximum concurrent calls, or the starting limit when adaptive.
+     */
+    int maxConcurrent() default 10;
+
+    /**
+     * Whether to adjust the limit from latency: it grows while latency stays at its long-term
+     * level and shrinks as soon as queueing pushes latency up.
+     */
+    boolean adaptive() default false;
+
+    /**
+     * Lower bound of the adaptive limit.
+     */
+    int minConcurrent() default 1;
+
+    /**
+     * Upper bound of the adaptive limit.
+     */
+    int maxLimit() default 200;
+
+    /**
+     * Callers that may wait for a permit once the limit is reached. Zero rejects immediately.
+     */
+    int maxWaiting() default 0;
+
+    /**
+     * How long a waiting caller waits for a permit before it is rejected, in milliseconds.
+     */
+    long maxWaitMs() default 0;
+}
@@ -0,0 +1,124 @@
+package com.example.aop.aspect.bulkhead;
+
+import com.example.aop.aspect.support.MethodMetadataRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect that limits concurrent calls per @Bulkhead, queueing or rejecting the excess.
+ * <p>
+ * Runs inside retry, logging and performance monitoring, so a rejection can be retried and the
+ * recorded latency includes time spent waiting for a permit. For methods returning
+ * {@link CompletableFuture} the permit is held until the future completes.
+ * Publishes {@code aop.bulkhead.limit}, {@code aop.bulkhead.inflight},
+ * {@code aop.bulkhead.waiting} and {@code aop.bulkhead.rejected}, tagged by bulkhead name, which
+ * defaults to the method signature with parameter types, e.g. {@code AccountDao.fetch(int)}.
+ */
+@Slf4j
+@Aspect
+@Order(4)
+@Component
+public class BulkheadAspect implements MeterBinder {
+
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    @Around("execution(* *(..)) && @annotation(bulkhead)")
+    public Object limit(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        var metadata = MethodMetadataRegistry.get(joinPoint);
+        var method = metadata.shortName();
+        // the full signature, so overloads don't share a limit by accident
+        var limiter = limiterFor(bulkhead.name().isEmpty() ? metadata.signature() : bulkhead.name(), bulkhead);
+
+        if (!limiter.acquire(bulkhead.maxWaitMs(), TimeUnit.MILLISECONDS)) {
+            var stats = limiter.statistics();
+            log.warn("BULKHEAD FULL: {} - rejecting {} (limit: {}, in flight: {}, waiting: {})",
+                    limiter.getName(), method, stats.limit(), stats.inFlight(), stats.waiting());
+            throw new BulkheadFullException("Bulkhead '" + limiter.getName() + "' is full, rejected " + method);
+        }
+
+        var start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            limiter.release(System.nanoTime() - start);
+            throw e;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, failure) -> limiter.release(System.nanoTime() - start));
+        } else {
+            limiter.release(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private ConcurrencyLimiter limiterFor(String name, Bulkhead bulkhead) {
+        var limiter = limiters.get(name);
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiters.computeIfAbsent(name, key -> register(createLimiter(key, bulkhead)));
+    }
+
+    private static ConcurrencyLimiter createLimiter(String name, Bulkhead bulkhead) {
+        ConcurrencyLimit limit = bulkhead.adaptive()
+                ? new GradientLimit(bulkhead.maxConcurrent(), bulkhead.minConcurrent(), bulkhead.maxLimit())
+                : new FixedLimit(bulkhead.maxConcurrent());
+        return new ConcurrencyLimiter(name, limit, bulkhead.maxWaiting());
+    }
+
+    /**
+     * Current state of every bulkhead, keyed by name.
+     */
+    public Map<String, BulkheadStatistics> statistics() {
+        var result = new TreeMap<String, BulkheadStatistics>();
+        limiters.values().forEach(limiter -> result.put(limiter.getName(), limiter.statistics()));
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        limiters.values().forEach(this::register);
+    }
+
+    // bulkheads are created on first call, which may be before or after the registry is bound
+    private ConcurrencyLimiter register(ConcurrencyLimiter limiter) {
+        var meters = registry;
+        if (meters == null) {
+            return limiter;
+        }
+        Gauge.builder("aop.bulkhead.limit", limiter, l -> l.statistics().limit())
+                .description("Current concurrency limit")
+                .tag("name", limiter.getName())
+                .register(meters);
+        Gauge.builder("aop.bulkhead.inflight", limiter, l -> l.statistics().inFlight())
+                .description("Calls currently holding a permit")
+                .tag("name", limiter.getName())
+                .register(meters);
+        Gauge.builder("aop.bulkhead.waiting", limiter, l -> l.statistics().waiting())
+                .description("Calls waiting for a permit")
+                .tag("name", limiter.getName())
+                .register(meters);
+        FunctionCounter.builder("aop.bulkhead.rejected", limiter, l -> l.statistics().rejectedCount())
+                .description("Calls rejected because the bulkhead was full")
+                .tag("name", limiter.getName())
+                .register(meters);
+        return limiter;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.aop.aspect.bulkhead;
+
+/**
+ * Thrown when a method annotated with @Bulkhead is called while its limit is reached
+ * and the wait queue is full or the wait timed out.
+ */
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.aop.aspect.bulkhead;
+
+/**
+ * Point-in-time state of a single bulkhead.
+ */
+public record BulkheadStatistics(
+        int limit,
+        int inFlight,
+        int waiting,
+        long rejectedCount
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.aop.aspect.bulkhead;
+
+/**
+ * Policy deciding how many calls a {@link ConcurrencyLimiter} lets through at once.
+ * Called under the limiter's lock, so implementations need no synchronization of their own.
+ */
+public interface ConcurrencyLimit {
+
+    int current();
+
+    /**
+     * Feeds the latency of a completed call and the number of calls in flight when it completed
+     * (including itself).
+     */
+    void onSample(long rttNanos, int inFlight);
+}
@@ -0,0 +1,96 @@
+package com.example.aop.aspect.bulkhead;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit with a bounded FIFO wait queue, backing one @Bulkhead.
+ * <p>
+ * Waiting uses a {@link ReentrantLock} condition rather than a monitor, so waiters on virtual
+ * threads release their carrier. Arrivals never overtake queued callers.
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+    private final ConcurrencyLimit limit;
+    private final int maxWaiting;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private int inFlight;
+    private int waiting;
+    private long rejected;
+
+    public ConcurrencyLimiter(String name, ConcurrencyLimit limit, int maxWaiting) {
+        this.name = name;
+        this.limit = limit;
+        this.maxWaiting = maxWaiting;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes a permit, waiting up to the given time if the limit is reached and the queue has room.
+     *
+     * @return false if the call is rejected
+     */
+    public boolean acquire(long maxWait, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiting == 0 && inFlight < limit.current()) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= maxWaiting || maxWait <= 0) {
+                rejected++;
+                return false;
+            }
+
+            waiting++;
+            try {
+                long remaining = unit.toNanos(maxWait);
+                while (inFlight >= limit.current()) {
+                    if (remaining <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit and feeds the call's latency to the limit.
+     */
+    public void release(long rttNanos) {
+        lock.lock();
+        try {
+            limit.onSample(rttNanos, inFlight);
+            inFlight--;
+            // wake one waiter per free permit; more than one if the limit just grew
+            for (int free = Math.min(waiting, limit.current() - inFlight); free > 0; free--) {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BulkheadStatistics statistics() {
+        lock.lock();
+        try {
+            return new BulkheadStatistics(limit.current(), inFlight, waiting, rejected);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
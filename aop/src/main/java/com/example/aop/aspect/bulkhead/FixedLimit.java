@@ -0,0 +1,11 @@
+package com.example.aop.aspect.bulkhead;
+
+/**
+ * Limit that never changes, the classic semaphore bulkhead.
+ */
+public record FixedLimit(int current) implements ConcurrencyLimit {
+
+    @Override
+    public void onSample(long rttNanos, int inFlight) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.aop.aspect.bulkhead;
+
+/**
+ * Adaptive limit following the gradient between long-term and current latency.
+ * <p>
+ * While a call takes as long as the long-term average (gradient 1) the limit grows by
+ * {@code sqrt(limit)}, probing for spare capacity. When calls slow down because the dependency
+ * starts queueing, the gradient drops towards 0.5 and the limit shrinks proportionally, so excess
+ * callers wait in the bulkhead's queue or get rejected instead of inflating the dependency's
+ * tail latency. Changes are smoothed, and the limit only moves when at least half of it is in use.
+ */
+public class GradientLimit implements ConcurrencyLimit {
+
+    private static final double LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double longRttNanos;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = clamp(initialLimit);
+    }
+
+    @Override
+    public int current() {
+        return (int) limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight) {
+        double rtt = Math.max(1, rttNanos);
+        longRttNanos = longRttNanos == 0 ? rtt : longRttNanos + (rtt - longRttNanos) / LONG_WINDOW;
+        if (longRttNanos > 2 * rtt) {
+            // latency recovered after a long slow period: let the baseline catch up quickly
+            longRttNanos *= 0.95;
+        }
+
+        if (inFlight < limit / 2) {
+            return;
+        }
+
+        var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos / rtt));
+        var target = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.aop.aspect.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Size-bounded, TTL-aware store backing a single @SimpleCache method.
+ * Delegates to Caffeine, whose W-TinyLFU policy admits new entries only when they are
+ * estimated to be used more often than the entry they would evict.
+ *
+ * @param <K> cache key type
+ */
+public class BoundedCacheStore<K> {
+
+    private final String name;
+    private final long refreshAfterNanos;
+    private final Cache<K, CacheEntry> cache;
+
+    public BoundedCacheStore(String name, SimpleCache config) {
+        this.name = name;
+        this.refreshAfterNanos = config.refreshAfter() > 0 ? config.timeUnit().toNanos(config.refreshAfter()) : -1;
+
+        var builder = Caffeine.newBuilder()
+                .maximumSize(config.maxEntries())
+                .recordStats();
+        if (config.ttl() > 0) {
+            builder.expireAfterWrite(Duration.ofNanos(config.timeUnit().toNanos(config.ttl())));
+        }
+        this.cache = builder.build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the entry for the key, or null if absent or expired. Records a hit or a miss.
+     */
+    public CacheEntry get(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Returns the entry for the key without recording a hit or a miss.
+     */
+    public CacheEntry peek(K key) {
+        return cache.asMap().get(key);
+    }
+
+    public void put(K key, Object value) {
+        cache.put(key, new CacheEntry(value, System.nanoTime()));
+    }
+
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    public boolean isRefreshDue(CacheEntry entry) {
+        return refreshAfterNanos > 0 && System.nanoTime() - entry.loadedAtNanos() >= refreshAfterNanos;
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    public CacheStatistics statistics() {
+        cache.cleanUp();
+        var stats = cache.stats();
+        return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+    /**
+     * Cached value together with the time it was loaded, used to decide when to refresh.
+     */
+    public record CacheEntry(Object value, long loadedAtNanos) {
+    }
+}
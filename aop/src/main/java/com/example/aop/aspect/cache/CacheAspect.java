@@ -1,43 +1,144 @@
 package com.example.aop.aspect.cache;
 
+import com.example.aop.aspect.auth.SecurityContext;
+import com.example.aop.aspect.correlation.CorrelationId;
+import com.example.aop.aspect.support.MethodMetadata;
+import com.example.aop.aspect.support.MethodMetadataRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Aspect that caches method return values based on method signature and arguments.
  * Demonstrates how @Around advice can conditionally skip proceed().
+ * <p>
+ * Every annotated method has its own {@link BoundedCacheStore}, sized and expired
+ * according to its @SimpleCache attributes. Concurrent misses on the same key are
+ * coalesced by {@link SingleFlight}, so the method runs once and every caller gets its result.
+ * <p>
+ * Entries older than refreshAfter are refreshed ahead of expiry: the caller gets the current
+ * value at once and a virtual thread reloads it, at most one per key. A miss on a key that is
+ * being refreshed waits for that reload instead of starting another. The reload runs with the
+ * role and correlation ID of the caller whose hit triggered it, so authorization and logging see
+ * the same context as a synchronous load.
+ * <p>
+ * Each lookup is emitted as a {@link CacheEvent} when enabled in the JFR settings.
  */
 @Slf4j
 @Aspect
 @Component
 public class CacheAspect {
 
-    private final ConcurrentHashMap<String, Object> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Method, BoundedCacheStore<CacheKey>> stores = new ConcurrentHashMap<>();
+    private final SingleFlight<CacheKey> loads = new SingleFlight<>();
+    private final Set<CacheKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final Executor refreshExecutor = CorrelationId.propagating(Executors.newVirtualThreadPerTaskExecutor());
 
-    @Around("@annotation(com.example.aop.aspect.cache.SimpleCache)")
-    public Object cacheResult(ProceedingJoinPoint joinPoint) throws Throwable {
-        var key = joinPoint.getSignature().toShortString() + Arrays.toString(joinPoint.getArgs());
+    @Around("execution(* *(..)) && @annotation(simpleCache)")
+    public Object cacheResult(ProceedingJoinPoint joinPoint, SimpleCache simpleCache) throws Throwable {
+        var metadata = MethodMetadataRegistry.get(joinPoint);
+        var store = storeFor(metadata, simpleCache);
+        var key = new CacheKey(metadata, joinPoint.getArgs());
+        var event = new CacheEvent();
+        event.begin();
 
-        if (cache.containsKey(key)) {
-            log.info("CACHE HIT: {} - returning cached result", key);
-            return cache.get(key);
+        var entry = store.get(key);
+        if (entry != null) {
+            if (store.isRefreshDue(entry)) {
+                refreshAhead(joinPoint, store, key);
+                event.complete(metadata.shortName(), key, "REFRESH");
+            } else {
+                log.info("CACHE HIT: {} - returning cached result", key);
+                event.complete(metadata.shortName(), key, "HIT");
+            }
+            return entry.value();
         }
 
-        log.info("CACHE MISS: {} - executing method", key);
+        var outcome = "MISS";
+        if (loads.isInFlight(key)) {
+            outcome = "COALESCED";
+            log.info("CACHE COALESCED: {} - awaiting in-flight call", key);
+        } else {
+            log.info("CACHE MISS: {} - executing method", key);
+        }
+        try {
+            return loads.execute(key, () -> load(joinPoint, store, key));
+        } finally {
+            event.complete(metadata.shortName(), key, outcome);
+        }
+    }
+
+    private BoundedCacheStore<CacheKey> storeFor(MethodMetadata metadata, SimpleCache simpleCache) {
+        var store = stores.get(metadata.method());
+        if (store != null) {
+            return store;
+        }
+        return stores.computeIfAbsent(metadata.method(), method -> new BoundedCacheStore<>(metadata.signature(), simpleCache));
+    }
+
+    private Object load(ProceedingJoinPoint joinPoint, BoundedCacheStore<CacheKey> store, CacheKey key) throws Throwable {
+        // a concurrent load may have completed between our miss and taking the lead
+        var loaded = store.peek(key);
+        if (loaded != null) {
+            return loaded.value();
+        }
         var result = joinPoint.proceed();
         if (result != null) {
-            cache.put(key, result);
+            store.put(key, result);
         }
         return result;
     }
 
+    private void refreshAhead(ProceedingJoinPoint joinPoint, BoundedCacheStore<CacheKey> store, CacheKey key) {
+        if (!refreshing.add(key)) {
+            log.info("CACHE HIT: {} - returning cached result, refresh in progress", key);
+            return;
+        }
+        log.info("CACHE REFRESH: {} - returning cached result, reloading in background", key);
+        refreshExecutor.execute(SecurityContext.wrap(() -> {
+            try {
+                loads.execute(key, () -> {
+                    var result = joinPoint.proceed();
+                    if (result != null) {
+                        store.put(key, result);
+                    } else {
+                        store.invalidate(key);
+                    }
+                    return result;
+                });
+            } catch (Throwable e) {
+                log.warn("CACHE REFRESH FAILED: {} - keeping cached value: {}", key, e.getMessage());
+            } finally {
+                refreshing.remove(key);
+            }
+        }));
+    }
+
+    /**
+     * Hit, miss and eviction counters per cached method, keyed by method signature with parameter
+     * types, e.g. {@code AccountDao.slowFindById(int)}, so overloads are counted separately.
+     */
+    public Map<String, CacheStatistics> statistics() {
+        var result = new TreeMap<String, CacheStatistics>();
+        stores.values().forEach(store -> result.put(store.getName(), store.statistics()));
+        return result;
+    }
+
+    /**
+     * Drops all cached entries together with their statistics.
+     */
     public void clearCache() {
-        cache.clear();
+        stores.values().forEach(BoundedCacheStore::clear);
+        stores.clear();
     }
 }
@@ -0,0 +1,35 @@
+package com.example.aop.aspect.cache;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event for a @SimpleCache lookup; its duration includes the load on a miss.
+ * Disabled unless enabled by JFR settings.
+ */
+@Name("com.example.aop.Cache")
+@Label("Cache Lookup")
+@Description("Lookup of a @SimpleCache method: HIT, MISS, COALESCED or REFRESH")
+@Category({"Spring AOP", "Cache"})
+@Enabled(false)
+@StackTrace(false)
+public class CacheEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Key")
+    String key;
+
+    @Label("Outcome")
+    String outcome;
+
+    void complete(String method, CacheKey key, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.key = key.toString();
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.aop.aspect.cache;
+
+import com.example.aop.aspect.support.MethodMetadata;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cache key made of the cached method and a snapshot of its arguments, so that a caller mutating
+ * an argument after the call neither loses the entry nor keeps the argument reachable through it.
+ * Immutable values (strings, boxed primitives, enums, {@code java.time} values, ...) are kept
+ * as they are, arrays, lists, sets and maps are copied element by element, and any other argument
+ * is reduced to its type and string form, as the string key this replaced did.
+ * The hash is computed once, and the string form is only built when logged.
+ */
+public final class CacheKey {
+
+    private final MethodMetadata metadata;
+    private final Object[] args;
+    private final int hash;
+
+    public CacheKey(MethodMetadata metadata, Object[] args) {
+        this.metadata = metadata;
+        this.args = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            this.args[i] = snapshot(args[i]);
+        }
+        this.hash = 31 * metadata.method().hashCode() + Arrays.deepHashCode(this.args);
+    }
+
+    private static Object snapshot(Object arg) {
+        if (arg == null || isImmutable(arg)) {
+            return arg;
+        }
+        if (arg instanceof Object[] array) {
+            var copy = new Object[array.length];
+            for (int i = 0; i < array.length; i++) {
+                copy[i] = snapshot(array[i]);
+            }
+            return copy;
+        }
+        if (arg.getClass().isArray()) {
+            var length = Array.getLength(arg);
+            var copy = Array.newInstance(arg.getClass().getComponentType(), length);
+            System.arraycopy(arg, 0, copy, 0, length);
+            return copy;
+        }
+        if (arg instanceof List<?> list) {
+            var copy = new ArrayList<>(list.size());
+            list.forEach(element -> copy.add(snapshot(element)));
+            return Collections.unmodifiableList(copy);
+        }
+        if (arg instanceof Set<?> set) {
+            var copy = new LinkedHashSet<>();
+            set.forEach(element -> copy.add(snapshot(element)));
+            return Collections.unmodifiableSet(copy);
+        }
+        if (arg instanceof Map<?, ?> map) {
+            var copy = new LinkedHashMap<>();
+            map.forEach((key, value) -> copy.put(snapshot(key), snapshot(value)));
+            return Collections.unmodifiableMap(copy);
+        }
+        return new Opaque(arg.getClass(), arg.toString());
+    }
+
+    private static boolean isImmutable(Object arg) {
+        return arg instanceof String || arg instanceof Integer || arg instanceof Long || arg instanceof Boolean
+                || arg instanceof Character || arg instanceof Short || arg instanceof Byte
+                || arg instanceof Double || arg instanceof Float || arg instanceof BigInteger || arg instanceof BigDecimal
+                || arg instanceof Enum<?> || arg instanceof UUID || arg instanceof Class<?>
+                || arg instanceof TemporalAccessor && arg.getClass().getPackageName().startsWith("java.time");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey other)) {
+            return false;
+        }
+        return hash == other.hash
+                && metadata.method().equals(other.metadata.method())
+                && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return metadata.shortName() + Arrays.deepToString(args);
+    }
+
+    /**
+     * An argument of a type that may be mutable, compared by its string form at the time of the call.
+     */
+    private record Opaque(Class<?> type, String value) {
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
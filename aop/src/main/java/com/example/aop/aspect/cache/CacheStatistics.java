@@ -0,0 +1,12 @@
+package com.example.aop.aspect.cache;
+
+/**
+ * Point-in-time counters of a single @SimpleCache store.
+ */
+public record CacheStatistics(
+        long hitCount,
+        long missCount,
+        long evictionCount,
+        long size
+) {
+}
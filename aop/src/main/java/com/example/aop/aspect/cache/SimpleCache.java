@@ -1,13 +1,42 @@
 package com.example.aop.aspect.cache;
 
 import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Custom caching annotation (not Spring's @Cacheable).
  * Caches method return values based on their arguments.
+ * <p>
+ * Each annotated method gets its own size-bounded store. When the store is full,
+ * entries are evicted by access frequency and recency (W-TinyLFU), so a burst of
+ * one-off keys cannot flush the hot working set.
  */
 @Documented
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface SimpleCache {
+
+    /**
+     * Maximum number of entries kept for the annotated method.
+     */
+    long maxEntries() default 10_000;
+
+    /**
+     * Hard TTL: time after which an entry expires and the next call reloads it synchronously.
+     * Non-positive means never.
+     */
+    long ttl() default -1;
+
+    /**
+     * Soft TTL: age after which a hit still returns the cached value at once but triggers a
+     * reload on a background virtual thread (one per key). If the reload fails the entry is kept
+     * until the next hit retries or {@link #ttl()} expires it. Should be shorter than
+     * {@link #ttl()} so hot keys never pay a synchronous reload. Non-positive disables refreshing.
+     */
+    long refreshAfter() default -1;
+
+    /**
+     * Unit of {@link #ttl()} and {@link #refreshAfter()}.
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
 }
@@ -0,0 +1,63 @@
+package com.example.aop.aspect.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader,
+ * callers arriving while it is in flight wait for its result or its exception.
+ * <p>
+ * Waiting parks on a {@link CompletableFuture} rather than holding a monitor, so
+ * waiters on virtual threads release their carrier, and callers on other keys
+ * are never blocked.
+ *
+ * @param <K> key type
+ */
+public class SingleFlight<K> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the loader for the key unless a load for the same key is already in flight,
+     * in which case waits for that load instead.
+     */
+    public Object execute(K key, Loader loader) throws Throwable {
+        var call = new CompletableFuture<>();
+        var inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            var result = loader.load();
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Whether a load for the key is currently running.
+     */
+    public boolean isInFlight(K key) {
+        return calls.containsKey(key);
+    }
+
+    private Object await(CompletableFuture<Object> inFlight) throws Throwable {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        Object load() throws Throwable;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.aop.aspect.correlation;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Correlation ID of the current request, bound in a {@link ScopedValue} and mirrored into the MDC
+ * for log patterns.
+ * <p>
+ * A scoped value is only visible to the thread that bound it, so tasks handed to executors or
+ * started on new (virtual) threads must be wrapped with {@link #wrap(Runnable)},
+ * {@link #wrap(Callable)} or submitted through {@link #propagating(Executor)}. Spring-managed
+ * executors do this automatically through {@link CorrelationTaskDecorator}.
+ */
+public final class CorrelationId {
+
+    public static final String MDC_KEY = "correlationId";
+
+    private static final ScopedValue<String> CURRENT = ScopedValue.newInstance();
+
+    private CorrelationId() {
+    }
+
+    /**
+     * The ID bound to the current thread, or null outside a request.
+     */
+    public static String current() {
+        return CURRENT.isBound() ? CURRENT.get() : null;
+    }
+
+    /**
+     * Runs the operation with the ID bound, and in the MDC, for its duration.
+     */
+    public static <R, X extends Throwable> R callWith(String id, ScopedValue.CallableOp<? extends R, X> op) throws X {
+        var previous = MDC.get(MDC_KEY);
+        MDC.put(MDC_KEY, id);
+        try {
+            return ScopedValue.where(CURRENT, id).call(op);
+        } finally {
+            if (previous != null) {
+                MDC.put(MDC_KEY, previous);
+            } else {
+                MDC.remove(MDC_KEY);
+            }
+        }
+    }
+
+    /**
+     * Captures the current ID so the task runs with it on whichever thread executes it.
+     */
+    public static Runnable wrap(Runnable task) {
+        var id = current();
+        if (id == null) {
+            return task;
+        }
+        return () -> callWith(id, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Captures the current ID so the task runs with it on whichever thread executes it.
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        var id = current();
+        if (id == null) {
+            return task;
+        }
+        return () -> callWith(id, task::call);
+    }
+
+    /**
+     * Executor that hands the submitting thread's ID to each task.
+     */
+    public static Executor propagating(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.aop.aspect.correlation;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates 17-character, time-ordered correlation IDs without locking or a shared random source.
+ * <p>
+ * The first 13 characters encode a 64-bit value made of the current millisecond (44 bits) and a
+ * sequence (20 bits), advanced with a CAS so every ID is greater than the previous one even if
+ * the clock steps back. The last 4 characters are a random node ID drawn once per generator,
+ * keeping IDs from different instances apart. Crockford base32 keeps the text sortable.
+ */
+public final class CorrelationIdGenerator {
+
+    static final int LENGTH = 17;
+
+    private static final int SEQUENCE_BITS = 20;
+    private static final int NODE_BITS = 20;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final AtomicLong last = new AtomicLong();
+    private final int node;
+
+    public CorrelationIdGenerator() {
+        this(new SecureRandom().nextInt(1 << NODE_BITS));
+    }
+
+    CorrelationIdGenerator(int node) {
+        this.node = node & ((1 << NODE_BITS) - 1);
+    }
+
+    public String next() {
+        long value = last.accumulateAndGet(System.currentTimeMillis() << SEQUENCE_BITS,
+                (previous, now) -> Math.max(previous + 1, now));
+
+        var chars = new char[LENGTH];
+        encode(value, chars, 0, 13);
+        encode(node, chars, 13, 4);
+        return new String(chars);
+    }
+
+    private static void encode(long value, char[] target, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            target[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.aop.aspect.correlation;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propagates the correlation ID into tasks run by Spring-managed executors
+ * (@Async, the auto-configured application task executor, virtual or platform threads).
+ */
+@Component
+public class CorrelationTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return CorrelationId.wrap(runnable);
+    }
+}
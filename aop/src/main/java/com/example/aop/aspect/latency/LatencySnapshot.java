@@ -0,0 +1,14 @@
+package com.example.aop.aspect.latency;
+
+/**
+ * Latency percentiles of one method over one rolling window, in milliseconds.
+ */
+public record LatencySnapshot(
+        long count,
+        double p50Ms,
+        double p90Ms,
+        double p99Ms,
+        double p999Ms,
+        double maxMs
+) {
+}
@@ -0,0 +1,71 @@
+package com.example.aop.aspect.latency;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling latency histograms for every monitored method.
+ * Time is split into 10-second slices; percentiles are reported over the last minute
+ * and the last five minutes.
+ */
+public class MethodLatencyHistograms {
+
+    private static final long SLICE_SECONDS = 10;
+    private static final Map<String, Integer> WINDOWS = windows();
+
+    private final ConcurrentHashMap<Method, RollingLatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Method, String> names = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rotator = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("latency-histogram-rotator").daemon().factory());
+
+    public MethodLatencyHistograms() {
+        rotator.scheduleAtFixedRate(this::rotate, SLICE_SECONDS, SLICE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void record(Method method, String name, long nanos) {
+        var histogram = histograms.get(method);
+        if (histogram == null) {
+            names.putIfAbsent(method, name);
+            histogram = histograms.computeIfAbsent(method, m -> new RollingLatencyHistogram(maxSlices()));
+        }
+        histogram.recordNanos(nanos);
+    }
+
+    /**
+     * Percentiles per method name and window, e.g. {@code "AccountService.serve(int)" -> "1m" -> snapshot}.
+     */
+    public Map<String, Map<String, LatencySnapshot>> snapshots() {
+        var result = new TreeMap<String, Map<String, LatencySnapshot>>();
+        histograms.forEach((method, histogram) -> {
+            var windows = new LinkedHashMap<String, LatencySnapshot>();
+            WINDOWS.forEach((window, slices) -> windows.put(window, histogram.snapshot(slices)));
+            result.put(names.get(method), windows);
+        });
+        return result;
+    }
+
+    public void shutdown() {
+        rotator.shutdownNow();
+    }
+
+    private void rotate() {
+        histograms.values().forEach(RollingLatencyHistogram::rotate);
+    }
+
+    private static int maxSlices() {
+        return WINDOWS.values().stream().mapToInt(Integer::intValue).max().orElse(1);
+    }
+
+    private static Map<String, Integer> windows() {
+        var windows = new LinkedHashMap<String, Integer>();
+        windows.put("1m", (int) (60 / SLICE_SECONDS));
+        windows.put("5m", (int) (300 / SLICE_SECONDS));
+        return windows;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.aop.aspect.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histogram of a single method over a ring of fixed-length time slices.
+ * <p>
+ * Callers record into an HdrHistogram {@link Recorder}, which is wait-free, so the
+ * advised call never contends with readers. Readers and the slice rotation fold the
+ * recorder's interval into the current slice under this object's lock.
+ */
+public class RollingLatencyHistogram {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram[] slices;
+    private Histogram interval;
+    private int current;
+
+    public RollingLatencyHistogram(int sliceCount) {
+        this.slices = new Histogram[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Histogram(SIGNIFICANT_DIGITS);
+        }
+    }
+
+    /**
+     * Records one call. Values are kept in microseconds to bound the histogram size.
+     */
+    public void recordNanos(long nanos) {
+        recorder.recordValue(Math.max(1, nanos / 1_000));
+    }
+
+    /**
+     * Closes the current slice and starts a new one, dropping the oldest.
+     */
+    public synchronized void rotate() {
+        drainRecorder();
+        current = (current + 1) % slices.length;
+        slices[current].reset();
+    }
+
+    /**
+     * Percentiles over the most recent {@code sliceCount} slices, including the open one.
+     */
+    public synchronized LatencySnapshot snapshot(int sliceCount) {
+        drainRecorder();
+        var window = new Histogram(SIGNIFICANT_DIGITS);
+        for (int i = 0; i < Math.min(sliceCount, slices.length); i++) {
+            window.add(slices[Math.floorMod(current - i, slices.length)]);
+        }
+        return new LatencySnapshot(
+                window.getTotalCount(),
+                window.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                window.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                window.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                window.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                window.getMaxValue() / MICROS_PER_MILLI
+        );
+    }
+
+    private void drainRecorder() {
+        interval = recorder.getIntervalHistogram(interval);
+        slices[current].add(interval);
+    }
+}
@@ -1,14 +1,31 @@
 package com.example.aop.aspect.retry;
 
+import com.example.aop.aspect.support.MethodMetadataRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Aspect that retries method execution on specified exceptions.
+ * <p>
+ * Waits between attempts with exponential backoff and optional jitter, and draws every
+ * retry from a shared {@link RetryBudget} so a failing dependency is not hit by a retry storm.
+ * Methods returning {@link CompletableFuture} schedule the next attempt instead of sleeping.
+ * Each call, with its attempt count, is emitted as a {@link RetryEvent} when enabled in the JFR settings.
  */
 @Slf4j
 @Aspect
@@ -16,29 +33,175 @@ import org.springframework.stereotype.Component;
 @Component
 public class RetryAspect {
 
-    @Around("@annotation(retryable)")
+    private final Executor retryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${aop.retry.budget.ratio:0.2}")
+    private double budgetRatio;
+
+    @Value("${aop.retry.budget.min-retries-per-second:10}")
+    private int budgetMinRetriesPerSecond;
+
+    @Value("${aop.retry.budget.max-tokens:100}")
+    private int budgetMaxTokens;
+
+    private RetryBudget budget;
+
+    @PostConstruct
+    public void init() {
+        budget = new RetryBudget(budgetRatio, budgetMinRetriesPerSecond, budgetMaxTokens);
+    }
+
+    @Around("execution(* *(..)) && @annotation(retryable)")
     public Object retry(ProceedingJoinPoint joinPoint, Retryable retryable) throws Throwable {
-        var method = joinPoint.getSignature().toShortString();
+        var metadata = MethodMetadataRegistry.get(joinPoint);
+        budget.recordCall();
+        var event = new RetryEvent();
+        event.begin();
+        if (CompletableFuture.class.isAssignableFrom(metadata.method().getReturnType())) {
+            var result = new CompletableFuture<>();
+            var attempts = new AtomicInteger();
+            result.whenComplete((value, failure) -> event.complete(metadata.shortName(), attempts.get(), failure == null));
+            attemptAsync(joinPoint, retryable, metadata.shortName(), 1, attempts, result);
+            return result;
+        }
+
+        var method = metadata.shortName();
         int maxAttempts = retryable.maxAttempts();
         Throwable lastException = null;
+        int attempt = 1;
+        boolean succeeded = false;
 
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
-            try {
-                if (attempt > 1) {
-                    log.info("Retry attempt {}/{} for {}", attempt, maxAttempts, method);
+        try {
+            for (; attempt <= maxAttempts; attempt++) {
+                try {
+                    if (attempt > 1) {
+                        log.info("Retry attempt {}/{} for {}", attempt, maxAttempts, method);
+                    }
+                    var result = joinPoint.proceed();
+                    succeeded = true;
+                    return result;
+                } catch (Throwable e) {
+                    if (!isRetryable(e, retryable.retryOn())) {
+                        throw e;
+                    }
+                    lastException = e;
+                    log.warn("Attempt {}/{} failed for {}: {}", attempt, maxAttempts, method, e.getMessage());
+                    if (attempt == maxAttempts) {
+                        break;
+                    }
+                    if (!acquireRetry(method)) {
+                        throw e;
+                    }
+                    try {
+                        Thread.sleep(delayBeforeRetry(retryable, attempt));
+                    } catch (InterruptedException interrupted) {
+                        // the advised method may not declare InterruptedException, so give up with its own failure
+                        Thread.currentThread().interrupt();
+                        log.warn("Interrupted while waiting to retry {}, giving up after attempt {}", method, attempt);
+                        e.addSuppressed(interrupted);
+                        throw e;
+                    }
                 }
-                return joinPoint.proceed();
+            }
+
+            log.error("All {} attempts exhausted for {}", maxAttempts, method);
+            throw lastException;
+        } finally {
+            event.complete(method, Math.min(attempt, maxAttempts), succeeded);
+        }
+    }
+
+    /**
+     * Number of retries the shared budget currently allows.
+     */
+    public long availableRetries() {
+        return budget.availableRetries();
+    }
+
+    private void attemptAsync(ProceedingJoinPoint joinPoint, Retryable retryable, String method, int attempt,
+                              AtomicInteger attempts, CompletableFuture<Object> result) {
+        attempts.set(attempt);
+        int maxAttempts = retryable.maxAttempts();
+        if (attempt > 1) {
+            log.info("Retry attempt {}/{} for {}", attempt, maxAttempts, method);
+        }
+
+        CompletableFuture<?> future;
+        try {
+            future = (CompletableFuture<?>) joinPoint.proceed();
+            if (future == null) {
+                future = CompletableFuture.failedFuture(new NullPointerException(method + " returned null instead of a CompletableFuture"));
+            }
+        } catch (Throwable e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((value, failure) -> {
+            try {
+                onAttemptComplete(joinPoint, retryable, method, attempt, attempts, result, value, failure);
             } catch (Throwable e) {
-                if (!isRetryable(e, retryable.retryOn())) {
-                    throw e;
-                }
-                lastException = e;
-                log.warn("Attempt {}/{} failed for {}: {}", attempt, maxAttempts, method, e.getMessage());
+                // nothing else would complete the caller's future
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private void onAttemptComplete(ProceedingJoinPoint joinPoint, Retryable retryable, String method, int attempt,
+                                   AtomicInteger attempts, CompletableFuture<Object> result, Object value, Throwable failure) {
+        int maxAttempts = retryable.maxAttempts();
+        if (failure == null) {
+            result.complete(value);
+            return;
+        }
+        var cause = unwrap(failure);
+        if (!isRetryable(cause, retryable.retryOn())) {
+            result.completeExceptionally(cause);
+            return;
+        }
+        log.warn("Attempt {}/{} failed for {}: {}", attempt, maxAttempts, method, cause.getMessage());
+        if (attempt == maxAttempts) {
+            log.error("All {} attempts exhausted for {}", maxAttempts, method);
+            result.completeExceptionally(cause);
+            return;
+        }
+        if (!acquireRetry(method)) {
+            result.completeExceptionally(cause);
+            return;
+        }
+        var delayed = CompletableFuture.delayedExecutor(delayBeforeRetry(retryable, attempt), TimeUnit.MILLISECONDS, retryExecutor);
+        delayed.execute(() -> {
+            try {
+                attemptAsync(joinPoint, retryable, method, attempt + 1, attempts, result);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
             }
+        });
+    }
+
+    private boolean acquireRetry(String method) {
+        if (budget.tryAcquireRetry()) {
+            return true;
         }
+        log.warn("Retry budget exhausted, not retrying {}", method);
+        return false;
+    }
 
-        log.error("All {} attempts exhausted for {}", maxAttempts, method);
-        throw lastException;
+    /**
+     * Backoff before the retry following the given (1-based) attempt.
+     */
+    static long delayBeforeRetry(Retryable retryable, int attempt) {
+        if (retryable.backoff() <= 0) {
+            return 0;
+        }
+        var delay = (long) Math.min(retryable.maxDelay(), retryable.backoff() * Math.pow(retryable.multiplier(), attempt - 1));
+        return retryable.jitter() ? ThreadLocalRandom.current().nextLong(delay + 1) : delay;
+    }
+
+    private Throwable unwrap(Throwable failure) {
+        if ((failure instanceof CompletionException || failure instanceof ExecutionException) && failure.getCause() != null) {
+            return failure.getCause();
+        }
+        return failure;
     }
 
     private boolean isRetryable(Throwable thrown, Class<? extends Throwable>[] retryOn) {
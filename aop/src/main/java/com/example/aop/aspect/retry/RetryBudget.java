@@ -0,0 +1,75 @@
+package com.example.aop.aspect.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps retries to a fraction of normal traffic.
+ * <p>
+ * Every first attempt deposits {@code ratio} tokens and every retry withdraws one, so
+ * retries can never exceed {@code ratio} of calls. A small reserve refilled per second
+ * keeps retries possible at low traffic. During an outage the bucket drains and callers
+ * fail fast instead of multiplying load on the failing dependency.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1_000;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long depositPerCall;
+    private final long reservePerSecond;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefillNanos = new AtomicLong(System.nanoTime());
+
+    public RetryBudget(double ratio, int minRetriesPerSecond, int maxTokens) {
+        this.depositPerCall = Math.round(ratio * SCALE);
+        this.reservePerSecond = minRetriesPerSecond * SCALE;
+        this.maxBalance = maxTokens * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Records a first attempt, earning retry tokens.
+     */
+    public void recordCall() {
+        deposit(depositPerCall);
+    }
+
+    /**
+     * Takes one token for a retry. Returns false when the budget is exhausted.
+     */
+    public boolean tryAcquireRetry() {
+        refillReserve();
+        while (true) {
+            var current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Number of whole retries currently available.
+     */
+    public long availableRetries() {
+        refillReserve();
+        return balance.get() / SCALE;
+    }
+
+    private void refillReserve() {
+        var now = System.nanoTime();
+        var last = lastRefillNanos.get();
+        var elapsed = now - last;
+        if (elapsed < NANOS_PER_SECOND / 10 || !lastRefillNanos.compareAndSet(last, now)) {
+            return;
+        }
+        deposit(reservePerSecond * Math.min(elapsed, 60 * NANOS_PER_SECOND) / NANOS_PER_SECOND);
+    }
+
+    private void deposit(long amount) {
+        balance.accumulateAndGet(amount, (current, delta) -> Math.min(maxBalance, current + delta));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.aop.aspect.retry;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event spanning all attempts of a @Retryable call. Disabled unless enabled by JFR settings.
+ */
+@Name("com.example.aop.Retry")
+@Label("Retry")
+@Description("Call to a @Retryable method, including every attempt and backoff")
+@Category({"Spring AOP", "Retry"})
+@Enabled(false)
+@StackTrace(false)
+public class RetryEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    void complete(String method, int attempts, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.attempts = attempts;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
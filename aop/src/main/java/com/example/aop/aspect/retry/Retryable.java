@@ -4,6 +4,10 @@ import java.lang.annotation.*;
 
 /**
  * Annotation to mark methods for automatic retry on failure.
+ * <p>
+ * Retries wait with exponential backoff: the n-th retry waits
+ * {@code min(maxDelay, backoff * multiplier^(n-1))}, randomized when {@link #jitter()} is on.
+ * Methods returning {@code CompletableFuture} are retried without blocking a thread.
  */
 @Documented
 @Target(ElementType.METHOD)
@@ -19,4 +23,25 @@ public @interface Retryable {
      * Exception types that trigger a retry.
      */
     Class<? extends Throwable>[] retryOn() default {RuntimeException.class};
+
+    /**
+     * Delay before the first retry in milliseconds. Zero retries immediately.
+     */
+    long backoff() default 100;
+
+    /**
+     * Factor applied to the delay after each retry.
+     */
+    double multiplier() default 2.0;
+
+    /**
+     * Upper bound of the delay between attempts in milliseconds.
+     */
+    long maxDelay() default 10_000;
+
+    /**
+     * Whether to pick a random delay between zero and the computed backoff ("full jitter"),
+     * so callers that failed together do not retry together.
+     */
+    boolean jitter() default true;
 }
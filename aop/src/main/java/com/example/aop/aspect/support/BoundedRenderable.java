@@ -0,0 +1,17 @@
+package com.example.aop.aspect.support;
+
+import java.util.Map;
+
+/**
+ * Implemented by argument and result types that can be large, so {@link BoundedRenderer} renders
+ * them property by property up to its character limit instead of calling {@code toString()}.
+ * The output looks like Lombok's {@code @ToString}: {@code Order(id=7, lines=[...])}.
+ */
+public interface BoundedRenderable {
+
+    /**
+     * Properties to render, in order. Values are only rendered while the character budget lasts,
+     * so returning references to large fields costs nothing.
+     */
+    Map<String, ?> renderedProperties();
+}
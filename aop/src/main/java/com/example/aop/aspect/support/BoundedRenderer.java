@@ -0,0 +1,142 @@
+package com.example.aop.aspect.support;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Renders values for log messages, stopping once a character budget is used up.
+ * <p>
+ * Arrays, collections, maps, {@link Optional}s and {@link BoundedRenderable} objects are walked
+ * element by element, so a large argument is not turned into one full string before truncation.
+ * Any other value's {@code toString()} is still built in full; only what is copied is bounded.
+ * Nesting deeper than {@value #MAX_DEPTH} levels is rendered as "...".
+ */
+public final class BoundedRenderer {
+
+    private static final String ELLIPSIS = "...";
+    private static final int MAX_DEPTH = 8;
+
+    private BoundedRenderer() {
+    }
+
+    /**
+     * Renders the value like {@code String.valueOf} (arrays like {@code Arrays.toString}),
+     * truncated to {@code maxChars} characters followed by "..." when cut.
+     */
+    public static String render(Object value, int maxChars) {
+        var out = new Output(maxChars);
+        append(out, value, 0);
+        return out.toString();
+    }
+
+    private static void append(Output out, Object value, int depth) {
+        if (depth > MAX_DEPTH && value != null && !(value instanceof CharSequence)) {
+            out.append(ELLIPSIS);
+        } else if (value == null) {
+            out.append("null");
+        } else if (value instanceof CharSequence text) {
+            out.append(text);
+        } else if (value instanceof Object[] array) {
+            out.append("[");
+            for (int i = 0; i < array.length && !out.isFull(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                append(out, array[i], depth + 1);
+            }
+            out.append("]");
+        } else if (value.getClass().isArray()) {
+            out.append("[");
+            var length = Array.getLength(value);
+            for (int i = 0; i < length && !out.isFull(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                out.append(String.valueOf(Array.get(value, i)));
+            }
+            out.append("]");
+        } else if (value instanceof Collection<?> collection) {
+            out.append("[");
+            var first = true;
+            for (var iterator = collection.iterator(); iterator.hasNext() && !out.isFull(); first = false) {
+                if (!first) {
+                    out.append(", ");
+                }
+                append(out, iterator.next(), depth + 1);
+            }
+            out.append("]");
+        } else if (value instanceof Map<?, ?> map) {
+            out.append("{");
+            var first = true;
+            for (var iterator = map.entrySet().iterator(); iterator.hasNext() && !out.isFull(); first = false) {
+                if (!first) {
+                    out.append(", ");
+                }
+                var entry = iterator.next();
+                append(out, entry.getKey(), depth + 1);
+                out.append("=");
+                append(out, entry.getValue(), depth + 1);
+            }
+            out.append("}");
+        } else if (value instanceof Optional<?> optional) {
+            if (optional.isEmpty()) {
+                out.append("Optional.empty");
+            } else {
+                out.append("Optional[");
+                append(out, optional.get(), depth + 1);
+                out.append("]");
+            }
+        } else if (value instanceof BoundedRenderable renderable) {
+            out.append(value.getClass().getSimpleName());
+            out.append("(");
+            var first = true;
+            for (var iterator = renderable.renderedProperties().entrySet().iterator(); iterator.hasNext() && !out.isFull(); first = false) {
+                if (!first) {
+                    out.append(", ");
+                }
+                var property = iterator.next();
+                out.append(property.getKey());
+                out.append("=");
+                append(out, property.getValue(), depth + 1);
+            }
+            out.append(")");
+        } else {
+            out.append(value.toString());
+        }
+    }
+
+    private static final class Output {
+        private final StringBuilder builder;
+        private final int maxChars;
+        private boolean truncated;
+
+        private Output(int maxChars) {
+            this.maxChars = maxChars;
+            this.builder = new StringBuilder(Math.min(maxChars, 256) + ELLIPSIS.length());
+        }
+
+        boolean isFull() {
+            return truncated;
+        }
+
+        void append(CharSequence text) {
+            if (truncated) {
+                return;
+            }
+            var remaining = maxChars - builder.length();
+            if (text.length() > remaining) {
+                builder.append(text, 0, remaining);
+                truncated = true;
+            } else {
+                builder.append(text);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return truncated ? builder.append(ELLIPSIS).toString() : builder.toString();
+        }
+    }
+}
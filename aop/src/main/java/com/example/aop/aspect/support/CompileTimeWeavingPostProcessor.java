@@ -0,0 +1,75 @@
+package com.example.aop.aspect.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Switches the application to compile-time woven aspects when the build ran ajc
+ * ({@code ./gradlew -PaspectjWeaving}); does nothing for a regular build.
+ * <p>
+ * A woven aspect is a singleton owned by AspectJ, reachable through its generated static
+ * {@code aspectOf()}. Every @Aspect bean is therefore created through that factory method, so
+ * Spring injects configuration into the instance the woven code actually calls. The auto-proxy
+ * creator stays, so {@code @Transactional}, {@code @Async}, method validation and other proxy-based
+ * features keep working, but is restricted to the @Aspect beans that were not woven: proxying
+ * with a woven aspect as well would apply its advice twice.
+ */
+@Slf4j
+@Component
+public class CompileTimeWeavingPostProcessor implements BeanFactoryPostProcessor {
+
+    private static final String ASPECT_OF = "aspectOf";
+
+    /**
+     * Whether the aspects in this application were woven at compile time.
+     */
+    public static boolean isActive() {
+        return isWoven(MethodMetadataRegistry.class.getClassLoader(), "com.example.aop.aspect.ExecutionLoggingAspect");
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        int woven = 0;
+        var proxied = new ArrayList<String>();
+        for (var name : beanFactory.getBeanDefinitionNames()) {
+            var definition = beanFactory.getBeanDefinition(name);
+            if (!(definition instanceof AbstractBeanDefinition bean) || bean.getBeanClassName() == null) {
+                continue;
+            }
+            if (bean.getFactoryMethodName() == null && isWoven(beanFactory.getBeanClassLoader(), bean.getBeanClassName())) {
+                bean.setFactoryMethodName(ASPECT_OF);
+                woven++;
+            } else {
+                proxied.add(Pattern.quote(name));
+            }
+        }
+
+        if (woven > 0 && beanFactory.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+            var autoProxyCreator = beanFactory.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME);
+            if (!AnnotationAwareAspectJAutoProxyCreator.class.getName().equals(autoProxyCreator.getBeanClassName())) {
+                return;
+            }
+            // only the @Aspect beans matching a pattern are turned into advisors; other advisors are unaffected
+            autoProxyCreator.getPropertyValues().add("includePatterns", proxied);
+            log.info("Using {} compile-time woven aspects, Spring AOP proxying them disabled", woven);
+        }
+    }
+
+    private static boolean isWoven(ClassLoader classLoader, String className) {
+        if (!ClassUtils.isPresent(className, classLoader)) {
+            return false;
+        }
+        var type = ClassUtils.resolveClassName(className, classLoader);
+        return type.isAnnotationPresent(Aspect.class) && ClassUtils.hasMethod(type, ASPECT_OF);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.aop.aspect.support;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a call is logged, keeping roughly {@code rate} of calls (0.0 - 1.0).
+ */
+public final class LogSampler {
+
+    private LogSampler() {
+    }
+
+    public static boolean sample(double rate) {
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
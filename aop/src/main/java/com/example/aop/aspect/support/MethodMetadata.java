@@ -0,0 +1,44 @@
+package com.example.aop.aspect.support;
+
+import com.example.aop.aspect.MonitorPerformance;
+import com.example.aop.aspect.cache.SimpleCache;
+import com.example.aop.aspect.retry.Retryable;
+
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Per-method information that aspects need on every call, computed once by {@link MethodMetadataRegistry}.
+ *
+ * @param method             the advised method
+ * @param shortName          short signature, e.g. {@code AccountService.serve(..)}
+ * @param signature          signature with parameter types, e.g. {@code AccountService.serve(int)},
+ *                           which unlike the short one tells overloaded methods apart
+ * @param simpleCache        @SimpleCache on the method, or null
+ * @param monitorPerformance @MonitorPerformance on the method or its class, or null
+ * @param retryable          @Retryable on the method, or null
+ */
+public record MethodMetadata(
+        Method method,
+        String shortName,
+        String signature,
+        SimpleCache simpleCache,
+        MonitorPerformance monitorPerformance,
+        Retryable retryable
+) {
+
+    public static String signatureOf(Method method) {
+        var parameters = Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(","));
+        return ClassUtils.getShortName(method.getDeclaringClass()) + "." + method.getName() + "(" + parameters + ")";
+    }
+
+    /**
+     * Threshold from @MonitorPerformance, or -1 when the global default applies.
+     */
+    public long thresholdMs() {
+        return monitorPerformance != null && monitorPerformance.thresholdMs() > 0 ? monitorPerformance.thresholdMs() : -1;
+    }
+}
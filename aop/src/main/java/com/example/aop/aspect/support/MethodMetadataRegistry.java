@@ -0,0 +1,49 @@
+package com.example.aop.aspect.support;
+
+import com.example.aop.aspect.MonitorPerformance;
+import com.example.aop.aspect.cache.SimpleCache;
+import com.example.aop.aspect.retry.Retryable;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared cache of {@link MethodMetadata}, so aspects do not rebuild signature strings
+ * or re-resolve annotations on every advised call.
+ * <p>
+ * Entries are never removed; the number of advised methods is fixed by the code base.
+ */
+public final class MethodMetadataRegistry {
+
+    private static final ConcurrentHashMap<Method, MethodMetadata> METADATA = new ConcurrentHashMap<>();
+
+    private MethodMetadataRegistry() {
+    }
+
+    public static MethodMetadata get(JoinPoint joinPoint) {
+        var signature = (MethodSignature) joinPoint.getSignature();
+        var metadata = METADATA.get(signature.getMethod());
+        if (metadata != null) {
+            return metadata;
+        }
+        return METADATA.computeIfAbsent(signature.getMethod(), method -> resolve(method, signature));
+    }
+
+    private static MethodMetadata resolve(Method method, MethodSignature signature) {
+        var monitorPerformance = AnnotatedElementUtils.findMergedAnnotation(method, MonitorPerformance.class);
+        if (monitorPerformance == null) {
+            monitorPerformance = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), MonitorPerformance.class);
+        }
+        return new MethodMetadata(
+                method,
+                signature.toShortString(),
+                MethodMetadata.signatureOf(method),
+                AnnotatedElementUtils.findMergedAnnotation(method, SimpleCache.class),
+                monitorPerformance,
+                AnnotatedElementUtils.findMergedAnnotation(method, Retryable.class)
+        );
+    }
+}
@@ -1,28 +1,46 @@
 package com.example.aop.dao;
 
+import com.example.aop.aspect.audit.Audited;
 import com.example.aop.aspect.auth.RequiresRole;
+import com.example.aop.aspect.batch.Batched;
+import com.example.aop.aspect.bulkhead.Bulkhead;
 import com.example.aop.aspect.cache.SimpleCache;
 import com.example.aop.aspect.retry.Retryable;
 import com.example.aop.entity.Account;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Repository
 public class AccountDao {
 
     private final AtomicInteger fetchCounter = new AtomicInteger(0);
+    private final AtomicInteger slowFindCounter = new AtomicInteger(0);
+    private final AtomicInteger findCounter = new AtomicInteger(0);
+    private final AtomicInteger refreshingFindCounter = new AtomicInteger(0);
 
     public List<Account> find(List<Integer> ids) {
-        return new ArrayList<>();
+        findCounter.incrementAndGet();
+        return ids.stream().map(id -> new Account(id, "Account-" + id)).toList();
+    }
+
+    /**
+     * Single-account lookup. Concurrent calls are merged by the @Batched aspect into
+     * one {@link #find(List)} call, so N callers cost one round trip instead of N.
+     */
+    @Batched(bulkMethod = "find")
+    public Account findById(int id) {
+        return find(List.of(id)).getFirst();
     }
 
     public List<Account> findOrExceptionIfNotFound(List<Integer> ids) {
         throw new RuntimeException("not found any account " + ids);
     }
 
+    @Audited(action = "CREATE", entity = "Account")
     public void add() {
     }
 
@@ -37,6 +55,7 @@ public class AccountDao {
      */
     @SimpleCache
     public Account slowFindById(int id) {
+        slowFindCounter.incrementAndGet();
         try {
             Thread.sleep(500); // simulate expensive operation
         } catch (InterruptedException e) {
@@ -45,6 +64,22 @@ public class AccountDao {
         return new Account(id, "Account-" + id);
     }
 
+    /**
+     * Simulates an expensive lookup whose data changes over time: every load returns a new version.
+     * Used to demonstrate refresh-ahead: after 200ms hits return the cached version at once while
+     * it is reloaded in the background; after 1s the entry expires and is reloaded synchronously.
+     */
+    @SimpleCache(ttl = 1000, refreshAfter = 200, timeUnit = TimeUnit.MILLISECONDS)
+    public Account refreshingFindById(int id) {
+        int version = refreshingFindCounter.incrementAndGet();
+        try {
+            Thread.sleep(300); // simulate expensive operation
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Account(id, "Account-" + id + "-v" + version);
+    }
+
     /**
      * Simulates an unreliable data source that fails the first 2 calls
      * and succeeds on the 3rd. Used to demonstrate the @Retryable aspect.
@@ -58,7 +93,58 @@ public class AccountDao {
         return new Account(id, "Fetched");
     }
 
+    /**
+     * Asynchronous variant of {@link #fetchWithRetry(int)}: the returned future fails
+     * for the first 2 calls. Retries are scheduled without blocking a thread.
+     */
+    @Retryable(maxAttempts = 3, retryOn = RuntimeException.class)
+    public CompletableFuture<Account> fetchAsyncWithRetry(int id) {
+        int attempt = fetchCounter.incrementAndGet();
+        if (attempt % 3 != 0) {
+            return CompletableFuture.failedFuture(new RuntimeException("Transient failure on attempt " + attempt));
+        }
+        return CompletableFuture.completedFuture(new Account(id, "Fetched"));
+    }
+
+    /**
+     * Simulates a slow dependency that tolerates only 2 concurrent calls.
+     * Used to demonstrate the @Bulkhead aspect: a third caller waits briefly, a fourth is rejected.
+     */
+    @Bulkhead(name = "account-db", maxConcurrent = 2, maxWaiting = 1, maxWaitMs = 50)
+    public Account fetchFromSlowDependency(int id) {
+        try {
+            Thread.sleep(300); // simulate slow dependency
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Account(id, "Account-" + id);
+    }
+
     public void resetFetchCounter() {
         fetchCounter.set(0);
     }
+
+    public int getSlowFindCount() {
+        return slowFindCounter.get();
+    }
+
+    public void resetSlowFindCounter() {
+        slowFindCounter.set(0);
+    }
+
+    public int getRefreshingFindCount() {
+        return refreshingFindCounter.get();
+    }
+
+    public void resetRefreshingFindCounter() {
+        refreshingFindCounter.set(0);
+    }
+
+    public int getFindCount() {
+        return findCounter.get();
+    }
+
+    public void resetFindCounter() {
+        findCounter.set(0);
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.aop.endpoint;
+
+import com.example.aop.aspect.PerformanceMonitoringAspect;
+import com.example.aop.aspect.latency.LatencySnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "method-latency")
+public class MethodLatencyEndpoint {
+
+    private final PerformanceMonitoringAspect performanceMonitoringAspect;
+
+    @ReadOperation
+    public Map<String, Map<String, LatencySnapshot>> latencies() {
+        return performanceMonitoringAspect.latencySnapshots();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.aop.service;
 
 import com.example.aop.aspect.ExecutionLogging;
 import com.example.aop.aspect.MonitorPerformance;
+import com.example.aop.aspect.bulkhead.Bulkhead;
 import com.example.aop.dao.AccountDao;
 import com.example.aop.entity.Account;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,7 @@ public class AccountService {
 
     @ExecutionLogging
     @MonitorPerformance(thresholdMs = 500)
+    @Bulkhead(maxConcurrent = 8, adaptive = true, maxWaiting = 16, maxWaitMs = 2000)
     public void serve(int factor) throws InterruptedException {
         Thread.sleep(factor * 1000L);
     }
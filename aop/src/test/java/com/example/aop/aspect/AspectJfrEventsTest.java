@@ -0,0 +1,112 @@
+package com.example.aop.aspect;
+
+import com.example.aop.aspect.auth.AccessDeniedException;
+import com.example.aop.aspect.auth.SecurityContext;
+import com.example.aop.aspect.cache.CacheAspect;
+import com.example.aop.dao.AccountDao;
+import com.example.aop.service.AccountService;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that the aspects emit their JFR events when enabled by jfr/aop.jfc.
+ */
+@SpringBootTest
+class AspectJfrEventsTest {
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CacheAspect cacheAspect;
+
+    @TempDir
+    Path tempDir;
+
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cacheAspect.clearCache();
+        accountDao.resetFetchCounter();
+        recording = new Recording(Configuration.create(Path.of("jfr/aop.jfc")));
+        recording.enable("com.example.aop.MethodExecution").withThreshold(Duration.ZERO);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContext.clear();
+        recording.close();
+    }
+
+    @Test
+    void aspects_emitEventsWithMethodAndDuration() throws Exception {
+        accountService.serve(0);
+        accountDao.fetchWithRetry(1);
+        accountDao.slowFindById(5);
+        accountDao.slowFindById(5);
+        SecurityContext.setRole("USER");
+        assertThatThrownBy(() -> accountDao.delete(1)).isInstanceOf(AccessDeniedException.class);
+
+        var events = stop();
+
+        assertThat(events("com.example.aop.MethodExecution", events))
+                .anySatisfy(event -> assertThat(event.getString("method")).isEqualTo("AccountService.serve(..)"));
+        assertThat(events("com.example.aop.Retry", events)).singleElement().satisfies(event -> {
+            assertThat(event.getString("method")).isEqualTo("AccountDao.fetchWithRetry(..)");
+            assertThat(event.getInt("attempts")).isEqualTo(3);
+            assertThat(event.getBoolean("succeeded")).isTrue();
+        });
+        assertThat(events("com.example.aop.Cache", events))
+                .extracting(event -> event.getString("outcome"))
+                .containsExactly("MISS", "HIT");
+        assertThat(events("com.example.aop.Cache", events).getFirst().getDuration())
+                .isGreaterThanOrEqualTo(Duration.ofMillis(500));
+        assertThat(events("com.example.aop.Authorization", events)).singleElement().satisfies(event -> {
+            assertThat(event.getString("method")).isEqualTo("AccountDao.delete(..)");
+            assertThat(event.getString("requiredRole")).isEqualTo("ADMIN");
+            assertThat(event.getBoolean("granted")).isFalse();
+        });
+    }
+
+    @Test
+    void events_areDisabledWithoutSettings() throws Exception {
+        recording.close();
+        recording = new Recording();
+        recording.start();
+
+        accountDao.slowFindById(6);
+
+        assertThat(events("com.example.aop.Cache", stop())).isEmpty();
+    }
+
+    private List<RecordedEvent> stop() throws Exception {
+        recording.stop();
+        var file = tempDir.resolve("recording.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> events(String name, List<RecordedEvent> events) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+}
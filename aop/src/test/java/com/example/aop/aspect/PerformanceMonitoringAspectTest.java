@@ -21,6 +21,9 @@ class PerformanceMonitoringAspectTest {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private PerformanceMonitoringAspect performanceMonitoringAspect;
+
     @Test
     void monitorPerformance_logsSlowMethod(CapturedOutput output) throws InterruptedException {
         // serve() has @MonitorPerformance(thresholdMs = 500)
@@ -32,4 +35,14 @@ class PerformanceMonitoringAspectTest {
                 .contains("AccountService.serve(..)")
                 .contains("threshold: 500ms");
     }
+
+    @Test
+    void monitorPerformance_recordsLatencyHistogram() throws InterruptedException {
+        accountService.serve(1);
+
+        var windows = performanceMonitoringAspect.latencySnapshots().get("AccountService.serve(int)");
+        assertThat(windows).containsKeys("1m", "5m");
+        assertThat(windows.get("1m").count()).isPositive();
+        assertThat(windows.get("1m").maxMs()).isGreaterThanOrEqualTo(1000);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.aop.aspect;
 
+import com.example.aop.aspect.support.CompileTimeWeavingPostProcessor;
 import com.example.aop.service.AccountService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,11 +10,16 @@ import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * Demonstrates the Spring AOP self-invocation proxy limitation.
  * When a bean calls its own method internally, the call bypasses the proxy
  * and aspects do not fire.
+ * <p>
+ * With compile-time weaving (-PaspectjWeaving) the advice is part of the method itself,
+ * so self-invocation is advised as well.
  */
 @SpringBootTest
 @ExtendWith(OutputCaptureExtension.class)
@@ -32,6 +38,8 @@ class SelfInvocationTest {
 
     @Test
     void selfInvocation_aspectDoesNotFire(CapturedOutput output) throws InterruptedException {
+        assumeFalse(CompileTimeWeavingPostProcessor.isActive(), "proxy limitation does not apply to woven aspects");
+
         // processBatch() internally calls serve() — aspect does NOT fire
         // because the internal call bypasses the AOP proxy
         accountService.processBatch(1);
@@ -40,4 +48,13 @@ class SelfInvocationTest {
         assertThat(output).contains("processBatch - calling serve() internally");
         assertThat(output).doesNotContain("Executing: AccountService.serve(..)");
     }
+
+    @Test
+    void selfInvocation_wovenAspectFires(CapturedOutput output) throws InterruptedException {
+        assumeTrue(CompileTimeWeavingPostProcessor.isActive(), "requires -PaspectjWeaving");
+
+        accountService.processBatch(0);
+
+        assertThat(output).contains("Executing: AccountService.serve(..)");
+    }
 }
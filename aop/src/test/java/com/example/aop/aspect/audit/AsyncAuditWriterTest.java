@@ -0,0 +1,69 @@
+package com.example.aop.aspect.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncAuditWriterTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void write_afterStop_isRefusedAndCounted() throws Exception {
+        // Given
+        var writer = writer(OverflowPolicy.SYNC, 8);
+        writer.start();
+        writer.write(record("BEFORE_STOP"));
+        writer.stop();
+
+        // When
+        writer.write(record("AFTER_STOP"));
+
+        // Then
+        var content = Files.readString(writer.currentSegment(), StandardCharsets.UTF_8);
+        assertThat(content).contains("action=BEFORE_STOP").doesNotContain("action=AFTER_STOP");
+        assertThat(writer.droppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void blockedWrite_givesUpOnceStopped() throws Exception {
+        // Given: a full buffer that no writer thread drains
+        var writer = writer(OverflowPolicy.BLOCK, 2);
+        ReflectionTestUtils.setField(writer, "buffer", new RingBuffer<AuditLog>(2));
+        ReflectionTestUtils.setField(writer, "running", true);
+        writer.write(record("FIRST"));
+        writer.write(record("SECOND"));
+        var blocked = Thread.ofVirtual().start(() -> writer.write(record("BLOCKED")));
+        blocked.join(50);
+        assertThat(blocked.isAlive()).isTrue();
+
+        // When
+        ReflectionTestUtils.setField(writer, "running", false);
+
+        // Then
+        assertThat(blocked.join(Duration.ofSeconds(5))).isTrue();
+        assertThat(writer.droppedCount()).isEqualTo(1);
+    }
+
+    private AsyncAuditWriter writer(OverflowPolicy overflowPolicy, int bufferCapacity) {
+        var writer = new AsyncAuditWriter();
+        ReflectionTestUtils.setField(writer, "journalDirectory", journalDirectory);
+        ReflectionTestUtils.setField(writer, "segmentSize", 4096);
+        ReflectionTestUtils.setField(writer, "bufferCapacity", bufferCapacity);
+        ReflectionTestUtils.setField(writer, "batchSize", 16);
+        ReflectionTestUtils.setField(writer, "overflowPolicy", overflowPolicy);
+        return writer;
+    }
+
+    private static AuditLog record(String action) {
+        return AuditLog.builder().action(action).entity("Account").build();
+    }
+}
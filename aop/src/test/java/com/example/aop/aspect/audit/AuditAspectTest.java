@@ -0,0 +1,48 @@
+package com.example.aop.aspect.audit;
+
+import com.example.aop.dao.AccountDao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AuditAspectTest {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private AsyncAuditWriter auditWriter;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("aop.audit.journal.directory", journalDirectory::toString);
+    }
+
+    @Test
+    void add_writesAuditRecordToJournal() throws Exception {
+        accountDao.add();
+
+        auditWriter.flush(5, TimeUnit.SECONDS);
+
+        var content = Files.readString(auditWriter.currentSegment(), StandardCharsets.UTF_8);
+        assertThat(content)
+                .contains("action=CREATE")
+                .contains("entity=Account")
+                .contains("method=AccountDao.add()");
+        assertThat(auditWriter.queueDepth()).isZero();
+    }
+}
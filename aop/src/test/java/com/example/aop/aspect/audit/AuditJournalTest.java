@@ -0,0 +1,75 @@
+package com.example.aop.aspect.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_writesOneLinePerRecord() throws Exception {
+        try (var journal = new AuditJournal(directory, 4096)) {
+            journal.append(List.of(record("CREATE"), record("DELETE")));
+
+            var content = read(journal.currentSegment());
+            assertThat(content.lines()).hasSize(2);
+            assertThat(content).contains("action=CREATE").contains("action=DELETE");
+        }
+    }
+
+    @Test
+    void append_beyondSegmentSize_rollsToNewSegment() throws Exception {
+        try (var journal = new AuditJournal(directory, 512)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(List.of(record("UPDATE-" + i)));
+            }
+        }
+
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void constructor_continuesAfterExistingSegments() throws Exception {
+        Path first;
+        try (var journal = new AuditJournal(directory, 4096)) {
+            journal.append(List.of(record("CREATE")));
+            first = journal.currentSegment();
+        }
+
+        try (var journal = new AuditJournal(directory, 4096)) {
+            journal.append(List.of(record("DELETE")));
+
+            assertThat(journal.currentSegment()).isNotEqualTo(first);
+            assertThat(read(first)).contains("action=CREATE").doesNotContain("action=DELETE");
+        }
+    }
+
+    private AuditLog record(String action) {
+        return AuditLog.builder()
+                .timestamp(Instant.now())
+                .user("anonymous")
+                .action(action)
+                .entity("Account")
+                .method("AccountDao.add()")
+                .args("[]")
+                .result("null")
+                .build();
+    }
+
+    private String read(Path segment) throws Exception {
+        // segments are zero-padded up to their mapped size
+        return new String(Files.readAllBytes(segment), StandardCharsets.UTF_8).replace("\0", "");
+    }
+}
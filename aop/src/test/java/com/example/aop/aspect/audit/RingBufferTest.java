@@ -0,0 +1,77 @@
+package com.example.aop.aspect.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RingBufferTest {
+
+    @Test
+    void offer_whenFull_returnsFalse() {
+        var buffer = new RingBuffer<Integer>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    void drainTo_returnsElementsInOrderAndFreesSlots() {
+        var buffer = new RingBuffer<Integer>(4);
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.offer(3);
+        var sink = new ArrayList<Integer>();
+
+        assertThat(buffer.drainTo(sink, 2)).isEqualTo(2);
+        assertThat(sink).containsExactly(1, 2);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isTrue();
+        assertThat(buffer.offer(6)).isTrue();
+        assertThat(buffer.offer(7)).isFalse();
+    }
+
+    @Test
+    void offer_fromManyProducers_losesNothing() throws Exception {
+        var buffer = new RingBuffer<Integer>(1024);
+        var received = new HashSet<Integer>();
+        var sink = new ArrayList<Integer>();
+        int producers = 8;
+        int perProducer = 10_000;
+
+        try (var executor = Executors.newFixedThreadPool(producers)) {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                executor.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+            }
+            while (received.size() < producers * perProducer) {
+                buffer.drainTo(sink, 256);
+                received.addAll(sink);
+                sink.clear();
+            }
+        }
+
+        assertThat(received).hasSize(producers * perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void constructor_rejectsNonPowerOfTwo() {
+        assertThatThrownBy(() -> new RingBuffer<Integer>(100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
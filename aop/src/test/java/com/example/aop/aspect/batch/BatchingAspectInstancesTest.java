@@ -0,0 +1,125 @@
+package com.example.aop.aspect.batch;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the aspect with mocked join points, so each {@link Repository} instance stands for a
+ * separate bean of the same class.
+ */
+class BatchingAspectInstancesTest {
+
+    private final BatchingAspect batchingAspect = new BatchingAspect();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batchingAspect.shutdown();
+    }
+
+    @Test
+    void twoInstances_loadTheirKeysThroughThemselves() throws Throwable {
+        var first = new Repository("first");
+        var second = new Repository("second");
+        var findById = Repository.class.getMethod("findById", int.class);
+
+        var fromFirst = (Item) batchingAspect.batch(joinPoint(first, findById, 1), findById.getAnnotation(Batched.class));
+        var fromSecond = (Item) batchingAspect.batch(joinPoint(second, findById, 1), findById.getAnnotation(Batched.class));
+
+        assertThat(fromFirst.getSource()).isEqualTo("first");
+        assertThat(fromSecond.getSource()).isEqualTo("second");
+        assertThat(batchingAspect.statistics().get("BatchingAspectInstancesTest.Repository.findById(int)").callCount()).isEqualTo(2);
+    }
+
+    @Test
+    void overloads_areCountedSeparately() throws Throwable {
+        var repository = new Repository("only");
+        var byInt = Repository.class.getMethod("findById", int.class);
+        var byString = Repository.class.getMethod("findById", String.class);
+
+        batchingAspect.batch(joinPoint(repository, byInt, 1), byInt.getAnnotation(Batched.class));
+        batchingAspect.batch(joinPoint(repository, byString, "2"), byString.getAnnotation(Batched.class));
+
+        assertThat(batchingAspect.statistics()).containsOnlyKeys(
+                "BatchingAspectInstancesTest.Repository.findById(int)", "BatchingAspectInstancesTest.Repository.findById(String)");
+    }
+
+    @Test
+    void shutdown_dispatchesBatchesWaitingForTheirWindow() throws Throwable {
+        var repository = new Repository("only");
+        var findLater = Repository.class.getMethod("findLater", int.class);
+        var future = (CompletableFuture<?>) batchingAspect.batch(joinPoint(repository, findLater, 3), findLater.getAnnotation(Batched.class));
+
+        batchingAspect.shutdown();
+
+        assertThat(((Item) future.get(5, TimeUnit.SECONDS)).getId()).isEqualTo(3);
+    }
+
+    private static ProceedingJoinPoint joinPoint(Object target, Method method, Object key) {
+        var signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.toShortString()).thenReturn("Repository." + method.getName() + "(..)");
+        var joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getThis()).thenReturn(target);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{key});
+        return joinPoint;
+    }
+
+    public static class Repository {
+
+        private final String source;
+
+        Repository(String source) {
+            this.source = source;
+        }
+
+        @Batched(bulkMethod = "find")
+        public Item findById(int id) {
+            throw new UnsupportedOperationException("answered by the aspect");
+        }
+
+        @Batched(bulkMethod = "find")
+        public Item findById(String id) {
+            throw new UnsupportedOperationException("answered by the aspect");
+        }
+
+        @Batched(bulkMethod = "find", window = 1, timeUnit = TimeUnit.HOURS)
+        public CompletableFuture<Item> findLater(int id) {
+            throw new UnsupportedOperationException("answered by the aspect");
+        }
+
+        public List<Item> find(List<Object> ids) {
+            return ids.stream().map(id -> new Item(id, source)).toList();
+        }
+    }
+
+    public static class Item {
+
+        private final Object id;
+        private final String source;
+
+        Item(Object id, String source) {
+            this.id = id;
+            this.source = source;
+        }
+
+        public Object getId() {
+            return id;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.aop.aspect.batch;
+
+import com.example.aop.aspect.support.CompileTimeWeavingPostProcessor;
+import com.example.aop.dao.AccountDao;
+import com.example.aop.entity.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BatchingAspectTest {
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private BatchingAspect batchingAspect;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        accountDao.resetFindCounter();
+    }
+
+    @Test
+    void findById_concurrentCalls_shareBulkFind() throws Exception {
+        int callers = 50;
+        var start = new CountDownLatch(1);
+
+        List<Future<Account>> results = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                int id = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return accountDao.findById(id);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < callers; i++) {
+                assertThat(results.get(i).get().getId()).isEqualTo(i);
+            }
+        }
+
+        // callers released together land in very few 2ms windows
+        assertThat(accountDao.getFindCount()).isBetween(1, callers / 5);
+        var stats = batchingAspect.statistics().get("AccountDao.findById(int)");
+        assertThat(stats.callCount()).isGreaterThanOrEqualTo(callers);
+        // a woven aspect is one instance per JVM, bound to the registry of the last test context started
+        if (!CompileTimeWeavingPostProcessor.isActive()) {
+            assertThat(meterRegistry.get("aop.batch.latency").tag("name", "AccountDao.findById(int)").timer().count())
+                    .isGreaterThanOrEqualTo(1);
+        }
+    }
+
+    @Test
+    void findById_singleCall_returnsAfterWindow() {
+        var account = accountDao.findById(7);
+
+        assertThat(account.getId()).isEqualTo(7);
+        assertThat(account.getName()).isEqualTo("Account-7");
+        assertThat(accountDao.getFindCount()).isEqualTo(1);
+    }
+}
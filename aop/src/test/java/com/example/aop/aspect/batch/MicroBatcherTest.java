@@ -0,0 +1,93 @@
+package com.example.aop.aspect.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicroBatcherTest {
+
+    private final List<List<Object>> bulkCalls = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    void submit_withinWindow_loadsAllKeysInOneCall() throws Exception {
+        var batcher = batcher(50, 100, keys -> keys.stream().map(key -> "v" + key).toList());
+
+        var futures = new ArrayList<CompletableFuture<Object>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.submit(i % 5));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("v" + (i % 5));
+        }
+        assertThat(bulkCalls).containsExactly(List.of(0, 1, 2, 3, 4));
+        assertThat(batcher.statistics()).isEqualTo(new BatchStatistics(10, 1, 5));
+    }
+
+    @Test
+    void submit_reachingMaxBatchSize_dispatchesWithoutWaitingForWindow() throws Exception {
+        var batcher = batcher(60_000, 3, keys -> keys.stream().map(key -> "v" + key).toList());
+
+        var first = batcher.submit(1);
+        batcher.submit(2);
+        batcher.submit(3);
+        var fourth = batcher.submit(4);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+        assertThat(fourth).isNotDone();
+        assertThat(bulkCalls).containsExactly(List.of(1, 2, 3));
+    }
+
+    @Test
+    void submit_keyMissingFromResults_completesWithNull() throws Exception {
+        var batcher = batcher(1, 100, keys -> List.of("v1"));
+
+        var found = batcher.submit(1);
+        var missing = batcher.submit(2);
+
+        assertThat(found.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void submit_bulkCallFails_failsEveryCaller() {
+        var batcher = batcher(1, 100, keys -> {
+            throw new IllegalStateException("database down");
+        });
+
+        var first = batcher.submit(1);
+        var second = batcher.submit(2);
+
+        for (var future : List.of(first, second)) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private MicroBatcher batcher(long windowMs, int maxBatchSize, MicroBatcher.BulkLoader loader) {
+        MicroBatcher.BulkLoader recording = keys -> {
+            bulkCalls.add(List.copyOf(keys));
+            return loader.load(keys);
+        };
+        return new MicroBatcher("test", recording, value -> Integer.valueOf(((String) value).substring(1)),
+                windowMs, TimeUnit.MILLISECONDS, maxBatchSize, timer, Runnable::run);
+    }
+}
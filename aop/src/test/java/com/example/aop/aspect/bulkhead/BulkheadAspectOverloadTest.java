@@ -0,0 +1,47 @@
+package com.example.aop.aspect.bulkhead;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkheadAspectOverloadTest {
+
+    private final BulkheadAspect bulkheadAspect = new BulkheadAspect();
+
+    @Bulkhead(maxConcurrent = 1)
+    void fetch(int id) {
+    }
+
+    @Bulkhead(maxConcurrent = 5)
+    void fetch(String name) {
+    }
+
+    @Test
+    void overloads_withoutName_getSeparateLimits() throws Throwable {
+        var byId = BulkheadAspectOverloadTest.class.getDeclaredMethod("fetch", int.class);
+        var byName = BulkheadAspectOverloadTest.class.getDeclaredMethod("fetch", String.class);
+
+        bulkheadAspect.limit(joinPoint(byId), byId.getAnnotation(Bulkhead.class));
+        bulkheadAspect.limit(joinPoint(byName), byName.getAnnotation(Bulkhead.class));
+
+        var statistics = bulkheadAspect.statistics();
+        assertThat(statistics).containsOnlyKeys("BulkheadAspectOverloadTest.fetch(int)", "BulkheadAspectOverloadTest.fetch(String)");
+        assertThat(statistics.get("BulkheadAspectOverloadTest.fetch(int)").limit()).isEqualTo(1);
+        assertThat(statistics.get("BulkheadAspectOverloadTest.fetch(String)").limit()).isEqualTo(5);
+    }
+
+    private static ProceedingJoinPoint joinPoint(Method method) throws Throwable {
+        var signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.toShortString()).thenReturn("BulkheadAspectOverloadTest.fetch(..)");
+        var joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        return joinPoint;
+    }
+}
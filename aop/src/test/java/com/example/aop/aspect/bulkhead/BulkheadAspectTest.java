@@ -0,0 +1,71 @@
+package com.example.aop.aspect.bulkhead;
+
+import com.example.aop.aspect.support.CompileTimeWeavingPostProcessor;
+import com.example.aop.dao.AccountDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(OutputCaptureExtension.class)
+class BulkheadAspectTest {
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private BulkheadAspect bulkheadAspect;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void fetchFromSlowDependency_overLimit_rejectsExcessCallers(CapturedOutput output) throws Exception {
+        var succeeded = new AtomicInteger();
+        var rejected = new AtomicInteger();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int id = i;
+                calls.add(executor.submit(() -> {
+                    try {
+                        accountDao.fetchFromSlowDependency(id);
+                        succeeded.incrementAndGet();
+                    } catch (BulkheadFullException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (var call : calls) {
+                call.get();
+            }
+        }
+
+        // 2 permits; the queued caller times out after 50ms while both calls take 300ms
+        assertThat(succeeded).hasValue(2);
+        assertThat(rejected).hasValue(2);
+        assertThat(output).contains("BULKHEAD FULL: account-db");
+
+        var stats = bulkheadAspect.statistics().get("account-db");
+        assertThat(stats.inFlight()).isZero();
+        assertThat(stats.rejectedCount()).isGreaterThanOrEqualTo(2);
+        // a woven aspect is one instance per JVM, bound to the registry of the last test context started
+        if (!CompileTimeWeavingPostProcessor.isActive()) {
+            assertThat(meterRegistry.get("aop.bulkhead.rejected").tag("name", "account-db").functionCounter().count())
+                    .isGreaterThanOrEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.aop.aspect.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void acquire_beyondLimitWithoutQueue_isRejected() throws InterruptedException {
+        var limiter = new ConcurrencyLimiter("test", new FixedLimit(2), 0);
+
+        assertThat(limiter.acquire(0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.acquire(0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.acquire(100, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(limiter.statistics()).isEqualTo(new BulkheadStatistics(2, 2, 0, 1));
+    }
+
+    @Test
+    void acquire_waitingCaller_getsReleasedPermit() throws Exception {
+        var limiter = new ConcurrencyLimiter("test", new FixedLimit(1), 1);
+        limiter.acquire(0, TimeUnit.MILLISECONDS);
+
+        var waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.statistics().waiting() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThat(limiter.acquire(5, TimeUnit.SECONDS)).as("queue is full").isFalse();
+
+        limiter.release(1_000_000);
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.statistics()).isEqualTo(new BulkheadStatistics(1, 1, 0, 1));
+    }
+
+    @Test
+    void acquire_waitTimesOut_isRejected() throws InterruptedException {
+        var limiter = new ConcurrencyLimiter("test", new FixedLimit(1), 1);
+        limiter.acquire(0, TimeUnit.MILLISECONDS);
+
+        var start = System.nanoTime();
+        assertThat(limiter.acquire(50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(limiter.statistics().rejectedCount()).isEqualTo(1);
+    }
+}
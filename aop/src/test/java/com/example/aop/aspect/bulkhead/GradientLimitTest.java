@@ -0,0 +1,47 @@
+package com.example.aop.aspect.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void steadyLatency_fullyUsed_growsUpToMax() {
+        var limit = new GradientLimit(10, 1, 50);
+
+        for (int i = 0; i < 1_000; i++) {
+            limit.onSample(10 * MILLIS, limit.current());
+        }
+
+        assertThat(limit.current()).isEqualTo(50);
+    }
+
+    @Test
+    void risingLatency_shrinksLimit() {
+        var limit = new GradientLimit(40, 1, 100);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(10 * MILLIS, 40);
+        }
+        var before = limit.current();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(40 * MILLIS, limit.current());
+        }
+
+        assertThat(limit.current()).isLessThan(before / 2).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void lightlyUsed_keepsLimit() {
+        var limit = new GradientLimit(20, 1, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(10 * MILLIS, 2);
+        }
+
+        assertThat(limit.current()).isEqualTo(20);
+    }
+}
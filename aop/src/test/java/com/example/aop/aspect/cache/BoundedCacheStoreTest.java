@@ -0,0 +1,61 @@
+package com.example.aop.aspect.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheStoreTest {
+
+    @SimpleCache(maxEntries = 100)
+    void bounded() {
+    }
+
+    @SimpleCache(ttl = 50, refreshAfter = 10, timeUnit = TimeUnit.MILLISECONDS)
+    void expiring() {
+    }
+
+    @Test
+    void put_beyondMaxEntries_evictsAndStaysBounded() throws Exception {
+        var store = new BoundedCacheStore<Integer>("bounded", config("bounded"));
+
+        for (int i = 0; i < 1_000; i++) {
+            store.put(i, "value-" + i);
+        }
+
+        var stats = store.statistics();
+        assertThat(stats.size()).isLessThanOrEqualTo(100);
+        assertThat(stats.evictionCount()).isGreaterThanOrEqualTo(900);
+    }
+
+    @Test
+    void get_recordsHitsAndMisses() throws Exception {
+        var store = new BoundedCacheStore<Integer>("bounded", config("bounded"));
+        store.put(1, "one");
+
+        store.get(1);
+        store.get(1);
+        store.get(2);
+
+        var stats = store.statistics();
+        assertThat(stats.hitCount()).isEqualTo(2);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_afterTtl_returnsNull() throws Exception {
+        var store = new BoundedCacheStore<Integer>("expiring", config("expiring"));
+        store.put(1, "one");
+
+        Thread.sleep(20);
+        assertThat(store.isRefreshDue(store.get(1))).isTrue();
+
+        Thread.sleep(50);
+        assertThat(store.get(1)).isNull();
+    }
+
+    private SimpleCache config(String methodName) throws NoSuchMethodException {
+        return getClass().getDeclaredMethod(methodName).getAnnotation(SimpleCache.class);
+    }
+}
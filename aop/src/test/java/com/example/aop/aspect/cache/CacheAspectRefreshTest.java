@@ -0,0 +1,110 @@
+package com.example.aop.aspect.cache;
+
+import com.example.aop.aspect.auth.SecurityContext;
+import com.example.aop.aspect.correlation.CorrelationId;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Refresh-ahead driven by latches instead of sleeps: every hit on {@link #find} is due for a
+ * refresh, and reloads block until the test releases them.
+ */
+class CacheAspectRefreshTest {
+
+    private final CacheAspect cacheAspect = new CacheAspect();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch releaseReload = new CountDownLatch(1);
+    private final CompletableFuture<String> reloadContext = new CompletableFuture<>();
+    private ProceedingJoinPoint joinPoint;
+
+    @SimpleCache(refreshAfter = 1, timeUnit = TimeUnit.NANOSECONDS)
+    String find(int id) {
+        return "Account-" + id;
+    }
+
+    @BeforeEach
+    void setUp() throws Throwable {
+        var signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(CacheAspectRefreshTest.class.getDeclaredMethod("find", int.class));
+        when(signature.toShortString()).thenReturn("CacheAspectRefreshTest.find(..)");
+        joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{3});
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            var version = loads.incrementAndGet();
+            if (version > 1) {
+                reloadContext.complete(SecurityContext.getRole() + "/" + CorrelationId.current());
+                releaseReload.await();
+            }
+            return "Account-3-v" + version;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseReload.countDown();
+        SecurityContext.clear();
+    }
+
+    @Test
+    void hitsDueForRefresh_returnCachedValueWhileOneReloadIsBlocked() throws Exception {
+        assertThat(lookup()).isEqualTo("Account-3-v1");
+
+        var calls = new ArrayList<Callable<Object>>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(() -> lookup());
+        }
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // every caller returns although the reload can't complete yet
+            for (var future : executor.invokeAll(calls)) {
+                assertThat(future.get()).isEqualTo("Account-3-v1");
+            }
+        }
+        reloadContext.get(5, TimeUnit.SECONDS);
+        assertThat(loads).hasValue(2);
+
+        releaseReload.countDown();
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Object value;
+        do {
+            value = lookup();
+        } while (!"Account-3-v2".equals(value) && System.nanoTime() < deadline);
+        assertThat(value).isEqualTo("Account-3-v2");
+    }
+
+    @Test
+    void reload_runsWithCallersRoleAndCorrelationId() throws Exception {
+        lookup();
+
+        SecurityContext.setRole("ADMIN");
+        CorrelationId.callWith("req-1", () -> lookup());
+
+        assertThat(reloadContext.get(5, TimeUnit.SECONDS)).isEqualTo("ADMIN/req-1");
+    }
+
+    private Object lookup() throws Exception {
+        try {
+            var simpleCache = CacheAspectRefreshTest.class.getDeclaredMethod("find", int.class).getAnnotation(SimpleCache.class);
+            return cacheAspect.cacheResult(joinPoint, simpleCache);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.aop.aspect.cache;
 
 import com.example.aop.dao.AccountDao;
+import com.example.aop.entity.Account;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +10,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
 
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -24,6 +30,8 @@ class CacheAspectTest {
     @BeforeEach
     void setUp() {
         cacheAspect.clearCache();
+        accountDao.resetSlowFindCounter();
+        accountDao.resetRefreshingFindCounter();
     }
 
     @Test
@@ -51,4 +59,82 @@ class CacheAspectTest {
         var missCount = output.toString().split("CACHE MISS:").length - 1;
         assertThat(missCount).isEqualTo(2);
     }
+
+    @Test
+    void slowFindById_recordsHitAndMissStatistics() {
+        accountDao.slowFindById(1);
+        accountDao.slowFindById(1);
+
+        var stats = cacheAspect.statistics().get("AccountDao.slowFindById(int)");
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(1);
+    }
+
+    @Test
+    void slowFindById_concurrentMissesOnSameKey_runMethodOnce() throws Exception {
+        var calls = new ArrayList<Callable<Account>>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(() -> accountDao.slowFindById(7));
+        }
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var future : executor.invokeAll(calls)) {
+                assertThat(future.get().getId()).isEqualTo(7);
+            }
+        }
+
+        assertThat(accountDao.getSlowFindCount()).isEqualTo(1);
+    }
+
+    @Test
+    void slowFindById_concurrentMissesOnDifferentKeys_runMethodOncePerKey() throws Exception {
+        var calls = new ArrayList<Callable<Account>>();
+        for (int i = 0; i < 50; i++) {
+            int id = i % 5;
+            calls.add(() -> accountDao.slowFindById(id));
+        }
+
+        var start = System.currentTimeMillis();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.invokeAll(calls);
+        }
+
+        assertThat(accountDao.getSlowFindCount()).isEqualTo(5);
+        // keys load in parallel rather than queueing behind each other
+        assertThat(System.currentTimeMillis() - start).isLessThan(5 * 500);
+    }
+
+    @Test
+    void refreshingFindById_pastSoftTtl_returnsCachedValueAndReloadsOnceInBackground(CapturedOutput output) throws Exception {
+        assertThat(accountDao.refreshingFindById(3).getName()).isEqualTo("Account-3-v1");
+        Thread.sleep(250);
+
+        var calls = new ArrayList<Callable<Account>>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(() -> accountDao.refreshingFindById(3));
+        }
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var future : executor.invokeAll(calls)) {
+                assertThat(future.get().getName()).isEqualTo("Account-3-v1");
+            }
+        }
+        assertThat(output).contains("CACHE REFRESH: AccountDao.refreshingFindById(..)[3]");
+
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (accountDao.refreshingFindById(3).getName().endsWith("v1") && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(accountDao.refreshingFindById(3).getName()).isEqualTo("Account-3-v2");
+        assertThat(accountDao.getRefreshingFindCount()).isEqualTo(2);
+    }
+
+    @Test
+    void refreshingFindById_pastHardTtl_reloadsSynchronously(CapturedOutput output) throws Exception {
+        accountDao.refreshingFindById(4);
+        Thread.sleep(1100);
+
+        assertThat(accountDao.refreshingFindById(4).getName()).isEqualTo("Account-4-v2");
+        assertThat(output.toString().split("CACHE MISS: AccountDao.refreshingFindById").length - 1).isEqualTo(2);
+    }
 }
@@ -0,0 +1,48 @@
+package com.example.aop.aspect.cache;
+
+import com.example.aop.aspect.support.MethodMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheKeyTest {
+
+    private final MethodMetadata metadata;
+
+    CacheKeyTest() throws NoSuchMethodException {
+        var method = CacheKeyTest.class.getDeclaredMethod("find", List.class, Map.class, int[].class, StringBuilder.class);
+        metadata = new MethodMetadata(method, "CacheKeyTest.find(..)", MethodMetadata.signatureOf(method), null, null, null);
+    }
+
+    @SuppressWarnings("unused")
+    private String find(List<String> names, Map<String, Object> filter, int[] ids, StringBuilder query) {
+        return "";
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void argumentsMutatedAfterTheCall_keyStillMatchesTheValuesItWasBuiltFrom() {
+        var names = new ArrayList<>(List.of("a"));
+        var filter = new HashMap<String, Object>(Map.of("tags", new ArrayList<>(List.of("x"))));
+        var ids = new int[]{1, 2};
+        var query = new StringBuilder("q");
+        var key = new CacheKey(metadata, new Object[]{names, filter, ids, query});
+        var hash = key.hashCode();
+
+        names.add("b");
+        ((List<Object>) filter.get("tags")).add("y");
+        ids[0] = 9;
+        query.append("!");
+
+        var original = new CacheKey(metadata, new Object[]{List.of("a"), Map.of("tags", List.of("x")), new int[]{1, 2}, new StringBuilder("q")});
+        assertThat(key).isEqualTo(original).hasSameHashCodeAs(original);
+        assertThat(key.hashCode()).isEqualTo(hash);
+        assertThat(key).isNotEqualTo(new CacheKey(metadata, new Object[]{names, filter, ids, query}));
+        assertThat(key).hasToString("CacheKeyTest.find(..)[[a], {tags=[x]}, [1, 2], q]");
+    }
+}
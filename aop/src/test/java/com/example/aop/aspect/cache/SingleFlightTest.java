@@ -0,0 +1,109 @@
+package com.example.aop.aspect.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_concurrentCallers_shareOneResult() throws Exception {
+        var loads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var leader = executor.submit(load("key", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "value";
+            }));
+            awaitInFlight("key");
+
+            var followers = new ArrayList<Future<Object>>();
+            for (int i = 0; i < 10; i++) {
+                followers.add(executor.submit(load("key", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            Thread.sleep(200); // let followers reach the in-flight call before the leader completes
+            release.countDown();
+
+            assertThat(leader.get()).isEqualTo("value");
+            for (var follower : followers) {
+                assertThat(follower.get()).isEqualTo("value");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.isInFlight("key")).isFalse();
+    }
+
+    @Test
+    void execute_leaderFails_waitersReceiveSameException() throws Exception {
+        var release = new CountDownLatch(1);
+        var failure = new IllegalStateException("load failed");
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var leader = executor.submit(load("key", () -> {
+                release.await();
+                throw failure;
+            }));
+            awaitInFlight("key");
+            var follower = executor.submit(load("key", () -> "unused"));
+            release.countDown();
+
+            assertThatThrownBy(leader::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+            assertThatThrownBy(follower::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+        }
+    }
+
+    @Test
+    void execute_otherKey_isNotBlockedByInFlightLoad() throws Throwable {
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var blocked = executor.submit(load("slow", () -> {
+                release.await();
+                return "slow";
+            }));
+            awaitInFlight("slow");
+
+            assertThat(singleFlight.execute("fast", () -> "fast")).isEqualTo("fast");
+            release.countDown();
+            assertThat(blocked.get()).isEqualTo("slow");
+        }
+    }
+
+    private Callable<Object> load(String key, SingleFlight.Loader loader) {
+        return () -> {
+            try {
+                return singleFlight.execute(key, loader);
+            } catch (Exception e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private void awaitInFlight(String key) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!singleFlight.isInFlight(key) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(singleFlight.isInFlight(key)).isTrue();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.aop.aspect.correlation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdGeneratorTest {
+
+    @Test
+    void next_isFixedLengthAndStrictlyIncreasing() {
+        var generator = new CorrelationIdGenerator(7);
+
+        var previous = generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            var id = generator.next();
+            assertThat(id).hasSize(CorrelationIdGenerator.LENGTH).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void next_endsWithNodeId() {
+        assertThat(new CorrelationIdGenerator(0).next()).endsWith("0000");
+        assertThat(new CorrelationIdGenerator(31).next()).endsWith("000Z");
+    }
+
+    @Test
+    void next_concurrentCallers_neverCollide() throws Exception {
+        var generator = new CorrelationIdGenerator();
+        var ids = ConcurrentHashMap.<String>newKeySet();
+        int threads = 16, perThread = 10_000;
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(generator.next());
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(ids).hasSize(threads * perThread);
+    }
+}
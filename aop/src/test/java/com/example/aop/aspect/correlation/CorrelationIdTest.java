@@ -0,0 +1,61 @@
+package com.example.aop.aspect.correlation;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdTest {
+
+    @Test
+    void callWith_bindsIdAndMdcOnlyForTheCall() {
+        var inside = CorrelationId.callWith("abc", () -> CorrelationId.current() + "/" + MDC.get(CorrelationId.MDC_KEY));
+
+        assertThat(inside).isEqualTo("abc/abc");
+        assertThat(CorrelationId.current()).isNull();
+        assertThat(MDC.get(CorrelationId.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void wrap_propagatesIdToVirtualThreadAndExecutorTask() throws Exception {
+        try (var executor = Executors.newFixedThreadPool(1)) {
+            var seen = CorrelationId.callWith("req-1", () -> {
+                var onVirtualThread = new CompletableFuture<String>();
+                Thread.ofVirtual().start(CorrelationId.wrap(() -> {
+                    onVirtualThread.complete(CorrelationId.current());
+                }));
+                var onPool = executor.submit(CorrelationId.wrap(() -> MDC.get(CorrelationId.MDC_KEY)));
+                var unwrapped = executor.submit(CorrelationId::current);
+                return onVirtualThread.get() + "," + onPool.get() + "," + unwrapped.get();
+            });
+
+            assertThat(seen).isEqualTo("req-1,req-1,null");
+        }
+    }
+
+    @Test
+    void propagating_capturesIdAtSubmission() throws Exception {
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            var executor = CorrelationId.propagating(pool);
+            var seen = new CompletableFuture<String>();
+
+            CorrelationId.callWith("req-2", () -> {
+                executor.execute(() -> seen.complete(CorrelationId.current()));
+                return null;
+            });
+
+            assertThat(seen.get()).isEqualTo("req-2");
+        }
+    }
+
+    @Test
+    void wrap_withoutCurrentId_returnsTaskUnchanged() {
+        Runnable task = () -> {
+        };
+
+        assertThat(CorrelationId.wrap(task)).isSameAs(task);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.aop.aspect.latency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodLatencyHistogramsTest {
+
+    @Test
+    void snapshots_keepOverloadsApart() throws Exception {
+        var histograms = new MethodLatencyHistograms();
+        try {
+            histograms.record(String.class.getMethod("valueOf", int.class), "String.valueOf(int)", 1_000_000);
+            histograms.record(String.class.getMethod("valueOf", long.class), "String.valueOf(long)", 1_000_000);
+            histograms.record(String.class.getMethod("valueOf", long.class), "String.valueOf(long)", 1_000_000);
+
+            var snapshots = histograms.snapshots();
+
+            assertThat(snapshots).containsOnlyKeys("String.valueOf(int)", "String.valueOf(long)");
+            assertThat(snapshots.get("String.valueOf(int)").get("1m").count()).isEqualTo(1);
+            assertThat(snapshots.get("String.valueOf(long)").get("1m").count()).isEqualTo(2);
+        } finally {
+            histograms.shutdown();
+        }
+    }
+}
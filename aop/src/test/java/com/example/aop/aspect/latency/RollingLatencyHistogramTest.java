@@ -0,0 +1,43 @@
+package com.example.aop.aspect.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RollingLatencyHistogramTest {
+
+    @Test
+    void snapshot_reportsPercentilesInMillis() {
+        var histogram = new RollingLatencyHistogram(6);
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        var snapshot = histogram.snapshot(6);
+
+        assertThat(snapshot.count()).isEqualTo(100);
+        assertThat(snapshot.p50Ms()).isCloseTo(50, within(1.0));
+        assertThat(snapshot.p99Ms()).isCloseTo(99, within(1.0));
+        assertThat(snapshot.maxMs()).isCloseTo(100, within(1.0));
+    }
+
+    @Test
+    void rotate_dropsSlicesOutsideTheWindow() {
+        var histogram = new RollingLatencyHistogram(3);
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(500));
+        histogram.rotate();
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(histogram.snapshot(1).count()).isEqualTo(1);
+        assertThat(histogram.snapshot(1).maxMs()).isCloseTo(5, within(0.1));
+        assertThat(histogram.snapshot(3).count()).isEqualTo(2);
+
+        histogram.rotate();
+        histogram.rotate();
+
+        assertThat(histogram.snapshot(3).count()).isEqualTo(1);
+    }
+}
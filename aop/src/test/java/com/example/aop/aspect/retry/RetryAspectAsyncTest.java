@@ -0,0 +1,71 @@
+package com.example.aop.aspect.retry;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RetryAspectAsyncTest {
+
+    private final RetryAspect retryAspect = new RetryAspect();
+    private ProceedingJoinPoint joinPoint;
+    private Retryable retryable;
+
+    @Retryable(maxAttempts = 2, backoff = 0)
+    CompletableFuture<String> load() {
+        return CompletableFuture.completedFuture("loaded");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(retryAspect, "budgetRatio", 0.2);
+        ReflectionTestUtils.setField(retryAspect, "budgetMinRetriesPerSecond", 10);
+        ReflectionTestUtils.setField(retryAspect, "budgetMaxTokens", 100);
+        retryAspect.init();
+
+        var method = RetryAspectAsyncTest.class.getDeclaredMethod("load");
+        retryable = method.getAnnotation(Retryable.class);
+        var signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.toShortString()).thenReturn("RetryAspectAsyncTest.load()");
+        joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+    }
+
+    @Test
+    void retryReturningNull_completesTheCallersFuture() throws Throwable {
+        // Given
+        when(joinPoint.proceed()).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")), (Object) null);
+
+        // When
+        var future = (CompletableFuture<?>) retryAspect.retry(joinPoint, retryable);
+
+        // Then
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(NullPointerException.class)
+                .hasMessageContaining("returned null");
+    }
+
+    @Test
+    void firstAttemptReturningNull_isRetriedInsteadOfThrowing() throws Throwable {
+        // Given
+        when(joinPoint.proceed()).thenReturn(null, CompletableFuture.completedFuture("loaded"));
+
+        // When
+        var future = (CompletableFuture<?>) retryAspect.retry(joinPoint, retryable);
+
+        // Then
+        assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+    }
+}
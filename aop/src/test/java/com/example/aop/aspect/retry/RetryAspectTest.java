@@ -9,7 +9,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ExtendWith(OutputCaptureExtension.class)
@@ -34,4 +37,28 @@ class RetryAspectTest {
         assertThat(output).contains("Attempt 2/3 failed");
         assertThat(output).contains("Retry attempt 3/3");
     }
+
+    @Test
+    void fetchWithRetry_interruptedWhileWaiting_throwsLastFailureAndKeepsInterrupt() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> accountDao.fetchWithRetry(42))
+                    .isExactlyInstanceOf(RuntimeException.class)
+                    .hasMessage("Transient failure on attempt 1")
+                    .satisfies(e -> assertThat(e.getSuppressed()).singleElement().isInstanceOf(InterruptedException.class));
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void fetchAsyncWithRetry_retriesWithoutBlockingCaller(CapturedOutput output) throws Exception {
+        var future = accountDao.fetchAsyncWithRetry(7);
+
+        var result = future.get(5, TimeUnit.SECONDS);
+        assertThat(result.getId()).isEqualTo(7);
+        assertThat(output).contains("Attempt 1/3 failed");
+        assertThat(output).contains("Retry attempt 3/3");
+    }
 }
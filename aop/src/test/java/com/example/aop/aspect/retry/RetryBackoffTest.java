@@ -0,0 +1,48 @@
+package com.example.aop.aspect.retry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBackoffTest {
+
+    @Retryable(backoff = 100, multiplier = 2.0, maxDelay = 500, jitter = false)
+    void exponential() {
+    }
+
+    @Retryable(backoff = 100, multiplier = 2.0, maxDelay = 500)
+    void jittered() {
+    }
+
+    @Retryable(backoff = 0)
+    void immediate() {
+    }
+
+    @Test
+    void delayBeforeRetry_growsExponentiallyUpToMaxDelay() throws Exception {
+        var retryable = config("exponential");
+
+        assertThat(RetryAspect.delayBeforeRetry(retryable, 1)).isEqualTo(100);
+        assertThat(RetryAspect.delayBeforeRetry(retryable, 2)).isEqualTo(200);
+        assertThat(RetryAspect.delayBeforeRetry(retryable, 3)).isEqualTo(400);
+        assertThat(RetryAspect.delayBeforeRetry(retryable, 4)).isEqualTo(500);
+    }
+
+    @Test
+    void delayBeforeRetry_withJitter_staysWithinBackoff() throws Exception {
+        var retryable = config("jittered");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(RetryAspect.delayBeforeRetry(retryable, 2)).isBetween(0L, 200L);
+        }
+    }
+
+    @Test
+    void delayBeforeRetry_zeroBackoff_retriesImmediately() throws Exception {
+        assertThat(RetryAspect.delayBeforeRetry(config("immediate"), 3)).isZero();
+    }
+
+    private Retryable config(String methodName) throws NoSuchMethodException {
+        return getClass().getDeclaredMethod(methodName).getAnnotation(Retryable.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.aop.aspect.retry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+
+    @Test
+    void tryAcquireRetry_failsOnceBudgetIsSpent() {
+        var budget = new RetryBudget(0.1, 0, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(budget.tryAcquireRetry()).isTrue();
+        }
+        assertThat(budget.tryAcquireRetry()).isFalse();
+    }
+
+    @Test
+    void recordCall_earnsRetriesProportionalToTraffic() {
+        var budget = new RetryBudget(0.1, 0, 5);
+        while (budget.tryAcquireRetry()) {
+            // drain the initial balance
+        }
+
+        for (int i = 0; i < 100; i++) {
+            budget.recordCall();
+        }
+
+        assertThat(budget.availableRetries()).isEqualTo(5);
+        for (int i = 0; i < 20; i++) {
+            budget.recordCall();
+        }
+        assertThat(budget.availableRetries()).isEqualTo(5);
+    }
+
+    @Test
+    void recordCall_tenPercentRatio_allowsOneRetryPerTenCalls() {
+        var budget = new RetryBudget(0.1, 0, 100);
+        while (budget.tryAcquireRetry()) {
+            // drain the initial balance
+        }
+
+        for (int i = 0; i < 30; i++) {
+            budget.recordCall();
+        }
+
+        assertThat(budget.availableRetries()).isEqualTo(3);
+    }
+}
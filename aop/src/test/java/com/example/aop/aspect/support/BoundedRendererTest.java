@@ -0,0 +1,113 @@
+package com.example.aop.aspect.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedRendererTest {
+
+    @Test
+    void render_shortValues_matchArraysToString() {
+        Object[] args = {2, "name", null, List.of(1, 2), new TreeMap<>(Map.of("a", 1, "b", List.of(2)))};
+
+        assertThat(BoundedRenderer.render(args, 100)).isEqualTo(Arrays.toString(args));
+        assertThat(BoundedRenderer.render(new int[]{1, 2, 3}, 100)).isEqualTo("[1, 2, 3]");
+        assertThat(BoundedRenderer.render(null, 100)).isEqualTo("null");
+    }
+
+    @Test
+    void render_longValue_isTruncatedWithEllipsis() {
+        var text = "x".repeat(500);
+
+        assertThat(BoundedRenderer.render(text, 100)).isEqualTo("x".repeat(100) + "...");
+    }
+
+    @Test
+    void render_largeCollection_stopsAfterBudget() {
+        var visited = new int[1];
+        var elements = IntStream.range(0, 10_000).mapToObj(i -> new Object() {
+            @Override
+            public String toString() {
+                visited[0]++;
+                return String.valueOf(i);
+            }
+        }).toList();
+
+        var rendered = BoundedRenderer.render(elements, 20);
+
+        assertThat(rendered).isEqualTo("[0, 1, 2, 3, 4, 5, 6...");
+        assertThat(visited[0]).isLessThan(20);
+    }
+
+    @Test
+    void render_largeMap_stopsAfterBudget() {
+        var visited = new int[1];
+        var map = new LinkedHashMap<Integer, Object>();
+        IntStream.range(0, 10_000).forEach(i -> map.put(i, new Object() {
+            @Override
+            public String toString() {
+                visited[0]++;
+                return "v" + i;
+            }
+        }));
+
+        var rendered = BoundedRenderer.render(map, 20);
+
+        assertThat(rendered).isEqualTo("{0=v0, 1=v1, 2=v2, 3...");
+        assertThat(visited[0]).isLessThan(10);
+    }
+
+    @Test
+    void render_largeRenderableDto_neverBuildsItsToString() {
+        var order = new Order(7, IntStream.range(0, 100_000).boxed().toList());
+
+        var rendered = BoundedRenderer.render(new Object[]{Optional.of(order)}, 40);
+
+        assertThat(rendered).isEqualTo("[Optional[Order(id=7, lines=[0, 1, 2, 3,...");
+        assertThat(order.toStringCalls).isZero();
+    }
+
+    @Test
+    void render_deeplyNestedValue_stopsAtMaxDepth() {
+        Object nested = "x";
+        for (int i = 0; i < 20; i++) {
+            nested = List.of(nested);
+        }
+
+        assertThat(BoundedRenderer.render(nested, 1000)).isEqualTo("[".repeat(9) + "..." + "]".repeat(9));
+    }
+
+    static final class Order implements BoundedRenderable {
+
+        private final int id;
+        private final List<Integer> lines;
+        int toStringCalls;
+
+        Order(int id, List<Integer> lines) {
+            this.id = id;
+            this.lines = lines;
+        }
+
+        @Override
+        public Map<String, ?> renderedProperties() {
+            var properties = new LinkedHashMap<String, Object>();
+            properties.put("id", id);
+            properties.put("lines", lines);
+            return properties;
+        }
+
+        @Override
+        public String toString() {
+            toStringCalls++;
+            return "Order(id=" + id + ", lines=" + lines + ")";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.aop.aspect.support;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the woven path without ajc: {@link WovenAspect} has the {@code aspectOf()} factory ajc
+ * generates, {@link ProxiedAspect} does not.
+ */
+class CompileTimeWeavingPostProcessorTest {
+
+    @Test
+    void wovenAspect_isCreatedByAspectOfAndOnlyTheOtherAspectsAreProxied() {
+        try (var context = new GenericApplicationContext()) {
+            AopConfigUtils.registerAspectJAnnotationAutoProxyCreatorIfNecessary(context);
+            context.registerBean(CompileTimeWeavingPostProcessor.class);
+            context.registerBean("wovenAspect", WovenAspect.class);
+            context.registerBean("proxiedAspect", ProxiedAspect.class);
+            context.registerBean(Greeter.class);
+            context.refresh();
+
+            var greeter = context.getBean(Greeter.class);
+            assertThat(greeter.greet()).isEqualTo("hello");
+
+            assertThat(context.getBean(WovenAspect.class)).isSameAs(WovenAspect.aspectOf());
+            // still proxied for the aspect that was not woven, so other proxy-based features keep working
+            assertThat(AopUtils.isAopProxy(greeter)).isTrue();
+            assertThat(context.getBean(ProxiedAspect.class).calls).hasValue(1);
+            // the woven code calls the woven aspect itself; a proxy must not apply it a second time
+            assertThat(WovenAspect.aspectOf().calls).hasValue(0);
+        }
+    }
+
+    @Test
+    void noWovenAspects_leavesEveryAspectProxied() {
+        try (var context = new GenericApplicationContext()) {
+            AopConfigUtils.registerAspectJAnnotationAutoProxyCreatorIfNecessary(context);
+            context.registerBean(CompileTimeWeavingPostProcessor.class);
+            context.registerBean("proxiedAspect", ProxiedAspect.class);
+            context.registerBean(Greeter.class);
+            context.refresh();
+
+            context.getBean(Greeter.class).greet();
+
+            assertThat(context.getBeanFactory().getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)
+                    .getPropertyValues().contains("includePatterns")).isFalse();
+            assertThat(context.getBean(ProxiedAspect.class).calls).hasValue(1);
+        }
+    }
+
+    public static class Greeter {
+
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    @Aspect
+    public static class WovenAspect {
+
+        private static final WovenAspect INSTANCE = new WovenAspect();
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        public static WovenAspect aspectOf() {
+            return INSTANCE;
+        }
+
+        @Around("execution(String greet())")
+        public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+            calls.incrementAndGet();
+            return joinPoint.proceed();
+        }
+    }
+
+    @Aspect
+    public static class ProxiedAspect {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Before("execution(String greet())")
+        public void before() {
+            calls.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.aop.aspect.support;
+
+import com.example.aop.dao.AccountDao;
+import com.example.aop.service.AccountService;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class MethodMetadataRegistryTest {
+
+    @Test
+    void get_resolvesMetadataOncePerMethod() throws Exception {
+        var joinPoint = joinPoint(AccountService.class.getMethod("serve", int.class), "AccountService.serve(..)");
+
+        var first = MethodMetadataRegistry.get(joinPoint);
+        var second = MethodMetadataRegistry.get(joinPoint);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.shortName()).isEqualTo("AccountService.serve(..)");
+        assertThat(first.thresholdMs()).isEqualTo(500);
+        // the registry is shared across the JVM, so an earlier test may already have resolved it
+        verify((MethodSignature) joinPoint.getSignature(), atMost(1)).toShortString();
+    }
+
+    @Test
+    void get_resolvesAnnotations() throws Exception {
+        var cached = MethodMetadataRegistry.get(joinPoint(AccountDao.class.getMethod("slowFindById", int.class), "AccountDao.slowFindById(..)"));
+        var retried = MethodMetadataRegistry.get(joinPoint(AccountDao.class.getMethod("fetchWithRetry", int.class), "AccountDao.fetchWithRetry(..)"));
+
+        assertThat(cached.simpleCache()).isNotNull();
+        assertThat(cached.retryable()).isNull();
+        assertThat(cached.thresholdMs()).isEqualTo(-1);
+        assertThat(retried.retryable().maxAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void get_signatureTellsOverloadsApart() throws Exception {
+        var byInt = MethodMetadataRegistry.get(joinPoint(String.class.getMethod("valueOf", int.class), "String.valueOf(..)"));
+        var byChars = MethodMetadataRegistry.get(joinPoint(String.class.getMethod("valueOf", char[].class), "String.valueOf(..)"));
+
+        assertThat(byInt.shortName()).isEqualTo(byChars.shortName());
+        assertThat(byInt.signature()).isEqualTo("String.valueOf(int)");
+        assertThat(byChars.signature()).isEqualTo("String.valueOf(char[])");
+    }
+
+    private JoinPoint joinPoint(Method method, String shortName) {
+        var signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.toShortString()).thenReturn(shortName);
+        var joinPoint = mock(JoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        return joinPoint;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.caching.benchmark;
+
+import com.example.caching.cache.HotKeySettings;
+import com.example.caching.cache.HotKeySketch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of counting one cache access in the {@link HotKeySketch} of the production size
+ * (2048 x 4 counters, top 20), over a skewed stream of 100,000 keys where a few are hot, on 4
+ * threads sharing the sketch as the request threads of one cache do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class HotKeySketchBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    private HotKeySketch sketch;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        sketch = new HotKeySketch(new HotKeySettings(2048, 4, 20));
+        keys = IntStream.range(0, KEYS).mapToObj(id -> "product::" + id).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public void record() {
+        var random = ThreadLocalRandom.current();
+        // one access in two goes to the 100 hottest keys
+        var index = random.nextBoolean() ? random.nextInt(100) : random.nextInt(KEYS);
+        sketch.record(keys[index]);
+    }
+
+    @Benchmark
+    public int baseline() {
+        var random = ThreadLocalRandom.current();
+        var index = random.nextBoolean() ? random.nextInt(100) : random.nextInt(KEYS);
+        return keys[index].hashCode();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.caching.benchmark;
+
+import com.example.caching.enums.MessageTransport;
+import com.example.caching.listener.MessageDispatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Handling a burst of {@code messages} messages whose handler waits {@code handlerMicros} on I/O
+ * (a downstream call, a query): {@code sequential} handles them one at a time on the receiving
+ * thread, {@code dispatched} hands them to a {@link MessageDispatcher} running {@code concurrency}
+ * handlers at once on virtual threads. Average time per burst; messages per second is
+ * {@code messages} divided by it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageDispatchBenchmark {
+
+    @Param({"200"})
+    private int messages;
+
+    @Param({"1000"})
+    private long handlerMicros;
+
+    @Param({"64"})
+    private int concurrency;
+
+    private MessageDispatcher dispatcher;
+
+    @Setup
+    public void setUp() {
+        dispatcher = new MessageDispatcher(concurrency, 10_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.destroy();
+    }
+
+    @Benchmark
+    public void sequential() {
+        for (int i = 0; i < messages; i++) {
+            handle();
+        }
+    }
+
+    @Benchmark
+    public void dispatched() {
+        var results = new CompletableFuture<?>[messages];
+        for (int i = 0; i < messages; i++) {
+            results[i] = dispatcher.dispatch(MessageTransport.STREAM, this::handle);
+        }
+        CompletableFuture.allOf(results).join();
+    }
+
+    private void handle() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(handlerMicros));
+    }
+}
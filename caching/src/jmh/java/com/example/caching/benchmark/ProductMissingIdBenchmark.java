@@ -0,0 +1,121 @@
+package com.example.caching.benchmark;
+
+import com.example.caching.entity.Product;
+import com.example.caching.repository.ProductRepository;
+import com.example.caching.service.ProductIdFilter;
+import com.example.caching.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+/**
+ * Scraper traffic on {@code GET /api/products/{id}}: ids drawn uniformly from ten times the id range
+ * of a 100,000 product catalog, so nine lookups in ten are for products that don't exist. Each is a
+ * cache miss (nonexistent products are never cached) and reaches {@link ProductService#findById},
+ * measured with the product id filter {@code off} or {@code on} (1% false-positive rate).
+ * <p>
+ * The database is simulated with a fixed round trip of {@code dbRttMicros} per query. The share of
+ * lookups that queried it is printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductMissingIdBenchmark {
+
+    private static final long CATALOG_SIZE = 100_000;
+
+    @Param({"off", "on"})
+    private String filter;
+
+    @Param({"1000"})
+    private long dbRttMicros;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private ProductService productService;
+    private ProductIdFilter productIdFilter;
+
+    @Setup
+    public void setUp() {
+        var repository = simulatedRepository();
+        productIdFilter = new ProductIdFilter(repository, new NoOpRedisTemplate());
+        set("expectedInsertions", 2 * CATALOG_SIZE);
+        set("falsePositiveRate", 0.01);
+        set("pageSize", 10_000);
+        set("syncInterval", Duration.ofHours(1));
+        if ("on".equals(filter)) {
+            // the build the application runs in the background after startup
+            var rebuild = ReflectionUtils.findMethod(ProductIdFilter.class, "rebuild");
+            ReflectionUtils.makeAccessible(rebuild);
+            ReflectionUtils.invokeMethod(rebuild, productIdFilter);
+        }
+        // not proxied, so no cache: every lookup is a miss, as for ids that don't exist
+        productService = new ProductService(repository, null, productIdFilter, null);
+        lookups.reset();
+        queries.reset();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nfilter %s: %.1f%% of %d lookups queried the database%n",
+                filter, 100.0 * queries.sum() / Math.max(1, lookups.sum()), lookups.sum());
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        lookups.increment();
+        return productService.findById(ThreadLocalRandom.current().nextLong(1, 10 * CATALOG_SIZE + 1));
+    }
+
+    private void set(String name, Object value) {
+        var field = ReflectionUtils.findField(ProductIdFilter.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, productIdFilter, value);
+    }
+
+    private ProductRepository simulatedRepository() {
+        return (ProductRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> {
+                        queries.increment();
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbRttMicros));
+                        var id = (Long) args[0];
+                        yield id <= CATALOG_SIZE ? Optional.of(Product.builder().productId(id).productName("Widget " + id).build()) : Optional.empty();
+                    }
+                    case "findProductIdsAfter" -> {
+                        var after = (Long) args[0];
+                        var limit = ((Limit) args[1]).max();
+                        yield LongStream.rangeClosed(after + 1, Math.min(CATALOG_SIZE, after + limit)).boxed().toList();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Redis copy of the filter left out: reads find nothing, writes are dropped.
+     */
+    private static class NoOpRedisTemplate extends StringRedisTemplate {
+
+        @Override
+        public <T> T execute(RedisCallback<T> action) {
+            return null;
+        }
+
+        @Override
+        public List<Object> executePipelined(RedisCallback<?> action) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.caching.benchmark;
+
+import com.example.caching.cache.LocalCacheSettings;
+import com.example.caching.cache.RedisBulkOperations;
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.config.CacheConfig;
+import com.example.caching.entity.Product;
+import com.example.caching.enums.Category;
+import com.example.caching.repository.ProductRepository;
+import com.example.caching.sender.RedisPublisher;
+import com.example.caching.serializer.CompactRedisSerializer;
+import com.example.caching.service.ProductIdFilter;
+import com.example.caching.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rendering a grid of {@code pageSize} random products from a 100,000 product catalog:
+ * {@code perId} does what {@code pageSize} calls of {@code GET /api/products/{id}} do (cache lookup,
+ * on a miss a query and a cache write), {@code multiGet} calls {@link ProductService#findAllById}
+ * behind {@code GET /api/products?ids=...}.
+ * <p>
+ * Redis and the database are simulated in memory, with a fixed round trip of {@code redisRttMicros}
+ * per Redis command (or pipeline, or {@code MGET}) and {@code dbRttMicros} per query. One product in
+ * ten is never found in Redis, as if evicted under memory pressure, so most pages have misses. The
+ * L1 is the production {@code product} size; at this catalog size most lookups miss it.
+ * Sample time mode reports the latency percentiles per page, p0.99 included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductMultiGetBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+
+    @Param({"12", "48"})
+    private int pageSize;
+
+    @Param({"200"})
+    private long redisRttMicros;
+
+    @Param({"1000"})
+    private long dbRttMicros;
+
+    private final Map<String, byte[]> redis = new ConcurrentHashMap<>();
+    private TwoLevelCache cache;
+    private ProductRepository repository;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        var config = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofHours(1))
+                .serializeKeysWith(SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(SerializationPair.fromSerializer(new CompactRedisSerializer(CacheConfig.jsonSerializer(), 512)))
+                .disableCachingNullValues();
+        var writer = RedisCacheWriter.nonLockingRedisCacheWriter(new LettuceConnectionFactory());
+        var redisCacheManager = new RedisCacheManager(writer, config, Map.of("product", config)) {
+            @Override
+            protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+                return new SimulatedRedisCache(name, writer, cacheConfiguration);
+            }
+        };
+        var publisher = new RedisPublisher(null) {
+            @Override
+            public void publish(String channel, String message) {
+                redisRoundTrip();
+            }
+        };
+        var cacheManager = TwoLevelCacheManager.builder(redisCacheManager, publisher)
+                .defaultLocalSettings(new LocalCacheSettings(Duration.ofMinutes(1), 10_000))
+                .bulkOperations(new SimulatedBulkOperations())
+                .build();
+        cacheManager.afterPropertiesSet();
+        cache = (TwoLevelCache) cacheManager.getCache("product");
+        repository = simulatedRepository();
+        productService = new ProductService(repository, cacheManager, new ProductIdFilter(repository, null), null);
+
+        var entries = new HashMap<Object, Object>();
+        for (long id = 1; id <= CATALOG_SIZE; id++) {
+            entries.put(id, product(id));
+        }
+        cache.putAll(entries);
+    }
+
+    @Benchmark
+    public List<Product> perId() {
+        var products = new ArrayList<Product>(pageSize);
+        for (var id : page()) {
+            var cached = cache.get(id);
+            if (cached != null) {
+                products.add((Product) cached.get());
+                continue;
+            }
+            repository.findById(id).ifPresent(product -> {
+                cache.put(id, product);
+                products.add(product);
+            });
+        }
+        return products;
+    }
+
+    @Benchmark
+    public List<Product> multiGet() {
+        return productService.findAllById(page());
+    }
+
+    private List<Long> page() {
+        var random = ThreadLocalRandom.current();
+        return random.longs(pageSize, 1, CATALOG_SIZE + 1).boxed().toList();
+    }
+
+    private void redisRoundTrip() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(redisRttMicros));
+    }
+
+    private void dbRoundTrip() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbRttMicros));
+    }
+
+    private void store(String key, byte[] value) {
+        if (!key.endsWith("0")) {
+            redis.put(key, value);
+        }
+    }
+
+    private ProductRepository simulatedRepository() {
+        return (ProductRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> {
+                        dbRoundTrip();
+                        yield Optional.of(product((Long) args[0]));
+                    }
+                    case "findAllById" -> {
+                        dbRoundTrip();
+                        yield ((Collection<?>) args[0]).stream().map(id -> product((Long) id)).toList();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Product product(long id) {
+        return Product.builder()
+                .productId(id)
+                .productName("Widget " + id)
+                .category(Category.PRODUCT)
+                .price(new BigDecimal("29.99").add(BigDecimal.valueOf(id % 100)))
+                .inStock(100L + id)
+                .dateOfManufacture(LocalDateTime.of(2026, 1, 2, 9, 59, 1))
+                .updatedAt(LocalDateTime.of(2026, 1, 3, 10, 0).plusSeconds(id))
+                .vendor("ABC")
+                .build();
+    }
+
+    /**
+     * Redis cache whose single-key commands are served from the in-memory store, one round trip each.
+     */
+    private class SimulatedRedisCache extends RedisCache {
+
+        SimulatedRedisCache(String name, RedisCacheWriter writer, RedisCacheConfiguration config) {
+            super(name, writer, config);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            redisRoundTrip();
+            var value = redis.get(createCacheKey(key));
+            return value != null ? getCacheConfiguration().getValueSerializationPair().read(ByteBuffer.wrap(value)) : null;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            redisRoundTrip();
+            store(createCacheKey(key), ByteUtils.getBytes(getCacheConfiguration().getValueSerializationPair().write(value)));
+        }
+    }
+
+    /**
+     * {@code MGET} and pipelined writes on the in-memory store, one round trip per call.
+     */
+    private class SimulatedBulkOperations extends RedisBulkOperations {
+
+        SimulatedBulkOperations() {
+            super(null);
+        }
+
+        @Override
+        public List<byte[]> get(List<byte[]> keys) {
+            redisRoundTrip();
+            return keys.stream().map(key -> redis.get(new String(key, StandardCharsets.UTF_8))).toList();
+        }
+
+        @Override
+        public void set(List<Entry> entries) {
+            if (entries.isEmpty()) {
+                return;
+            }
+            redisRoundTrip();
+            entries.forEach(entry -> store(new String(entry.key(), StandardCharsets.UTF_8), entry.value()));
+        }
+    }
+}
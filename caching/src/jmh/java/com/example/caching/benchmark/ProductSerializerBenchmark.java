@@ -0,0 +1,84 @@
+package com.example.caching.benchmark;
+
+import com.example.caching.config.CacheConfig;
+import com.example.caching.entity.Product;
+import com.example.caching.enums.Category;
+import com.example.caching.serializer.CompactRedisSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Cache value serialization: the JSON serializer of {@link CacheConfig#jsonSerializer()} against
+ * {@link CompactRedisSerializer}, for a single product ({@code product} cache) and a search
+ * result of {@code listSize} products ({@code product_list}). The serialized sizes are
+ * printed during setup; the gc profiler reports allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductSerializerBenchmark {
+
+    @Param({"json", "compact"})
+    private String format;
+
+    @Param({"1", "20", "200"})
+    private int listSize;
+
+    private RedisSerializer<Object> serializer;
+    private Product product;
+    private List<Product> products;
+    private byte[] serializedProduct;
+    private byte[] serializedProducts;
+
+    @Setup
+    public void setUp() {
+        var json = CacheConfig.jsonSerializer();
+        serializer = "json".equals(format) ? json : new CompactRedisSerializer(json, 512);
+
+        products = LongStream.rangeClosed(1, listSize).mapToObj(ProductSerializerBenchmark::product).toList();
+        product = products.getFirst();
+        serializedProduct = serializer.serialize(product);
+        serializedProducts = serializer.serialize(products);
+        System.out.printf("%n%s: product %d bytes, list of %d products %d bytes%n",
+                format, serializedProduct.length, listSize, serializedProducts.length);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() {
+        return serializer.serialize(product);
+    }
+
+    @Benchmark
+    public Object deserializeProduct() {
+        return serializer.deserialize(serializedProduct);
+    }
+
+    @Benchmark
+    public byte[] serializeList() {
+        return serializer.serialize(products);
+    }
+
+    @Benchmark
+    public Object deserializeList() {
+        return serializer.deserialize(serializedProducts);
+    }
+
+    private static Product product(long id) {
+        return Product.builder()
+                .productId(id)
+                .productName("Widget")
+                .category(Category.PRODUCT)
+                .price(new BigDecimal("29.99").add(BigDecimal.valueOf(id)))
+                .inStock(100L + id)
+                .dateOfManufacture(LocalDateTime.of(2026, 1, 2, 9, 59, 1))
+                .updatedAt(LocalDateTime.of(2026, 1, 3, 10, 0).plusSeconds(id))
+                .vendor("ABC")
+                .build();
+    }
+}
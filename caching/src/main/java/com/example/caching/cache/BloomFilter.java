@@ -0,0 +1,145 @@
+package com.example.caching.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of {@code long} keys that answers "definitely absent" or "maybe present", in fixed memory:
+ * {@code bitSize} bits, {@code hashCount} of them set per key. Keys are never removed.
+ * <p>
+ * Sized from the number of keys it should hold and the false-positive rate wanted then, see
+ * {@link #create}. Bits are laid out like a Redis bitmap (bit 0 is the high bit of byte 0), so a
+ * filter can be copied to a Redis string with {@link #toBytes}, kept up to date there with
+ * {@code SETBIT} at {@link #positions}, and read back with {@link #merge}.
+ */
+public class BloomFilter {
+
+    private static final long MAX_BITS = 1L << 32;
+
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLongArray words;
+
+    public BloomFilter(long bitSize, int hashCount) {
+        if (bitSize < Long.SIZE || bitSize > MAX_BITS || bitSize % Long.SIZE != 0) {
+            throw new IllegalArgumentException("Bloom filter size must be a multiple of 64 bits up to 2^32: " + bitSize);
+        }
+        if (hashCount < 1) {
+            throw new IllegalArgumentException("Bloom filter hash count must be positive: " + hashCount);
+        }
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        this.words = new AtomicLongArray((int) (bitSize / Long.SIZE));
+    }
+
+    /**
+     * A filter that holds {@code expectedInsertions} keys with a {@code falsePositiveRate} chance
+     * that an absent key is reported maybe present: {@code -n ln p / (ln 2)^2} bits and
+     * {@code (bits / n) ln 2} hashes. The rate grows past that number of keys.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        var bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.min(MAX_BITS, (bits + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        var hashes = (int) Math.max(1, Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bits, hashes);
+    }
+
+    public void put(long key) {
+        for (var position : positions(key)) {
+            var word = (int) (position >>> 6);
+            var mask = mask(position);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndUpdate(word, bits -> bits | mask);
+            }
+        }
+    }
+
+    /**
+     * {@code false} if the key was never put, {@code true} if it was or, with the false-positive
+     * rate, was not.
+     */
+    public boolean mightContain(long key) {
+        for (var position : positions(key)) {
+            if ((words.get((int) (position >>> 6)) & mask(position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The bits set for the key, by double hashing two 64-bit mixes of it.
+     */
+    public long[] positions(long key) {
+        var h1 = mix(key ^ 0x9E3779B97F4A7C15L);
+        var h2 = mix(h1) | 1;
+        var positions = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            positions[i] = Long.remainderUnsigned(h1 + i * h2, bitSize);
+        }
+        return positions;
+    }
+
+    /**
+     * The bits as a Redis bitmap.
+     */
+    public byte[] toBytes() {
+        var buffer = ByteBuffer.allocate(words.length() * Long.BYTES);
+        for (int i = 0; i < words.length(); i++) {
+            buffer.putLong(words.get(i));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Sets every bit set in the Redis bitmap, which may be shorter than this filter, since Redis
+     * does not store trailing zero bytes.
+     */
+    public void merge(byte[] bitmap) {
+        if (bitmap.length > words.length() * Long.BYTES) {
+            throw new IllegalArgumentException("Bitmap of " + bitmap.length + " bytes is larger than the filter");
+        }
+        var padded = ByteBuffer.allocate(words.length() * Long.BYTES).put(bitmap).rewind();
+        for (int i = 0; i < words.length(); i++) {
+            var bits = padded.getLong();
+            if (bits != 0) {
+                words.getAndUpdate(i, current -> current | bits);
+            }
+        }
+    }
+
+    /**
+     * Chance that an absent key is reported maybe present, given the bits set so far.
+     */
+    public double expectedFalsePositiveRate() {
+        var set = 0L;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bitSize, hashCount);
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private static long mask(long position) {
+        return 1L << (63 - (position & 63));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.caching.cache;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Access counters and latencies of one {@link TwoLevelCache}, counting bulk operations per key,
+ * and optionally its hottest keys. Striped adders keep recording contention-free, and memory is
+ * fixed whatever the number of keys.
+ */
+public class CacheAccessStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Map<Operation, Latency> latencies = new EnumMap<>(Operation.class);
+    private final HotKeySketch hotKeys;
+
+    public CacheAccessStats(HotKeySettings hotKeySettings) {
+        for (var operation : Operation.values()) {
+            latencies.put(operation, new Latency());
+        }
+        this.hotKeys = hotKeySettings != null ? new HotKeySketch(hotKeySettings) : null;
+    }
+
+    void recordGet(String key, boolean hit, long nanos) {
+        (hit ? hits : misses).increment();
+        latencies.get(Operation.GET).record(nanos);
+        if (hotKeys != null) {
+            hotKeys.record(key);
+        }
+    }
+
+    void recordGetAll(Iterable<String> keys, int hitCount, int missCount, long nanos) {
+        hits.add(hitCount);
+        misses.add(missCount);
+        latencies.get(Operation.GET_ALL).record(nanos);
+        if (hotKeys != null) {
+            keys.forEach(hotKeys::record);
+        }
+    }
+
+    void recordPut(Operation operation, int count, long nanos) {
+        puts.add(count);
+        latencies.get(operation).record(nanos);
+    }
+
+    void recordEvict(int count, long nanos) {
+        evictions.add(count);
+        latencies.get(Operation.EVICT).record(nanos);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long count(Operation operation) {
+        return latencies.get(operation).count.sum();
+    }
+
+    public double totalTime(Operation operation, TimeUnit unit) {
+        return latencies.get(operation).totalNanos.sum() / (double) unit.toNanos(1);
+    }
+
+    /**
+     * The hottest keys, hottest first, or an empty list without hot key tracking.
+     */
+    public List<HotKeySketch.HotKey> hotKeys() {
+        return hotKeys != null ? hotKeys.hottest() : List.of();
+    }
+
+    public enum Operation {
+        GET, GET_ALL, PUT, PUT_ALL, EVICT
+    }
+
+    private static final class Latency {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+        }
+    }
+}
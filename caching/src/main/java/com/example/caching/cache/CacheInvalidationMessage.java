@@ -0,0 +1,24 @@
+package com.example.caching.cache;
+
+/**
+ * L1 invalidation broadcast over Redis pub/sub. A null {@code key} drops the whole cache.
+ * <p>
+ * Encoded as {@code nodeId|cacheName|key}. The key is last, so it may itself contain the separator.
+ */
+public record CacheInvalidationMessage(String nodeId, String cacheName, String key) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        var message = nodeId + SEPARATOR + cacheName;
+        return key == null ? message : message + SEPARATOR + key;
+    }
+
+    public static CacheInvalidationMessage decode(String message) {
+        var parts = message.split("\\|", 3);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Malformed cache invalidation message: " + message);
+        }
+        return new CacheInvalidationMessage(parts[0], parts[1], parts.length == 3 ? parts[2] : null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.caching.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleCacheErrorHandler;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Treats a cached value that can't be deserialized as a miss, so the cached method runs and its
+ * put overwrites the value, instead of failing every call until the entry expires. Such values
+ * are left by a change of format, e.g. JSON written without type hints before they were added.
+ * Any other cache error is rethrown.
+ */
+@Slf4j
+public class CacheReadErrorHandler extends SimpleCacheErrorHandler {
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        if (!(exception instanceof SerializationException)) {
+            super.handleCacheGetError(exception, cache, key);
+            return;
+        }
+        log.debug("Can't read cached value of {} in cache {}, treating it as a miss: {}", key, cache.getName(), exception.getMessage());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.caching.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tag index of cache entries, kept in Redis so that every node sees the same one.
+ * <p>
+ * Each tag is a set of the cache keys tagged with it, stored next to the entries as
+ * {@code <cache>::tags:<tag>}, so clearing the cache drops its index too. A tag set expires
+ * with the latest entry added to it. Evicting by tag reads and deletes the tag sets and the
+ * entries they name in one script, so a concurrent eviction of the same tags cannot see a
+ * half-removed index.
+ */
+@RequiredArgsConstructor
+public class CacheTagIndex {
+
+    private static final RedisScript<Long> TAG = RedisScript.of("""
+            for _, tag in ipairs(KEYS) do
+                redis.call('SADD', tag, ARGV[1])
+                if tonumber(ARGV[2]) > 0 then
+                    redis.call('EXPIRE', tag, ARGV[2])
+                end
+            end
+            return #KEYS
+            """, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> EVICT = RedisScript.of("""
+            local keys = redis.call('SUNION', unpack(KEYS))
+            redis.call('DEL', unpack(KEYS))
+            for _, key in ipairs(keys) do
+                redis.call('DEL', ARGV[1] .. key)
+            end
+            return keys
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Adds the entry key to the set of every tag.
+     *
+     * @param keyPrefix Redis key prefix of the cache, e.g. {@code product_list::}
+     * @param ttl       time to live of the entry; zero or negative means it does not expire
+     */
+    public void tag(String keyPrefix, String key, Collection<String> tags, Duration ttl) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        redisTemplate.execute(TAG, tagKeys(keyPrefix, tags), key, String.valueOf(ttl.toSeconds()));
+    }
+
+    /**
+     * Deletes every entry carrying at least one of the tags, together with the tag sets.
+     *
+     * @return the keys of the deleted entries, as stored by {@link #tag}
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> evict(String keyPrefix, Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = redisTemplate.execute(EVICT, tagKeys(keyPrefix, tags), keyPrefix);
+        return keys != null ? keys : List.of();
+    }
+
+    private static List<String> tagKeys(String keyPrefix, Collection<String> tags) {
+        return tags.stream().distinct().map(tag -> keyPrefix + "tags:" + tag).toList();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.caching.cache;
+
+import java.util.Collection;
+
+/**
+ * Derives the tags of a cache entry from its key and value, see {@link CacheTagIndex}.
+ */
+@FunctionalInterface
+public interface CacheTagger {
+
+    Collection<String> tags(Object key, Object value);
+}
@@ -0,0 +1,13 @@
+package com.example.caching.cache;
+
+/**
+ * Value stored in Redis by caches with early recomputation, together with what XFetch needs:
+ * how long the value took to compute and when it logically expires. Redis keeps it for a while
+ * longer, so it can still be served while one node recomputes it.
+ */
+public record CachedValue(Object value, long computeMillis, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.caching.cache;
+
+import java.time.Duration;
+
+/**
+ * Stampede protection of a {@link TwoLevelCache}.
+ *
+ * @param ttl         logical time to live; the Redis TTL of the cache must be longer, the difference
+ *                    is how long an expired value can be served while it is recomputed
+ * @param beta        XFetch aggressiveness: above 1 recomputes earlier, below 1 later
+ * @param lockTimeout how long one node may take to recompute a value before another may try
+ */
+public record EarlyRecomputeSettings(Duration ttl, double beta, Duration lockTimeout) {
+}
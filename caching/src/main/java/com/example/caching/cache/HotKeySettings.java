@@ -0,0 +1,12 @@
+package com.example.caching.cache;
+
+/**
+ * Hot key tracking of a {@link TwoLevelCache}, see {@link HotKeySketch}.
+ *
+ * @param width counters per sketch row, rounded up to a power of two; estimates overcount by at
+ *              most about {@code e / width} of the recent accesses
+ * @param depth sketch rows; the overcount bound holds with probability {@code 1 - e^-depth}
+ * @param top   number of hottest keys reported
+ */
+public record HotKeySettings(int width, int depth, int top) {
+}
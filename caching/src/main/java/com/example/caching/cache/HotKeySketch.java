@@ -0,0 +1,142 @@
+package com.example.caching.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate access counts of cache keys in fixed memory: a count-min sketch of {@code depth}
+ * rows of {@code width} counters, and the {@code top} keys with the highest estimates.
+ * <p>
+ * Recording a key increments one counter per row and takes the smallest as its estimate, which
+ * never undercounts. The top keys are only locked when a key not among them overtakes the
+ * coldest of them. Every {@code 10 * width} accesses all counts are halved, so the ranking
+ * follows what is hot now rather than since startup.
+ */
+public class HotKeySketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int width;
+    private final int depth;
+    private final int shift;
+    private final int top;
+    private final long resetInterval;
+    private final AtomicLongArray counters;
+    private final AtomicLong accesses = new AtomicLong();
+    private final Map<String, Long> hottest = new ConcurrentHashMap<>();
+    private volatile long coldestHottest;
+
+    public HotKeySketch(HotKeySettings settings) {
+        if (settings.depth() < 1 || settings.depth() > SEEDS.length) {
+            throw new IllegalArgumentException("Sketch depth must be between 1 and " + SEEDS.length + ": " + settings.depth());
+        }
+        if (settings.width() < 1 || settings.top() < 1) {
+            throw new IllegalArgumentException("Sketch width and top must be positive: " + settings);
+        }
+        this.width = Integer.highestOneBit(Math.max(1, settings.width() - 1)) << 1;
+        this.depth = settings.depth();
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(width);
+        this.top = settings.top();
+        this.resetInterval = 10L * width;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Counts one access to the key.
+     */
+    public void record(String key) {
+        var estimate = increment(key.hashCode());
+        if (hottest.computeIfPresent(key, (hotKey, previous) -> estimate) == null
+                && (hottest.size() < top || estimate > coldestHottest)) {
+            offer(key, estimate);
+        }
+        if (accesses.incrementAndGet() % resetInterval == 0) {
+            halve();
+        }
+    }
+
+    /**
+     * Estimated number of recent accesses to the key.
+     */
+    public long estimate(String key) {
+        var hash = key.hashCode();
+        var estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(row * width + index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * The hottest keys, hottest first.
+     */
+    public List<HotKey> hottest() {
+        return hottest.entrySet().stream()
+                .map(entry -> new HotKey(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(HotKey::estimate).reversed())
+                .toList();
+    }
+
+    private long increment(int hash) {
+        var estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + index(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int index(int hash, int row) {
+        return (int) ((hash * SEEDS[row]) >>> shift);
+    }
+
+    private synchronized void offer(String key, long estimate) {
+        if (hottest.size() < top || hottest.containsKey(key)) {
+            hottest.put(key, estimate);
+            updateColdest();
+            return;
+        }
+        String coldestKey = null;
+        var coldest = Long.MAX_VALUE;
+        for (var entry : hottest.entrySet()) {
+            if (entry.getValue() < coldest) {
+                coldestKey = entry.getKey();
+                coldest = entry.getValue();
+            }
+        }
+        if (estimate > coldest) {
+            hottest.remove(coldestKey);
+            hottest.put(key, estimate);
+        }
+        updateColdest();
+    }
+
+    private synchronized void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+        hottest.replaceAll((key, estimate) -> estimate >>> 1);
+        updateColdest();
+    }
+
+    private void updateColdest() {
+        if (hottest.size() < top) {
+            coldestHottest = 0;
+            return;
+        }
+        var coldest = Long.MAX_VALUE;
+        for (var estimate : hottest.values()) {
+            coldest = Math.min(coldest, estimate);
+        }
+        coldestHottest = coldest;
+    }
+
+    public record HotKey(String key, long estimate) {
+    }
+}
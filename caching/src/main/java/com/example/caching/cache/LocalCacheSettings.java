@@ -0,0 +1,10 @@
+package com.example.caching.cache;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-process L1 of a {@link TwoLevelCache}: entries expire after {@code ttl}
+ * and at most {@code maximumSize} are kept per cache.
+ */
+public record LocalCacheSettings(Duration ttl, long maximumSize) {
+}
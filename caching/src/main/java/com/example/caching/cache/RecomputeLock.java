@@ -0,0 +1,36 @@
+package com.example.caching.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Short-lived Redis lock electing the single node that recomputes a cache entry.
+ * It expires on its own, so a node that dies while recomputing only delays the next attempt.
+ */
+@RequiredArgsConstructor
+public class RecomputeLock {
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public boolean tryAcquire(String lockKey, String owner, Duration timeout) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, owner, timeout));
+    }
+
+    /**
+     * Releases the lock if the owner still holds it, not if it expired and another node took it.
+     */
+    public void release(String lockKey, String owner) {
+        redisTemplate.execute(RELEASE, List.of(lockKey), owner);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.caching.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Multi-key reads and writes on raw, already serialized cache keys and values, each in a single round trip.
+ */
+@RequiredArgsConstructor
+public class RedisBulkOperations {
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * One {@code MGET}.
+     *
+     * @return the values in key order, null for missing keys
+     */
+    public List<byte[]> get(List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        return redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(keys.toArray(byte[][]::new)));
+    }
+
+    /**
+     * One pipelined {@code SET key value PX ttl NX} per entry ({@code MSET} cannot set a TTL). Keys
+     * that already hold a value are left alone: it may be newer than what the caller read.
+     */
+    public void set(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (var entry : entries) {
+                var expiration = entry.ttl().isZero() || entry.ttl().isNegative()
+                        ? Expiration.persistent()
+                        : Expiration.from(entry.ttl());
+                connection.stringCommands().set(entry.key(), entry.value(), expiration, SetOption.ifAbsent());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * One {@code DEL} of every key.
+     */
+    public void delete(List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(keys.toArray(byte[][]::new)));
+    }
+
+    public record Entry(byte[] key, byte[] value, Duration ttl) {
+    }
+}
@@ -0,0 +1,523 @@
+package com.example.caching.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Near cache: a bounded, short-lived in-process L1 (Caffeine) in front of the shared Redis L2.
+ * <p>
+ * Reads are served from L1 when possible and only go to Redis on an L1 miss, copying what they
+ * find into L1, so a hot key costs neither a round trip nor a deserialization. Writes go to Redis
+ * first, then drop the local L1 entry and broadcast an invalidation so every other node drops
+ * theirs too and reads the new value from Redis next time. Pub/sub is fire-and-forget: the L1 TTL
+ * bounds how long a node that missed an invalidation can serve a stale value.
+ * <p>
+ * L1 holds the same instances it returns, so callers must not modify cached values in place.
+ * It is keyed by the string form of the cache key, which is also what Redis and the invalidation
+ * messages use.
+ * <p>
+ * Caches given a {@link CacheTagger} register the tags of every entry they store in a
+ * {@link CacheTagIndex}, so that writes can evict just the entries they affect with
+ * {@link #evictTagged(Collection)}.
+ * <p>
+ * Caches given {@link EarlyRecomputeSettings} protect against stampedes. Values are stored as
+ * {@link CachedValue}s carrying their compute time and logical expiry, and outlive that expiry
+ * in Redis. On every L2 read, XFetch decides whether to recompute ahead of expiry, with a
+ * probability rising as expiry nears and with the compute time; once expired, always. The reader
+ * that also wins the {@link RecomputeLock} gets a miss, so the cached method runs and puts the new
+ * value; every other reader, on any node, keeps getting the current value meanwhile. A winner
+ * whose method throws or returns a value that is not cached never puts: evicting the key releases
+ * the lock, otherwise it expires after its timeout.
+ * <p>
+ * Every access is counted and timed in {@link #accessStatistics()}, which also tracks the hottest
+ * keys given {@link HotKeySettings}.
+ * <p>
+ * Given {@link RedisBulkOperations}, {@link #getAll(Collection)} reads many keys with one
+ * {@code MGET}, {@link #putAll(Map)} fills the gaps in the cache with one pipelined round trip and
+ * {@link #evictAll(Collection)} evicts many keys with one {@code DEL}.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private final RedisCache l2;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> l1;
+    private final Consumer<CacheInvalidationMessage> invalidations;
+    private final String nodeId;
+    private final Options options;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> recomputeStarts;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Boolean> heldLocks;
+    private final LongAdder earlyRecomputes = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final CacheAccessStats stats;
+
+    public TwoLevelCache(RedisCache l2, String nodeId, Consumer<CacheInvalidationMessage> invalidations, Options options) {
+        this.l2 = l2;
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(options.local().maximumSize())
+                .expireAfterWrite(options.local().ttl())
+                .recordStats()
+                .build();
+        this.nodeId = nodeId;
+        this.invalidations = invalidations;
+        this.options = options;
+        this.stats = new CacheAccessStats(options.hotKeys());
+        // misses that never lead to a put (null results, exceptions) must not pile up
+        this.recomputeStarts = Caffeine.newBuilder()
+                .maximumSize(options.local().maximumSize())
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+        // nor locks won by a miss that never leads to a put, which expire in Redis after the same time
+        this.heldLocks = Caffeine.newBuilder()
+                .maximumSize(options.local().maximumSize())
+                .expireAfterWrite(options.earlyRecompute() != null ? options.earlyRecompute().lockTimeout() : Duration.ofMinutes(1))
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return l2.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        var start = System.nanoTime();
+        var localKey = localKey(key);
+        var result = lookup(key, localKey);
+        stats.recordGet(localKey, result != null, System.nanoTime() - start);
+        return result;
+    }
+
+    private ValueWrapper lookup(Object key, String localKey) {
+        var local = l1.getIfPresent(localKey);
+        if (local != null) {
+            return local;
+        }
+        var remote = l2.get(key);
+        if (remote == null) {
+            startRecompute(localKey);
+            return null;
+        }
+        if (remote.get() instanceof CachedValue cached) {
+            if (shouldRecompute(cached) && tryLock(localKey)) {
+                earlyRecomputes.increment();
+                startRecompute(localKey);
+                return null;
+            }
+            if (cached.isExpired(System.currentTimeMillis())) {
+                // another node is recomputing it, serve the stale value without copying it to L1
+                staleHits.increment();
+                return new SimpleValueWrapper(cached.value());
+            }
+            remote = new SimpleValueWrapper(cached.value());
+        }
+        l1.put(localKey, remote);
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        var wrapper = get(key);
+        var value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        var wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        var start = System.nanoTime();
+        var localKey = localKey(key);
+        tag(key, value);
+        l2.put(key, toStoreValue(localKey, value));
+        releaseLock(localKey);
+        invalidate(localKey);
+        stats.recordPut(CacheAccessStats.Operation.PUT, 1, System.nanoTime() - start);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        var start = System.nanoTime();
+        var localKey = localKey(key);
+        tag(key, value);
+        var existing = l2.putIfAbsent(key, toStoreValue(localKey, value));
+        releaseLock(localKey);
+        invalidate(localKey);
+        stats.recordPut(CacheAccessStats.Operation.PUT, existing == null ? 1 : 0, System.nanoTime() - start);
+        if (existing != null && existing.get() instanceof CachedValue cached) {
+            return new SimpleValueWrapper(cached.value());
+        }
+        return existing;
+    }
+
+    /**
+     * Looks up many keys at once: L1 first, then every L1 miss with one {@code MGET}, copying the
+     * hits into L1. Values past their logical expiry count as misses, so the caller reloads them
+     * along with the others instead of leaving them to XFetch one by one. Values that can't be
+     * deserialized count as misses too and are deleted, so that {@link #putAll} can replace them.
+     *
+     * @return the cached values by key, in key order, without the misses
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        var start = System.nanoTime();
+        var found = fetchAll(keys);
+        stats.recordGetAll(keys.stream().map(TwoLevelCache::localKey).toList(), found.size(), keys.size() - found.size(),
+                System.nanoTime() - start);
+        return found;
+    }
+
+    private Map<Object, Object> fetchAll(Collection<?> keys) {
+        var found = new LinkedHashMap<Object, Object>();
+        var remoteKeys = new ArrayList<Object>();
+        for (var key : keys) {
+            var local = l1.getIfPresent(localKey(key));
+            if (local != null) {
+                found.put(key, local.get());
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+        if (options.bulk() == null) {
+            remoteKeys.forEach(key -> {
+                try {
+                    var remote = lookup(key, localKey(key));
+                    if (remote != null) {
+                        found.put(key, remote.get());
+                    }
+                } catch (SerializationException ex) {
+                    log.debug("Can't read {} in cache {}, evicting it: {}", key, getName(), ex.getMessage());
+                    l2.evict(key);
+                }
+            });
+            return found;
+        }
+
+        var config = l2.getCacheConfiguration();
+        var values = options.bulk().get(remoteKeys.stream().map(key -> serializeKey(localKey(key))).toList());
+        var now = System.currentTimeMillis();
+        var unreadable = new ArrayList<byte[]>();
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            var bytes = values.get(i);
+            Object value;
+            try {
+                // a value of a newer format reads as null
+                value = bytes != null ? config.getValueSerializationPair().read(ByteBuffer.wrap(bytes)) : null;
+            } catch (SerializationException ex) {
+                log.debug("Can't read {} in cache {}, evicting it: {}", remoteKeys.get(i), getName(), ex.getMessage());
+                unreadable.add(serializeKey(localKey(remoteKeys.get(i))));
+                continue;
+            }
+            if (value instanceof CachedValue cached) {
+                value = cached.isExpired(now) ? null : cached.value();
+            }
+            if (value != null) {
+                var key = remoteKeys.get(i);
+                found.put(key, value);
+                l1.put(localKey(key), new SimpleValueWrapper(value));
+            }
+        }
+        if (!unreadable.isEmpty()) {
+            options.bulk().delete(unreadable);
+        }
+        return found;
+    }
+
+    /**
+     * Bulk-loads entries read from the source of truth into the keys that hold none, e.g. on
+     * warm-up: one pipelined write, local L1 copies dropped, no broadcast. The rows may have been
+     * read before a concurrent {@link #put} of a newer value, which is therefore kept. Updates go
+     * through {@link #put} instead.
+     * <p>
+     * With early recomputation, logical expiries are spread over the last tenth of the TTL so that
+     * entries loaded together are not all recomputed together.
+     */
+    public void putAll(Map<?, ?> entries) {
+        if (options.bulk() == null) {
+            entries.forEach(this::putIfAbsent);
+            return;
+        }
+        var start = System.nanoTime();
+        var config = l2.getCacheConfiguration();
+        var writes = new ArrayList<RedisBulkOperations.Entry>(entries.size());
+        entries.forEach((key, value) -> {
+            tag(key, value);
+            writes.add(new RedisBulkOperations.Entry(
+                    serializeKey(localKey(key)),
+                    ByteUtils.getBytes(config.getValueSerializationPair().write(toBulkStoreValue(value))),
+                    config.getTtlFunction().getTimeToLive(key, value)));
+        });
+        options.bulk().set(writes);
+        entries.keySet().forEach(key -> invalidateLocal(localKey(key)));
+        stats.recordPut(CacheAccessStats.Operation.PUT_ALL, entries.size(), System.nanoTime() - start);
+    }
+
+    @Override
+    public void evict(Object key) {
+        var start = System.nanoTime();
+        l2.evict(key);
+        releaseLock(localKey(key));
+        invalidate(localKey(key));
+        stats.recordEvict(1, System.nanoTime() - start);
+    }
+
+    /**
+     * Evicts many keys from both levels on all nodes, from Redis with one {@code DEL}.
+     */
+    public void evictAll(Collection<?> keys) {
+        if (options.bulk() == null) {
+            keys.forEach(this::evict);
+            return;
+        }
+        var start = System.nanoTime();
+        options.bulk().delete(keys.stream().map(key -> serializeKey(localKey(key))).toList());
+        keys.forEach(key -> {
+            releaseLock(localKey(key));
+            invalidate(localKey(key));
+        });
+        stats.recordEvict(keys.size(), System.nanoTime() - start);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        var start = System.nanoTime();
+        var present = l2.evictIfPresent(key);
+        releaseLock(localKey(key));
+        invalidate(localKey(key));
+        stats.recordEvict(present ? 1 : 0, System.nanoTime() - start);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        releaseLocks();
+        invalidate(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        var present = l2.invalidate();
+        releaseLocks();
+        invalidate(null);
+        return present;
+    }
+
+    /**
+     * Evicts every entry tagged with at least one of the tags from both levels on all nodes.
+     * Does nothing for a cache without tagging.
+     *
+     * @return the number of entries evicted
+     */
+    public int evictTagged(Collection<String> tags) {
+        if (options.tagIndex() == null) {
+            return 0;
+        }
+        var start = System.nanoTime();
+        var keys = options.tagIndex().evict(keyPrefix(), tags);
+        keys.forEach(key -> {
+            releaseLock(key);
+            invalidate(key);
+        });
+        stats.recordEvict(keys.size(), System.nanoTime() - start);
+        return keys.size();
+    }
+
+    /**
+     * Drops a local L1 entry, or all of them for a null key, without touching Redis or other nodes.
+     */
+    public void invalidateLocal(String key) {
+        if (key == null) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(key);
+        }
+    }
+
+    /**
+     * Hits, misses, puts, evictions and latencies of this cache as a whole, and its hottest keys.
+     */
+    public CacheAccessStats accessStatistics() {
+        return stats;
+    }
+
+    public CacheStats localStatistics() {
+        return l1.stats();
+    }
+
+    public CacheStatistics remoteStatistics() {
+        return l2.getStatistics();
+    }
+
+    public long localSize() {
+        return l1.estimatedSize();
+    }
+
+    /**
+     * Reads that triggered a recomputation ahead of (or at) logical expiry.
+     */
+    public long earlyRecomputeCount() {
+        return earlyRecomputes.sum();
+    }
+
+    /**
+     * Reads served a logically expired value while another reader was recomputing it.
+     */
+    public long staleHitCount() {
+        return staleHits.sum();
+    }
+
+    /**
+     * XFetch: recompute once {@code now - computeTime * beta * ln(random)} reaches the expiry.
+     */
+    private boolean shouldRecompute(CachedValue cached) {
+        var settings = options.earlyRecompute();
+        var random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        var headStart = cached.computeMillis() * settings.beta() * -Math.log(random);
+        return System.currentTimeMillis() + headStart >= cached.expiresAtMillis();
+    }
+
+    private boolean tryLock(String localKey) {
+        try {
+            if (options.recomputeLock().tryAcquire(lockKey(localKey), nodeId, options.earlyRecompute().lockTimeout())) {
+                heldLocks.put(localKey, Boolean.TRUE);
+                return true;
+            }
+            return false;
+        } catch (DataAccessException ex) {
+            log.warn("Can't lock {} of cache {} for recomputation, serving the cached value: {}", localKey, getName(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private void releaseLocks() {
+        List.copyOf(heldLocks.asMap().keySet()).forEach(this::releaseLock);
+    }
+
+    private void releaseLock(String localKey) {
+        if (heldLocks.asMap().remove(localKey) == null) {
+            return;
+        }
+        try {
+            options.recomputeLock().release(lockKey(localKey), nodeId);
+        } catch (DataAccessException ex) {
+            log.warn("Can't release recomputation lock of {} in cache {}, it expires on its own: {}", localKey, getName(), ex.getMessage());
+        }
+    }
+
+    private void startRecompute(String localKey) {
+        if (options.earlyRecompute() != null) {
+            recomputeStarts.asMap().putIfAbsent(localKey, System.currentTimeMillis());
+        }
+    }
+
+    private Object toStoreValue(String localKey, Object value) {
+        var settings = options.earlyRecompute();
+        if (settings == null) {
+            return value;
+        }
+        var now = System.currentTimeMillis();
+        var started = recomputeStarts.asMap().remove(localKey);
+        var computeMillis = started != null ? now - started : 0;
+        return new CachedValue(value, computeMillis, now + settings.ttl().toMillis());
+    }
+
+    private Object toBulkStoreValue(Object value) {
+        var settings = options.earlyRecompute();
+        if (settings == null) {
+            return value;
+        }
+        var ttlMillis = settings.ttl().toMillis();
+        var jitter = (long) (ttlMillis * 0.1 * ThreadLocalRandom.current().nextDouble());
+        return new CachedValue(value, 0, System.currentTimeMillis() + ttlMillis - jitter);
+    }
+
+    private void tag(Object key, Object value) {
+        if (options.tagIndex() != null && options.tagger() != null && value != null) {
+            var ttl = l2.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+            options.tagIndex().tag(keyPrefix(), localKey(key), options.tagger().tags(key, value), ttl);
+        }
+    }
+
+    private void invalidate(String key) {
+        invalidateLocal(key);
+        invalidations.accept(new CacheInvalidationMessage(nodeId, getName(), key));
+    }
+
+    private byte[] serializeKey(String localKey) {
+        return ByteUtils.getBytes(l2.getCacheConfiguration().getKeySerializationPair().write(keyPrefix() + localKey));
+    }
+
+    private String keyPrefix() {
+        return l2.getCacheConfiguration().getKeyPrefixFor(getName());
+    }
+
+    private String lockKey(String localKey) {
+        return keyPrefix() + "lock:" + localKey;
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Per-cache configuration. Only {@code local} is required: tagging needs a tag index and a
+     * tagger, early recomputation its settings and a lock, bulk loading the bulk operations, and
+     * hot key tracking its settings.
+     */
+    public record Options(LocalCacheSettings local, CacheTagIndex tagIndex, CacheTagger tagger,
+                          EarlyRecomputeSettings earlyRecompute, RecomputeLock recomputeLock,
+                          RedisBulkOperations bulk, HotKeySettings hotKeys) {
+
+        public static Options local(LocalCacheSettings local) {
+            return new Options(local, null, null, null, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.caching.cache;
+
+import com.example.caching.sender.RedisPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decorates every cache of a {@link RedisCacheManager} with an in-process L1, see {@link TwoLevelCache}.
+ * <p>
+ * Invalidations are published on {@link #INVALIDATION_CHANNEL} tagged with this node's id;
+ * {@link #onInvalidation(String)} applies those of other nodes to the local L1.
+ * Caches with a {@link CacheTagger} index their entries by tag in Redis, see {@link #evictTagged},
+ * and caches with {@link EarlyRecomputeSettings} are protected against stampedes.
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractCacheManager {
+
+    public static final String INVALIDATION_CHANNEL = "cache-invalidation";
+
+    private final RedisCacheManager redisCacheManager;
+    private final RedisPublisher publisher;
+    private final LocalCacheSettings defaultLocalSettings;
+    private final Map<String, LocalCacheSettings> localSettings;
+    private final CacheTagIndex tagIndex;
+    private final Map<String, CacheTagger> taggers;
+    private final RecomputeLock recomputeLock;
+    private final Map<String, EarlyRecomputeSettings> earlyRecomputeSettings;
+    private final RedisBulkOperations bulkOperations;
+    private final HotKeySettings hotKeySettings;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private TwoLevelCacheManager(Builder builder) {
+        this.redisCacheManager = builder.redisCacheManager;
+        this.publisher = builder.publisher;
+        this.defaultLocalSettings = builder.defaultLocalSettings;
+        this.localSettings = Map.copyOf(builder.localSettings);
+        this.tagIndex = builder.tagIndex;
+        this.taggers = Map.copyOf(builder.taggers);
+        this.recomputeLock = builder.recomputeLock;
+        this.earlyRecomputeSettings = Map.copyOf(builder.earlyRecomputeSettings);
+        this.bulkOperations = builder.bulkOperations;
+        this.hotKeySettings = builder.hotKeySettings;
+    }
+
+    public static Builder builder(RedisCacheManager redisCacheManager, RedisPublisher publisher) {
+        return new Builder(redisCacheManager, publisher);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        redisCacheManager.initializeCaches();
+        return redisCacheManager.getCacheNames().stream()
+                .map(redisCacheManager::getCache)
+                .map(this::decorate)
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        var cache = redisCacheManager.getCache(name);
+        return cache != null ? decorate(cache) : null;
+    }
+
+    /**
+     * Evicts the entries of the cache tagged with any of the tags, on every node.
+     *
+     * @return the number of entries evicted
+     */
+    public int evictTagged(String cacheName, Collection<String> tags) {
+        if (getCache(cacheName) instanceof TwoLevelCache cache) {
+            return cache.evictTagged(tags);
+        }
+        return 0;
+    }
+
+    /**
+     * Applies an invalidation received from the pub/sub channel. Messages this node sent are ignored,
+     * it has already dropped its own entries.
+     */
+    public void onInvalidation(String message) {
+        var invalidation = CacheInvalidationMessage.decode(message);
+        if (nodeId.equals(invalidation.nodeId())) {
+            return;
+        }
+        if (lookupCache(invalidation.cacheName()) instanceof TwoLevelCache cache) {
+            cache.invalidateLocal(invalidation.key());
+        }
+    }
+
+    private Cache decorate(Cache cache) {
+        var name = cache.getName();
+        var earlyRecompute = earlyRecomputeSettings.get(name);
+        var options = new TwoLevelCache.Options(
+                localSettings.getOrDefault(name, defaultLocalSettings),
+                tagIndex, taggers.get(name),
+                earlyRecompute, earlyRecompute != null ? recomputeLock : null,
+                bulkOperations, hotKeySettings);
+        return new TwoLevelCache((RedisCache) cache, nodeId, this::publish, options);
+    }
+
+    private void publish(CacheInvalidationMessage invalidation) {
+        try {
+            publisher.publish(INVALIDATION_CHANNEL, invalidation.encode());
+        } catch (RuntimeException ex) {
+            // the L1 TTL bounds how long other nodes keep the stale entry
+            log.warn("Can't broadcast invalidation of cache {} key {}: {}",
+                    invalidation.cacheName(), invalidation.key(), ex.getMessage());
+        }
+    }
+
+    public static class Builder {
+
+        private final RedisCacheManager redisCacheManager;
+        private final RedisPublisher publisher;
+        private LocalCacheSettings defaultLocalSettings;
+        private final Map<String, LocalCacheSettings> localSettings = new HashMap<>();
+        private CacheTagIndex tagIndex;
+        private final Map<String, CacheTagger> taggers = new HashMap<>();
+        private RecomputeLock recomputeLock;
+        private final Map<String, EarlyRecomputeSettings> earlyRecomputeSettings = new HashMap<>();
+        private RedisBulkOperations bulkOperations;
+        private HotKeySettings hotKeySettings;
+
+        private Builder(RedisCacheManager redisCacheManager, RedisPublisher publisher) {
+            this.redisCacheManager = redisCacheManager;
+            this.publisher = publisher;
+        }
+
+        /**
+         * L1 bounds of caches without their own {@link #localSettings(String, LocalCacheSettings)}.
+         */
+        public Builder defaultLocalSettings(LocalCacheSettings settings) {
+            this.defaultLocalSettings = settings;
+            return this;
+        }
+
+        public Builder localSettings(String cacheName, LocalCacheSettings settings) {
+            localSettings.put(cacheName, settings);
+            return this;
+        }
+
+        public Builder tagIndex(CacheTagIndex tagIndex) {
+            this.tagIndex = tagIndex;
+            return this;
+        }
+
+        public Builder tagger(String cacheName, CacheTagger tagger) {
+            taggers.put(cacheName, tagger);
+            return this;
+        }
+
+        public Builder recomputeLock(RecomputeLock recomputeLock) {
+            this.recomputeLock = recomputeLock;
+            return this;
+        }
+
+        public Builder earlyRecompute(String cacheName, EarlyRecomputeSettings settings) {
+            earlyRecomputeSettings.put(cacheName, settings);
+            return this;
+        }
+
+        /**
+         * Enables single round trip {@link TwoLevelCache#putAll} on every cache.
+         */
+        public Builder bulkOperations(RedisBulkOperations bulkOperations) {
+            this.bulkOperations = bulkOperations;
+            return this;
+        }
+
+        /**
+         * Tracks the hottest keys of every cache.
+         */
+        public Builder hotKeys(HotKeySettings hotKeySettings) {
+            this.hotKeySettings = hotKeySettings;
+            return this;
+        }
+
+        public TwoLevelCacheManager build() {
+            if (defaultLocalSettings == null) {
+                throw new IllegalStateException("defaultLocalSettings is required");
+            }
+            if (!taggers.isEmpty() && tagIndex == null) {
+                throw new IllegalStateException("Tagged caches " + taggers.keySet() + " need a tagIndex");
+            }
+            if (!earlyRecomputeSettings.isEmpty() && recomputeLock == null) {
+                throw new IllegalStateException("Caches with early recomputation " + earlyRecomputeSettings.keySet() + " need a recomputeLock");
+            }
+            return new TwoLevelCacheManager(this);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.caching.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Binds the standard {@code cache.*} meters for {@link TwoLevelCache}s, plus per-level
+ * {@code cache.level.gets} counters and a {@code cache.level.hit.ratio} gauge tagged
+ * {@code level=l1|l2}. L2 only sees the lookups L1 missed. The standard counters include bulk
+ * operations, and {@code cache.access} times every operation, tagged {@code operation}. Stampede
+ * protection is reported as {@code cache.recomputes.early} and {@code cache.gets.stale}.
+ */
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        return new TwoLevelCacheMetrics(cache, tags);
+    }
+
+    static class TwoLevelCacheMetrics extends CacheMeterBinder<TwoLevelCache> {
+
+        private final TwoLevelCache cache;
+
+        TwoLevelCacheMetrics(TwoLevelCache cache, Iterable<Tag> tags) {
+            super(cache, cache.getName(), tags);
+            this.cache = cache;
+        }
+
+        @Override
+        protected Long size() {
+            return null;
+        }
+
+        @Override
+        protected long hitCount() {
+            return cache.accessStatistics().hitCount();
+        }
+
+        @Override
+        protected Long missCount() {
+            return cache.accessStatistics().missCount();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return cache.accessStatistics().evictionCount();
+        }
+
+        @Override
+        protected long putCount() {
+            return cache.accessStatistics().putCount();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            levelGets(registry, "l1", "hit", c -> c.localStatistics().hitCount());
+            levelGets(registry, "l1", "miss", c -> c.localStatistics().missCount());
+            levelGets(registry, "l2", "hit", c -> c.remoteStatistics().getHits());
+            levelGets(registry, "l2", "miss", c -> c.remoteStatistics().getMisses());
+
+            hitRatio(registry, "l1", c -> c.localStatistics().hitRate());
+            hitRatio(registry, "l2", c -> {
+                var stats = c.remoteStatistics();
+                var gets = stats.getHits() + stats.getMisses();
+                return gets == 0 ? 1.0 : (double) stats.getHits() / gets;
+            });
+
+            Gauge.builder("cache.l1.size", cache, TwoLevelCache::localSize)
+                    .tags(getTagsWithCacheName())
+                    .description("The number of entries in the in-process L1")
+                    .register(registry);
+
+            for (var operation : CacheAccessStats.Operation.values()) {
+                FunctionTimer.builder("cache.access", cache.accessStatistics(),
+                                stats -> stats.count(operation), stats -> stats.totalTime(operation, TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                        .tags(getTagsWithCacheName())
+                        .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                        .description("Time spent in cache operations, both levels included")
+                        .register(registry);
+            }
+
+            FunctionCounter.builder("cache.recomputes.early", cache, TwoLevelCache::earlyRecomputeCount)
+                    .tags(getTagsWithCacheName())
+                    .description("Reads that recomputed an entry ahead of or at its logical expiry")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets.stale", cache, TwoLevelCache::staleHitCount)
+                    .tags(getTagsWithCacheName())
+                    .description("Reads served an expired entry while another reader recomputed it")
+                    .register(registry);
+        }
+
+        private void levelGets(MeterRegistry registry, String level, String result,
+                               ToDoubleFunction<TwoLevelCache> count) {
+            FunctionCounter.builder("cache.level.gets", cache, count)
+                    .tags(getTagsWithCacheName())
+                    .tag("level", level)
+                    .tag("result", result)
+                    .description("Lookups answered (hit) or passed on (miss) by each cache level")
+                    .register(registry);
+        }
+
+        private void hitRatio(MeterRegistry registry, String level,
+                              ToDoubleFunction<TwoLevelCache> ratio) {
+            Gauge.builder("cache.level.hit.ratio", cache, ratio)
+                    .tags(getTagsWithCacheName())
+                    .tag("level", level)
+                    .description("Fraction of the lookups reaching this level that it answered")
+                    .register(registry);
+        }
+    }
+}
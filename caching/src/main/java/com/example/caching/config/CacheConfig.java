@@ -1,16 +1,33 @@
 package com.example.caching.config;
 
+import com.example.caching.cache.CacheReadErrorHandler;
+import com.example.caching.cache.CacheTagIndex;
+import com.example.caching.cache.EarlyRecomputeSettings;
+import com.example.caching.cache.HotKeySettings;
+import com.example.caching.cache.LocalCacheSettings;
+import com.example.caching.cache.RecomputeLock;
+import com.example.caching.cache.RedisBulkOperations;
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.cache.TwoLevelCacheMeterBinderProvider;
+import com.example.caching.sender.RedisPublisher;
+import com.example.caching.serializer.CompactRedisSerializer;
+import com.example.caching.service.ProductCacheTags;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -18,29 +35,97 @@ import java.util.Map;
 
 @Configuration
 @EnableCaching
-public class CacheConfig {
+public class CacheConfig implements CachingConfigurer {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        var mapper = JsonMapper.builder().addModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory, RedisPublisher redisPublisher,
+                                             StringRedisTemplate stringRedisTemplate, RedisSerializer<Object> cacheValueSerializer,
+                                             HotKeySettings hotKeySettings) {
 
         var defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer(mapper)))
+                        .fromSerializer(cacheValueSerializer))
                 .disableCachingNullValues();
 
+        // Redis keeps entries a while past their logical TTL, so they can be served stale while one node recomputes them
+        var productTtl = Duration.ofHours(1);
+        var productListTtl = Duration.ofMinutes(15);
         var cacheConfigs = Map.of(
-                "product", defaultConfig.entryTtl(Duration.ofHours(1)),
-                "product_list", defaultConfig.entryTtl(Duration.ofMinutes(15))
+                "product", defaultConfig.entryTtl(productTtl.plusMinutes(5)),
+                "product_list", defaultConfig.entryTtl(productListTtl.plusMinutes(1))
         );
 
-        return RedisCacheManager.builder(connectionFactory)
+        var redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
                 .enableStatistics()
                 .build();
+
+        return TwoLevelCacheManager.builder(redisCacheManager, redisPublisher)
+                // L1 TTLs stay short: they bound staleness on a node that missed an invalidation message
+                .defaultLocalSettings(new LocalCacheSettings(Duration.ofMinutes(1), 1_000))
+                .localSettings("product", new LocalCacheSettings(Duration.ofMinutes(1), 10_000))
+                .localSettings("product_list", new LocalCacheSettings(Duration.ofSeconds(30), 1_000))
+                // product_list entries are evicted by tag on save instead of clearing the whole cache
+                .tagIndex(new CacheTagIndex(stringRedisTemplate))
+                .tagger("product_list", ProductCacheTags::ofList)
+                .recomputeLock(new RecomputeLock(stringRedisTemplate))
+                .earlyRecompute("product", new EarlyRecomputeSettings(productTtl, 1.0, Duration.ofSeconds(5)))
+                .earlyRecompute("product_list", new EarlyRecomputeSettings(productListTtl, 1.0, Duration.ofSeconds(5)))
+                .bulkOperations(new RedisBulkOperations(stringRedisTemplate))
+                .hotKeys(hotKeySettings)
+                .build();
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new CacheReadErrorHandler();
+    }
+
+    /**
+     * Size of the hot key sketch of every cache: {@code width * depth} counters plus {@code top} keys.
+     */
+    @Bean
+    public HotKeySettings hotKeySettings(@Value("${caching.cache.hot-keys.width:2048}") int width,
+                                         @Value("${caching.cache.hot-keys.depth:4}") int depth,
+                                         @Value("${caching.cache.hot-keys.top:20}") int top) {
+        return new HotKeySettings(width, depth, top);
+    }
+
+    /**
+     * Value format of the Redis caches: {@code compact} (binary, see {@link CompactRedisSerializer})
+     * or {@code json}. Compact reads values written as JSON. Values neither can read, like the JSON
+     * without type hints cached before either format, are misses that get overwritten (see
+     * {@link CacheReadErrorHandler} and {@link com.example.caching.cache.TwoLevelCache#getAll}), so
+     * switching needs no cache flush.
+     */
+    @Bean
+    public RedisSerializer<Object> cacheValueSerializer(@Value("${caching.cache.serializer:compact}") String format,
+                                                        @Value("${caching.cache.compression-threshold:512}") int compressionThreshold) {
+        var json = jsonSerializer();
+        return switch (format) {
+            case "compact" -> new CompactRedisSerializer(json, compressionThreshold);
+            case "json" -> json;
+            default -> throw new IllegalArgumentException("Unknown caching.cache.serializer: " + format);
+        };
+    }
+
+    /**
+     * JSON with a type hint in every value, without which cached values would be read back as maps.
+     */
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        var mapper = JsonMapper.builder().addModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        return GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(mapper)
+                .defaultTyping(true)
+                .build();
+    }
+
+    @Bean
+    public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+        return new TwoLevelCacheMeterBinderProvider();
     }
 }
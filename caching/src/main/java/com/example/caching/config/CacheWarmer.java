@@ -1,29 +1,169 @@
 package com.example.caching.config;
 
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.entity.Product;
 import com.example.caching.repository.ProductRepository;
-import com.example.caching.service.ProductService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads every product into the product cache in the background after startup.
+ * <p>
+ * The table is streamed in keyset pages, each written to Redis in one pipelined round trip on a
+ * virtual thread, at most {@code parallelism} pages in flight, while the next page is read.
+ * {@link CacheWarmupHealthIndicator} keeps the instance out of the readiness group until
+ * {@code readiness-coverage} of the products are cached.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class CacheWarmer implements ApplicationRunner {
+public class CacheWarmer implements ApplicationRunner, MeterBinder {
 
     private final ProductRepository productRepository;
-    private final ProductService productService;
+    private final TwoLevelCacheManager cacheManager;
+
+    @Value("${caching.warmup.page-size:500}")
+    private int pageSize;
+
+    @Value("${caching.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${caching.warmup.readiness-coverage:0.8}")
+    private double readinessCoverage;
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong warmed = new AtomicLong();
+    private volatile State state = State.PENDING;
+    private volatile long startNanos;
+    private volatile long endNanos;
 
     @Override
     public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("cache-warmer").start(this::warmUp);
+    }
+
+    void warmUp() {
         log.info("Warming product cache...");
+        startNanos = System.nanoTime();
+        state = State.RUNNING;
         try {
-            productRepository.findAll().forEach(product -> productService.findById(product.getProductId()));
-            log.info("Cache warming completed");
+            total.set(productRepository.count());
+            var cache = (TwoLevelCache) cacheManager.getCache("product");
+            var failedPages = new AtomicLong();
+            var inFlight = new Semaphore(parallelism);
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                var lastId = 0L;
+                List<Product> page;
+                do {
+                    page = productRepository.findByProductIdGreaterThanOrderByProductIdAsc(lastId, Limit.of(pageSize));
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    lastId = page.getLast().getProductId();
+                    inFlight.acquire();
+                    if (failedPages.get() > 0) {
+                        break;
+                    }
+                    var batch = page;
+                    executor.execute(() -> {
+                        try {
+                            write(cache, batch);
+                        } catch (Exception ex) {
+                            failedPages.incrementAndGet();
+                            log.warn("Can't warm products {}..{}: {}", batch.getFirst().getProductId(),
+                                    batch.getLast().getProductId(), ex.getMessage());
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } while (page.size() == pageSize);
+            }
+            if (failedPages.get() > 0) {
+                finish(State.FAILED);
+                log.warn("Cache warming stopped after {} products - the rest will be cached lazily on first request", warmed.get());
+                return;
+            }
+            finish(State.COMPLETED);
+            log.info("Cache warming completed: {} products in {} ms", warmed.get(), elapsedMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            finish(State.FAILED);
         } catch (Exception ex) {
+            finish(State.FAILED);
             log.warn("Cache warming failed - cache will be populated lazily on first request: {}", ex.getMessage());
         }
     }
+
+    private void write(TwoLevelCache cache, List<Product> page) {
+        var entries = new LinkedHashMap<Object, Object>();
+        page.forEach(product -> entries.put(product.getProductId(), product));
+        cache.putAll(entries);
+        warmed.addAndGet(page.size());
+    }
+
+    private void finish(State finalState) {
+        endNanos = System.nanoTime();
+        state = finalState;
+    }
+
+    /**
+     * Whether the instance may take traffic: warm-up reached the readiness coverage, or ended,
+     * successfully or not, since a failed warm-up only means a colder cache.
+     */
+    public boolean isReady() {
+        return state == State.COMPLETED || state == State.FAILED || progress().coverage() >= readinessCoverage;
+    }
+
+    public Progress progress() {
+        var warmedCount = warmed.get();
+        var totalCount = total.get();
+        var coverage = totalCount == 0 ? (state == State.PENDING ? 0.0 : 1.0) : Math.min(1.0, (double) warmedCount / totalCount);
+        var seconds = elapsedMillis() / 1000.0;
+        return new Progress(state, warmedCount, totalCount, coverage, seconds > 0 ? warmedCount / seconds : 0.0);
+    }
+
+    private long elapsedMillis() {
+        if (state == State.PENDING) {
+            return 0;
+        }
+        var end = state == State.RUNNING ? System.nanoTime() : endNanos;
+        return (end - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.warmup.entries", warmed, AtomicLong::get)
+                .description("Products written to the cache by the warm-up")
+                .register(registry);
+        Gauge.builder("cache.warmup.coverage", this, warmer -> warmer.progress().coverage())
+                .description("Fraction of the products table written to the cache by the warm-up")
+                .register(registry);
+        Gauge.builder("cache.warmup.throughput", this, warmer -> warmer.progress().entriesPerSecond())
+                .description("Products cached per second over the warm-up")
+                .baseUnit("entries/s")
+                .register(registry);
+    }
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    public record Progress(State state, long warmed, long total, double coverage, double entriesPerSecond) {
+    }
 }
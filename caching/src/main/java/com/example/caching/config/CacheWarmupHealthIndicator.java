@@ -0,0 +1,30 @@
+package com.example.caching.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code cacheWarmup} health: out of service until {@link CacheWarmer} reaches its readiness
+ * coverage. Part of the readiness group, so load balancers only route to warmed instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmer cacheWarmer;
+
+    @Override
+    public Health health() {
+        var progress = cacheWarmer.progress();
+        var health = cacheWarmer.isReady() ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("state", progress.state())
+                .withDetail("warmed", progress.warmed())
+                .withDetail("total", progress.total())
+                .withDetail("coverage", progress.coverage())
+                .withDetail("entriesPerSecond", progress.entriesPerSecond())
+                .build();
+    }
+}
@@ -1,20 +1,37 @@
 package com.example.caching.config;
 
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.enums.MessageTransport;
 import com.example.caching.listener.RedisSubscriber;
+import com.example.caching.service.ProductIdFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RedisConfig {
 
     @Bean
-    RedisMessageListenerContainer container(RedisConnectionFactory connectionFactory, RedisSubscriber subscriber) {
+    RedisMessageListenerContainer container(RedisConnectionFactory connectionFactory, RedisSubscriber subscriber,
+                                            @Value("${caching.messaging.transport:pubsub}") MessageTransport transport) {
         var container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.addMessageListener(subscriber, new ChannelTopic("my-channel"));
+        // the subscriber only updates in-memory state or hands off to the dispatcher, no need for a thread per message
+        container.setTaskExecutor(new SyncTaskExecutor());
+        var topics = new ArrayList<>(List.of(
+                new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL),
+                new ChannelTopic(ProductIdFilter.CHANNEL)));
+        if (transport == MessageTransport.PUBSUB) {
+            topics.add(new ChannelTopic(RedisSubscriber.CHANNEL));
+        }
+        container.addMessageListener(subscriber, topics);
         return container;
     }
 }
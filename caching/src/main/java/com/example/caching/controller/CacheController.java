@@ -1,5 +1,8 @@
 package com.example.caching.controller;
 
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.dto.CacheStatsResponse;
+import com.example.caching.mapper.CacheStatsMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -18,6 +21,7 @@ import java.util.Collection;
 public class CacheController {
 
     private final CacheManager cacheManager;
+    private final CacheStatsMapper cacheStatsMapper;
 
     @Operation(summary = "Get all cache names", description = "Retrieve the names of all available caches")
     @ApiResponse(responseCode = "200", description = "List of cache names")
@@ -26,6 +30,19 @@ public class CacheController {
         return cacheManager.getCacheNames();
     }
 
+    @Operation(summary = "Get cache statistics", description = "Hits, misses, puts, evictions, mean latency per operation and the hottest keys of a cache")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Cache statistics"),
+            @ApiResponse(responseCode = "404", description = "Cache not found")
+    })
+    @GetMapping("/{cacheName}/stats")
+    public ResponseEntity<CacheStatsResponse> getStats(@PathVariable String cacheName) {
+        if (cacheManager.getCache(cacheName) instanceof TwoLevelCache cache) {
+            return ResponseEntity.ok(cacheStatsMapper.toResponse(cache));
+        }
+        return ResponseEntity.notFound().build();
+    }
+
     @Operation(summary = "Clear entire cache", description = "Clear all entries from a specific cache")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Cache cleared successfully"),
@@ -0,0 +1,44 @@
+package com.example.caching.controller;
+
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.dto.CacheStatsResponse;
+import com.example.caching.mapper.CacheStatsMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/cachestats}: per-cache access statistics and hottest keys, the actuator
+ * counterpart of {@code GET /api/cache/{cacheName}/stats}.
+ */
+@Component
+@Endpoint(id = "cachestats")
+@RequiredArgsConstructor
+public class CacheStatsEndpoint {
+
+    private final CacheManager cacheManager;
+    private final CacheStatsMapper cacheStatsMapper;
+
+    @ReadOperation
+    public Map<String, CacheStatsResponse> caches() {
+        var result = new TreeMap<String, CacheStatsResponse>();
+        cacheManager.getCacheNames().forEach(name -> {
+            var response = cache(name);
+            if (response != null) {
+                result.put(name, response);
+            }
+        });
+        return result;
+    }
+
+    @ReadOperation
+    public CacheStatsResponse cache(@Selector String cacheName) {
+        return cacheManager.getCache(cacheName) instanceof TwoLevelCache cache ? cacheStatsMapper.toResponse(cache) : null;
+    }
+}
@@ -14,7 +14,7 @@ public class MessageController {
 
     @PostMapping("/publish")
     public ResponseEntity<String> publish(@RequestParam(defaultValue = "my-channel") String channel, @RequestBody String message) {
-        redisPublisher.publish(channel, message);
+        redisPublisher.send(channel, message);
         return ResponseEntity.ok("Message published to " + channel);
     }
 }
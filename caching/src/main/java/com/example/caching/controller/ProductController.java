@@ -8,10 +8,14 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -41,6 +45,20 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Get products by IDs", description = "Retrieve up to 100 products in one call, in the order of the IDs; unknown IDs are skipped. "
+            + "Cached products are read with a single Redis MGET, the others with a single database query.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products found"),
+            @ApiResponse(responseCode = "400", description = "No IDs or more than 100")
+    })
+    @GetMapping(params = "ids")
+    public List<ProductResponse> getByIds(@RequestParam @NotEmpty(message = "ids parameter is required")
+                                          @Size(max = 100, message = "At most 100 ids per request") List<Long> ids) {
+        return productService.findAllById(ids).stream()
+                .map(productMapper::toResponse)
+                .toList();
+    }
+
     @Operation(summary = "Search products by name", description = "Search products by name, sorted by updated date descending. Results are cached.")
     @ApiResponse(responseCode = "200", description = "List of products matching the name")
     @GetMapping("/search")
@@ -69,10 +87,20 @@ public class ProductController {
     public ResponseEntity<ProductResponse> update(@PathVariable Long id, @Valid @RequestBody ProductRequest request) {
         return productService.findById(id)
                 .map(existingProduct -> {
-                    productMapper.updateEntity(existingProduct, request);
-                    var updatedProduct = productService.save(existingProduct);
+                    // the cached instance is shared with the in-process cache, update a copy
+                    var product = existingProduct.toBuilder().build();
+                    productMapper.updateEntity(product, request);
+                    var updatedProduct = productService.save(product);
                     return ResponseEntity.ok(productMapper.toResponse(updatedProduct));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Constraint violations on request parameters ({@code ids}, {@code name}) are client errors.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ProblemDetail handleConstraintViolation(ConstraintViolationException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.caching.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsResponse {
+
+    private String cacheName;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long puts;
+    private long evictions;
+    private long l1Size;
+    private double l1HitRatio;
+    private Map<String, Latency> latency;
+    private List<HotKey> hotKeys;
+
+    public record Latency(long count, double meanMicros) {
+    }
+
+    public record HotKey(String key, long estimatedAccesses) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.caching.enums;
+
+/**
+ * How application messages travel between nodes: fire-and-forget pub/sub, or a Redis Stream read
+ * by a consumer group, which keeps messages until a node acknowledges them.
+ */
+public enum MessageTransport {
+    PUBSUB,
+    STREAM
+}
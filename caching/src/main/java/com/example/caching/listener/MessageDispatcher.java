@@ -0,0 +1,161 @@
+package com.example.caching.listener;
+
+import com.example.caching.enums.MessageTransport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs message handlers on virtual threads, at most {@code concurrency} at a time, with up to
+ * {@code queue-capacity} more waiting for a slot. A waiting message is a parked virtual thread.
+ * <p>
+ * {@link #offer} never blocks and drops the message when the queue is full. Use it on threads
+ * that must not stall, like the pub/sub connection. {@link #dispatch} blocks until there is room,
+ * which pushes back on a stream poller that can read again later.
+ */
+@Slf4j
+@Component
+public class MessageDispatcher implements MeterBinder, DisposableBean {
+
+    private final int capacity;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("message-", 0).factory());
+    private final Map<MessageTransport, Stats> stats = new EnumMap<>(MessageTransport.class);
+
+    public MessageDispatcher(@Value("${caching.messaging.concurrency:64}") int concurrency,
+                             @Value("${caching.messaging.queue-capacity:10000}") int queueCapacity) {
+        this.capacity = concurrency + queueCapacity;
+        this.admitted = new Semaphore(capacity);
+        this.running = new Semaphore(concurrency);
+        for (var transport : MessageTransport.values()) {
+            stats.put(transport, new Stats());
+        }
+    }
+
+    /**
+     * Queues the handler, waiting while the queue is full. The future completes when the handler
+     * returns, exceptionally if it throws.
+     */
+    public CompletableFuture<Void> dispatch(MessageTransport transport, Runnable handler) {
+        try {
+            admitted.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return submit(transport, handler);
+    }
+
+    /**
+     * Queues the handler if there is room, otherwise drops the message and returns {@code false}.
+     */
+    public boolean offer(MessageTransport transport, Runnable handler) {
+        if (!admitted.tryAcquire()) {
+            stats.get(transport).rejected.increment();
+            log.warn("Can't handle {} message: queue is full, message dropped", transport);
+            return false;
+        }
+        submit(transport, handler);
+        return true;
+    }
+
+    private CompletableFuture<Void> submit(MessageTransport transport, Runnable handler) {
+        var transportStats = stats.get(transport);
+        transportStats.received.increment();
+        try {
+            return CompletableFuture.runAsync(() -> handle(transportStats, transport, handler), executor);
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            transportStats.failed.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void handle(Stats transportStats, MessageTransport transport, Runnable handler) {
+        try {
+            running.acquireUninterruptibly();
+            var start = System.nanoTime();
+            try {
+                handler.run();
+                transportStats.processed.increment();
+            } catch (RuntimeException e) {
+                transportStats.failed.increment();
+                log.warn("Can't handle {} message: {}", transport, e.getMessage());
+                throw e;
+            } finally {
+                transportStats.handlingNanos.add(System.nanoTime() - start);
+                running.release();
+            }
+        } finally {
+            admitted.release();
+        }
+    }
+
+    /**
+     * Messages accepted and not yet handled, running or waiting.
+     */
+    public int inFlight() {
+        return capacity - admitted.availablePermits();
+    }
+
+    /**
+     * Stops accepting messages and waits for the accepted ones to be handled.
+     */
+    @Override
+    public void destroy() {
+        executor.close();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        stats.forEach((transport, transportStats) -> {
+            var tag = transport.name().toLowerCase(Locale.ROOT);
+            FunctionCounter.builder("messaging.messages.received", transportStats.received, LongAdder::sum)
+                    .tag("transport", tag)
+                    .description("Messages accepted for handling")
+                    .register(registry);
+            FunctionCounter.builder("messaging.messages.rejected", transportStats.rejected, LongAdder::sum)
+                    .tag("transport", tag)
+                    .description("Messages dropped because the handler queue was full")
+                    .register(registry);
+            FunctionCounter.builder("messaging.messages.failed", transportStats.failed, LongAdder::sum)
+                    .tag("transport", tag)
+                    .description("Messages whose handler threw")
+                    .register(registry);
+            FunctionTimer.builder("messaging.handling", transportStats,
+                            s -> s.processed.sum(), s -> s.handlingNanos.sum(), TimeUnit.NANOSECONDS)
+                    .tag("transport", tag)
+                    .description("Time spent in message handlers that completed; the count rate is the throughput")
+                    .register(registry);
+        });
+        Gauge.builder("messaging.in.flight", this, MessageDispatcher::inFlight)
+                .description("Messages accepted and not yet handled, running or queued")
+                .register(registry);
+    }
+
+    private static final class Stats {
+        private final LongAdder received = new LongAdder();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder handlingNanos = new LongAdder();
+    }
+}
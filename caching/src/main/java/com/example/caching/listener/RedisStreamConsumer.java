@@ -0,0 +1,248 @@
+package com.example.caching.listener;
+
+import com.example.caching.enums.MessageTransport;
+import com.example.caching.sender.RedisPublisher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads {@link RedisSubscriber#CHANNEL} messages from its Redis Stream as one member of a consumer
+ * group, when {@code caching.messaging.transport} is {@code stream}.
+ * <p>
+ * Each {@code XREADGROUP} takes up to {@code batch-size} entries, which are handled concurrently by
+ * the {@link MessageDispatcher}; the ones handled successfully are acknowledged in one {@code XACK}.
+ * The others stay pending. Every {@code reclaim-interval} entries pending for longer than
+ * {@code reclaim-idle}, on this node or on one that died, are claimed and handled again; after
+ * {@code max-deliveries} attempts an entry is logged and acknowledged so it can't block the group.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "caching.messaging.transport", havingValue = "stream")
+public class RedisStreamConsumer implements SmartLifecycle, MeterBinder {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisSubscriber subscriber;
+    private final MessageDispatcher dispatcher;
+
+    @Value("${caching.messaging.stream.group:caching}")
+    private String group;
+
+    @Value("${caching.messaging.stream.batch-size:100}")
+    private int batchSize;
+
+    @Value("${caching.messaging.stream.block:2s}")
+    private Duration block;
+
+    @Value("${caching.messaging.stream.reclaim-idle:30s}")
+    private Duration reclaimIdle;
+
+    @Value("${caching.messaging.stream.reclaim-interval:10s}")
+    private Duration reclaimInterval;
+
+    @Value("${caching.messaging.stream.max-deliveries:5}")
+    private long maxDeliveries;
+
+    private final String key = RedisPublisher.streamKey(RedisSubscriber.CHANNEL);
+    private final String consumerName = "consumer-" + UUID.randomUUID();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder reclaimed = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private volatile boolean running;
+    private volatile Thread poller;
+    private long lastReclaimNanos;
+
+    @Override
+    public void start() {
+        createGroup();
+        running = true;
+        poller = Thread.ofVirtual().name("stream-consumer").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        var thread = poller;
+        if (thread == null) {
+            return;
+        }
+        try {
+            // the poller notices within one blocking read
+            thread.join(block.plusSeconds(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void createGroup() {
+        try {
+            redisTemplate.opsForStream().createGroup(key, ReadOffset.from("0"), group);
+        } catch (DataAccessException e) {
+            // BUSYGROUP: another node, or an earlier run, created it
+            log.debug("Consumer group {} on {} not created: {}", group, key, e.getMessage());
+        }
+    }
+
+    private void run() {
+        reclaim();
+        while (running) {
+            try {
+                poll();
+                if (System.nanoTime() - lastReclaimNanos >= reclaimInterval.toNanos()) {
+                    reclaim();
+                }
+            } catch (DataAccessException e) {
+                log.warn("Can't read stream {}: {}", key, e.getMessage());
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Reads and handles one batch of new entries, returns the number acknowledged.
+     */
+    @SuppressWarnings("unchecked")
+    int poll() {
+        var records = redisTemplate.opsForStream().read(Consumer.from(group, consumerName),
+                StreamReadOptions.empty().count(batchSize).block(block),
+                StreamOffset.create(key, ReadOffset.lastConsumed()));
+        if (records == null || records.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        var oldest = records.getFirst().getId().getTimestamp();
+        lagMillis.set(oldest != null ? Math.max(0, System.currentTimeMillis() - oldest) : 0);
+        return handle(records);
+    }
+
+    /**
+     * Claims entries pending longer than {@code reclaim-idle} and handles them again, acknowledging
+     * without handling the ones already delivered {@code max-deliveries} times. Returns the number
+     * acknowledged.
+     */
+    int reclaim() {
+        lastReclaimNanos = System.nanoTime();
+        try {
+            var ops = redisTemplate.opsForStream();
+            var summary = ops.pending(key, group);
+            pending.set(summary.getTotalPendingMessages());
+            if (summary.getTotalPendingMessages() == 0) {
+                return 0;
+            }
+            var retry = new ArrayList<RecordId>();
+            var abandon = new ArrayList<RecordId>();
+            for (PendingMessage message : ops.pending(key, group, Range.unbounded(), batchSize)) {
+                if (message.getElapsedTimeSinceLastDelivery().compareTo(reclaimIdle) < 0) {
+                    continue;
+                }
+                (message.getTotalDeliveryCount() >= maxDeliveries ? abandon : retry).add(message.getId());
+            }
+            if (!abandon.isEmpty()) {
+                log.warn("Can't handle {} entries of {} after {} deliveries, dropping: {}", abandon.size(), key, maxDeliveries, abandon);
+                ops.acknowledge(key, group, abandon.toArray(RecordId[]::new));
+                abandoned.add(abandon.size());
+            }
+            if (retry.isEmpty()) {
+                return 0;
+            }
+            // min idle time again, so entries another node claimed meanwhile are skipped
+            var records = ops.claim(key, group, consumerName, reclaimIdle, retry.toArray(RecordId[]::new));
+            reclaimed.add(records.size());
+            return handle(records);
+        } catch (DataAccessException e) {
+            log.warn("Can't reclaim pending entries of {}: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+    private int handle(List<MapRecord<String, Object, Object>> records) {
+        var results = new LinkedHashMap<RecordId, CompletableFuture<Void>>();
+        for (var record : records) {
+            var payload = String.valueOf(record.getValue().get(RedisPublisher.PAYLOAD_FIELD));
+            results.put(record.getId(), dispatcher.dispatch(MessageTransport.STREAM, () -> subscriber.handle(RedisSubscriber.CHANNEL, payload)));
+        }
+        var handled = results.entrySet().stream()
+                .filter(result -> succeeded(result.getValue()))
+                .map(Map.Entry::getKey)
+                .toArray(RecordId[]::new);
+        if (handled.length > 0) {
+            redisTemplate.opsForStream().acknowledge(key, group, handled);
+            acknowledged.add(handled.length);
+        }
+        return handled.length;
+    }
+
+    private static boolean succeeded(CompletableFuture<Void> result) {
+        try {
+            result.join();
+            return true;
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("messaging.stream.acknowledged", acknowledged, LongAdder::sum)
+                .description("Stream entries handled and acknowledged by this node")
+                .register(registry);
+        FunctionCounter.builder("messaging.stream.reclaimed", reclaimed, LongAdder::sum)
+                .description("Pending stream entries claimed from idle consumers")
+                .register(registry);
+        FunctionCounter.builder("messaging.stream.abandoned", abandoned, LongAdder::sum)
+                .description("Stream entries acknowledged unhandled after max-deliveries attempts")
+                .register(registry);
+        Gauge.builder("messaging.stream.pending", pending, AtomicLong::get)
+                .description("Entries delivered to the group and not yet acknowledged, as of the last reclaim")
+                .register(registry);
+        Gauge.builder("messaging.stream.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest entry in the last batch read, 0 when the consumer is caught up")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
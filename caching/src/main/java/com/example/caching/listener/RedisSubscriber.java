@@ -1,5 +1,9 @@
 package com.example.caching.listener;
 
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.enums.MessageTransport;
+import com.example.caching.service.ProductIdFilter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
@@ -7,14 +11,41 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Receives pub/sub messages on the subscription connection's thread. Cache invalidations and saved
+ * product ids only touch in-memory state and are applied there; application messages are handed to the {@link MessageDispatcher}
+ * so a slow handler never holds up the connection.
+ */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class RedisSubscriber implements MessageListener {
 
+    public static final String CHANNEL = "my-channel";
+
+    private final TwoLevelCacheManager cacheManager;
+    private final MessageDispatcher dispatcher;
+    private final ProductIdFilter productIdFilter;
+
     @Override
     public void onMessage(Message message, byte[] pattern) {
         var channel = new String(message.getChannel(), StandardCharsets.UTF_8);
         var msg = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (TwoLevelCacheManager.INVALIDATION_CHANNEL.equals(channel)) {
+            cacheManager.onInvalidation(msg);
+            return;
+        }
+        if (ProductIdFilter.CHANNEL.equals(channel)) {
+            productIdFilter.onAdded(msg);
+            return;
+        }
+        dispatcher.offer(MessageTransport.PUBSUB, () -> handle(channel, msg));
+    }
+
+    /**
+     * Handles an application message, whichever transport delivered it.
+     */
+    public void handle(String channel, String msg) {
         log.info("Received message: {} from channel: {}", msg, channel);
         // Add your business logic here
     }
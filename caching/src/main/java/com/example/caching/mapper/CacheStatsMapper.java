@@ -0,0 +1,39 @@
+package com.example.caching.mapper;
+
+import com.example.caching.cache.CacheAccessStats;
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.dto.CacheStatsResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class CacheStatsMapper {
+
+    public CacheStatsResponse toResponse(TwoLevelCache cache) {
+        var stats = cache.accessStatistics();
+        var gets = stats.hitCount() + stats.missCount();
+        var latency = new LinkedHashMap<String, CacheStatsResponse.Latency>();
+        for (var operation : CacheAccessStats.Operation.values()) {
+            var count = stats.count(operation);
+            var mean = count == 0 ? 0.0 : stats.totalTime(operation, TimeUnit.MICROSECONDS) / count;
+            latency.put(operation.name().toLowerCase(Locale.ROOT), new CacheStatsResponse.Latency(count, mean));
+        }
+        return CacheStatsResponse.builder()
+                .cacheName(cache.getName())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRatio(gets == 0 ? 0.0 : (double) stats.hitCount() / gets)
+                .puts(stats.putCount())
+                .evictions(stats.evictionCount())
+                .l1Size(cache.localSize())
+                .l1HitRatio(cache.localStatistics().hitRate())
+                .latency(latency)
+                .hotKeys(stats.hotKeys().stream()
+                        .map(hotKey -> new CacheStatsResponse.HotKey(hotKey.key(), hotKey.estimate()))
+                        .toList())
+                .build();
+    }
+}
@@ -1,12 +1,26 @@
 package com.example.caching.repository;
 
 import com.example.caching.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByProductName(String productName, Sort sort);
+
+    /**
+     * Keyset page: the next {@code limit} products after {@code productId}, in id order.
+     */
+    List<Product> findByProductIdGreaterThanOrderByProductIdAsc(Long productId, Limit limit);
+
+    /**
+     * Keyset page of ids only: the next {@code limit} product ids after {@code productId}, in order.
+     */
+    @Query("select p.productId from Product p where p.productId > :productId order by p.productId")
+    List<Long> findProductIdsAfter(@Param("productId") Long productId, Limit limit);
 }
@@ -1,15 +1,46 @@
 package com.example.caching.sender;
 
+import com.example.caching.enums.MessageTransport;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 public class RedisPublisher {
+
+    public static final String PAYLOAD_FIELD = "payload";
+
     private final StringRedisTemplate redisTemplate;
 
+    @Value("${caching.messaging.transport:pubsub}")
+    private MessageTransport transport;
+
+    @Value("${caching.messaging.stream.max-length:100000}")
+    private long streamMaxLength;
+
     public void publish(String channel, String message) {
         redisTemplate.convertAndSend(channel, message);
     }
+
+    /**
+     * Sends an application message over the configured transport: published on the channel, or
+     * appended to the channel's stream, which is trimmed to about {@code max-length} entries.
+     */
+    public void send(String channel, String message) {
+        if (transport != MessageTransport.STREAM) {
+            publish(channel, message);
+            return;
+        }
+        redisTemplate.opsForStream().add(streamKey(channel), Map.of(PAYLOAD_FIELD, message),
+                XAddOptions.maxlen(streamMaxLength).approximateTrimming(true));
+    }
+
+    public static String streamKey(String channel) {
+        return "stream:" + channel;
+    }
 }
@@ -0,0 +1,78 @@
+package com.example.caching.serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reader for what {@link BinaryOutput} writes.
+ */
+final class BinaryInput {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    BinaryInput(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    int readByte() {
+        checkAvailable(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    byte[] readBytes(int length) {
+        checkAvailable(length);
+        var bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            var b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed variable-length integer");
+    }
+
+    long readSignedVarLong() {
+        var value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    int readLength() {
+        var length = readVarLong();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalStateException("Length " + length + " exceeds the remaining " + (limit - position) + " bytes");
+        }
+        return (int) length;
+    }
+
+    String readString() {
+        var length = readLength();
+        var value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int remaining() {
+        return limit - position;
+    }
+
+    private void checkAvailable(int length) {
+        if (length > limit - position) {
+            throw new IllegalStateException("Unexpected end of input");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.caching.serializer;
+
+import com.example.caching.cache.CachedValue;
+import com.example.caching.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary cache value serializer for {@link Product} and lists of products, delegating any
+ * other value to a fallback serializer.
+ * <p>
+ * Every value starts with a 4 byte header: magic, format version, flags and value type. Payloads
+ * of at least {@code compressionThreshold} bytes are LZ4-compressed, and prefixed with their
+ * uncompressed length, unless that would not make them smaller. A {@link CachedValue} is stored
+ * as its value, flagged and preceded by the compute time and expiry.
+ * <p>
+ * Format versions: 1 introduced the header, 2 the {@link CachedValue} flag.
+ * <p>
+ * Mixed-version rollouts:
+ * <ul>
+ *     <li>values without the magic byte were written by the fallback (JSON) serializer before
+ *     this one was enabled, and are read by the fallback</li>
+ *     <li>values of a newer format version are read as a cache miss, so an older node reloads
+ *     the value and overwrites it in a format every node can read</li>
+ * </ul>
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte VERSION = 2;
+    static final int HEADER_LENGTH = 4;
+
+    private static final int FLAG_LZ4 = 1;
+    private static final int FLAG_CACHED_VALUE = 1 << 1;
+
+    private static final byte TYPE_FALLBACK = 0;
+    private static final byte TYPE_PRODUCT = 1;
+    private static final byte TYPE_PRODUCT_LIST = 2;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        var out = new BinaryOutput(256);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        if (value instanceof CachedValue cached) {
+            out.writeByte(FLAG_CACHED_VALUE);
+            writeTyped(out, cached.value(), cached);
+        } else {
+            out.writeByte(0);
+            writeTyped(out, value, null);
+        }
+        return out.size() - HEADER_LENGTH >= compressionThreshold ? compress(out) : out.toByteArray();
+    }
+
+    private void writeTyped(BinaryOutput out, Object value, CachedValue cached) {
+        byte type = value instanceof Product ? TYPE_PRODUCT
+                : value instanceof List<?> list && list.stream().allMatch(Product.class::isInstance) ? TYPE_PRODUCT_LIST
+                : TYPE_FALLBACK;
+        out.writeByte(type);
+        if (cached != null) {
+            out.writeVarLong(cached.computeMillis());
+            out.writeVarLong(cached.expiresAtMillis());
+        }
+        switch (type) {
+            case TYPE_PRODUCT -> ProductCodec.write(out, (Product) value);
+            case TYPE_PRODUCT_LIST -> ProductCodec.writeList(out, (List<?>) value);
+            default -> out.writeBytes(fallback.serialize(value));
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Truncated cache value header");
+        }
+        if (bytes[1] > VERSION) {
+            log.debug("Ignoring cache value of format version {}, this node reads up to {}", bytes[1], VERSION);
+            return null;
+        }
+        try {
+            var in = (bytes[2] & FLAG_LZ4) != 0 ? decompress(bytes) : new BinaryInput(bytes, HEADER_LENGTH, bytes.length);
+            if ((bytes[2] & FLAG_CACHED_VALUE) != 0) {
+                var computeMillis = in.readVarLong();
+                var expiresAtMillis = in.readVarLong();
+                return new CachedValue(readTyped(in, bytes[3]), computeMillis, expiresAtMillis);
+            }
+            return readTyped(in, bytes[3]);
+        } catch (SerializationException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw new SerializationException("Cannot deserialize cache value", ex);
+        }
+    }
+
+    private Object readTyped(BinaryInput in, byte type) {
+        return switch (type) {
+            case TYPE_PRODUCT -> ProductCodec.read(in);
+            case TYPE_PRODUCT_LIST -> ProductCodec.readList(in);
+            case TYPE_FALLBACK -> fallback.deserialize(in.readBytes(in.remaining()));
+            default -> throw new SerializationException("Unknown cache value type " + type);
+        };
+    }
+
+    private byte[] compress(BinaryOutput out) {
+        var length = out.size() - HEADER_LENGTH;
+        var compressed = new BinaryOutput(HEADER_LENGTH + 5 + compressor.maxCompressedLength(length));
+        compressed.writeByte(MAGIC);
+        compressed.writeByte(VERSION);
+        compressed.writeByte(out.buffer()[2] | FLAG_LZ4);
+        compressed.writeByte(out.buffer()[3]);
+        compressed.writeVarLong(length);
+        var offset = compressed.size();
+        var compressedLength = compressor.compress(out.buffer(), HEADER_LENGTH, length,
+                compressed.buffer(), offset, compressed.buffer().length - offset);
+        if (offset + compressedLength >= out.size()) {
+            return out.toByteArray();
+        }
+        return Arrays.copyOf(compressed.buffer(), offset + compressedLength);
+    }
+
+    private BinaryInput decompress(byte[] bytes) {
+        var in = new BinaryInput(bytes, HEADER_LENGTH, bytes.length);
+        var length = Math.toIntExact(in.readVarLong());
+        var payload = new byte[length];
+        var written = decompressor.decompress(bytes, in.position(), in.remaining(), payload, 0, length);
+        if (written != length) {
+            throw new SerializationException("Expected " + length + " uncompressed bytes but got " + written);
+        }
+        return new BinaryInput(payload, 0, length);
+    }
+}
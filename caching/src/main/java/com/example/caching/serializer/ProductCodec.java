@@ -0,0 +1,135 @@
+package com.example.caching.serializer;
+
+import com.example.caching.entity.Product;
+import com.example.caching.enums.Category;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Field-by-field binary encoding of {@link Product}.
+ * <p>
+ * A leading bitmask records which fields are present, so null fields take no space. Fields are
+ * written in a fixed order without names or type information: adding, removing or reordering one
+ * needs a new {@link CompactRedisSerializer} format version.
+ */
+final class ProductCodec {
+
+    private static final int ID = 1;
+    private static final int NAME = 1 << 1;
+    private static final int CATEGORY = 1 << 2;
+    private static final int PRICE = 1 << 3;
+    private static final int IN_STOCK = 1 << 4;
+    private static final int DATE_OF_MANUFACTURE = 1 << 5;
+    private static final int UPDATED_AT = 1 << 6;
+    private static final int VENDOR = 1 << 7;
+
+    private ProductCodec() {
+    }
+
+    static void writeList(BinaryOutput out, List<?> products) {
+        out.writeVarLong(products.size());
+        for (var product : products) {
+            write(out, (Product) product);
+        }
+    }
+
+    static List<Product> readList(BinaryInput in) {
+        var size = in.readLength();
+        var products = new ArrayList<Product>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(read(in));
+        }
+        return products;
+    }
+
+    static void write(BinaryOutput out, Product product) {
+        int fields = 0;
+        fields |= product.getProductId() != null ? ID : 0;
+        fields |= product.getProductName() != null ? NAME : 0;
+        fields |= product.getCategory() != null ? CATEGORY : 0;
+        fields |= product.getPrice() != null ? PRICE : 0;
+        fields |= product.getInStock() != null ? IN_STOCK : 0;
+        fields |= product.getDateOfManufacture() != null ? DATE_OF_MANUFACTURE : 0;
+        fields |= product.getUpdatedAt() != null ? UPDATED_AT : 0;
+        fields |= product.getVendor() != null ? VENDOR : 0;
+        out.writeByte(fields);
+
+        if ((fields & ID) != 0) {
+            out.writeSignedVarLong(product.getProductId());
+        }
+        if ((fields & NAME) != 0) {
+            out.writeString(product.getProductName());
+        }
+        if ((fields & CATEGORY) != 0) {
+            out.writeString(product.getCategory().name());
+        }
+        if ((fields & PRICE) != 0) {
+            writeDecimal(out, product.getPrice());
+        }
+        if ((fields & IN_STOCK) != 0) {
+            out.writeSignedVarLong(product.getInStock());
+        }
+        if ((fields & DATE_OF_MANUFACTURE) != 0) {
+            writeDateTime(out, product.getDateOfManufacture());
+        }
+        if ((fields & UPDATED_AT) != 0) {
+            writeDateTime(out, product.getUpdatedAt());
+        }
+        if ((fields & VENDOR) != 0) {
+            out.writeString(product.getVendor());
+        }
+    }
+
+    static Product read(BinaryInput in) {
+        var fields = in.readByte();
+        // every field is set, so that an absent updatedAt stays null rather than taking the builder default
+        var product = new Product();
+        product.setProductId((fields & ID) != 0 ? in.readSignedVarLong() : null);
+        product.setProductName((fields & NAME) != 0 ? in.readString() : null);
+        product.setCategory((fields & CATEGORY) != 0 ? Category.valueOf(in.readString()) : null);
+        product.setPrice((fields & PRICE) != 0 ? readDecimal(in) : null);
+        product.setInStock((fields & IN_STOCK) != 0 ? in.readSignedVarLong() : null);
+        product.setDateOfManufacture((fields & DATE_OF_MANUFACTURE) != 0 ? readDateTime(in) : null);
+        product.setUpdatedAt((fields & UPDATED_AT) != 0 ? readDateTime(in) : null);
+        product.setVendor((fields & VENDOR) != 0 ? in.readString() : null);
+        return product;
+    }
+
+    private static void writeDecimal(BinaryOutput out, BigDecimal value) {
+        out.writeSignedVarLong(value.scale());
+        var unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            out.writeByte(0);
+            out.writeSignedVarLong(unscaled.longValue());
+        } else {
+            var bytes = unscaled.toByteArray();
+            out.writeByte(1);
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private static BigDecimal readDecimal(BinaryInput in) {
+        var scale = Math.toIntExact(in.readSignedVarLong());
+        var unscaled = in.readByte() == 0
+                ? BigInteger.valueOf(in.readSignedVarLong())
+                : new BigInteger(in.readBytes(in.readLength()));
+        return new BigDecimal(unscaled, scale);
+    }
+
+    private static void writeDateTime(BinaryOutput out, LocalDateTime value) {
+        out.writeSignedVarLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeVarLong(value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(BinaryInput in) {
+        var epochSecond = in.readSignedVarLong();
+        var nano = Math.toIntExact(in.readVarLong());
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+}
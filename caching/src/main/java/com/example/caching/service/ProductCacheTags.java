@@ -0,0 +1,56 @@
+package com.example.caching.service;
+
+import com.example.caching.entity.Product;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tags of {@code product_list} entries: the id and the name of every product a cached search
+ * result contains. Saving a product evicts the results tagged with its id (the lists it was in,
+ * even under its old name) or its name (the lists it may now belong to).
+ */
+public final class ProductCacheTags {
+
+    private ProductCacheTags() {
+    }
+
+    public static String productTag(Long productId) {
+        return "product:" + productId;
+    }
+
+    public static String nameTag(String productName) {
+        return "name:" + productName;
+    }
+
+    /**
+     * Tags of a cached product list, used as the {@code product_list} {@link com.example.caching.cache.CacheTagger}.
+     */
+    public static Collection<String> ofList(Object key, Object value) {
+        var tags = new LinkedHashSet<String>();
+        if (value instanceof List<?> products) {
+            for (var product : products) {
+                if (product instanceof Product p) {
+                    tags.addAll(of(p));
+                }
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Tags of the cached lists affected by a change to the product.
+     */
+    public static Set<String> of(Product product) {
+        var tags = new LinkedHashSet<String>();
+        if (product.getProductId() != null) {
+            tags.add(productTag(product.getProductId()));
+        }
+        if (product.getProductName() != null) {
+            tags.add(nameTag(product.getProductName()));
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.caching.service;
+
+import com.example.caching.cache.BloomFilter;
+import com.example.caching.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.RedisStringCommands.BitOperation;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter of the ids of existing products, so that a lookup of an id that was never saved is
+ * answered without a query.
+ * <p>
+ * Built in the background after startup from the ids in the database, in keyset pages, then
+ * OR-ed into a copy in Redis (a bitmap keyed by the filter's size) and OR-ed back from it.
+ * {@link #add} sets a saved id's bits here and in Redis and publishes it on {@link #CHANNEL} for
+ * the other nodes, in one pipelined round trip. Every {@code sync-interval} the Redis copy is read
+ * back, which repairs a missed message. Until the first build completes, or while it keeps
+ * failing, every id might exist.
+ * <p>
+ * An id saved on another node is unknown here for at most one round trip, or up to the next sync
+ * if the message was lost. Product lookups check the cache first, where a saved product is put
+ * straight away, so this only delays finding products that are out of stock or already evicted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductIdFilter implements ApplicationRunner, MeterBinder, DisposableBean {
+
+    public static final String CHANNEL = "product-ids";
+
+    private static final String KEY_PREFIX = "product:ids:bloom:";
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${caching.product-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${caching.product-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${caching.product-filter.page-size:10000}")
+    private int pageSize;
+
+    @Value("${caching.product-filter.sync-interval:30s}")
+    private Duration syncInterval;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("product-id-filter").factory());
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void refresh() {
+        if (filter == null) {
+            rebuild();
+        } else {
+            sync();
+        }
+    }
+
+    /**
+     * {@code false} if no product with the id was ever saved, {@code true} if one was or, with the
+     * configured false-positive rate, was not.
+     */
+    public boolean mightExist(Long id) {
+        var current = filter;
+        if (current == null || current.mightContain(id)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Counts a lookup the filter let through that found nothing.
+     */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Adds a saved product's id here, to the Redis copy and, through pub/sub, to the other nodes.
+     */
+    public void add(Long id) {
+        var current = addLocal(id);
+        if (current == null) {
+            // not started yet, the first build reads the id from the database
+            return;
+        }
+        var key = key(current);
+        var message = bytes(id.toString());
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (var position : current.positions(id)) {
+                    connection.stringCommands().setBit(key, position, true);
+                }
+                connection.publish(bytes(CHANNEL), message);
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            log.warn("Can't share product id {} with other nodes, they learn it on their next rebuild: {}", id, ex.getMessage());
+        }
+    }
+
+    /**
+     * Applies an id another node published.
+     */
+    public void onAdded(String message) {
+        addLocal(Long.parseLong(message));
+    }
+
+    private BloomFilter addLocal(long id) {
+        var next = building;
+        if (next != null) {
+            next.put(id);
+        }
+        var current = filter;
+        if (current != null) {
+            current.put(id);
+        }
+        return current != null ? current : next;
+    }
+
+    void rebuild() {
+        var next = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        building = next;
+        try {
+            var count = 0L;
+            var lastId = 0L;
+            List<Long> ids;
+            do {
+                ids = productRepository.findProductIdsAfter(lastId, Limit.of(pageSize));
+                ids.forEach(next::put);
+                count += ids.size();
+                if (!ids.isEmpty()) {
+                    lastId = ids.getLast();
+                }
+            } while (ids.size() == pageSize);
+            if (count > expectedInsertions) {
+                log.warn("{} products exceed caching.product-filter.expected-insertions of {}, false positives rise above {}",
+                        count, expectedInsertions, falsePositiveRate);
+            }
+            share(next);
+            filter = next;
+            log.info("Product id filter built: {} ids in {} bits, {} hashes", count, next.bitSize(), next.hashCount());
+        } catch (DataAccessException ex) {
+            log.warn("Can't build product id filter - every id is looked up until the next attempt: {}", ex.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Merges the filter into the Redis copy and the Redis copy, holding ids other nodes saved
+     * meanwhile, into the filter.
+     */
+    private void share(BloomFilter next) {
+        var key = key(next);
+        var staging = bytes(KEY_PREFIX + "staging:" + UUID.randomUUID());
+        try {
+            var shared = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+            if (shared != null) {
+                next.merge(shared);
+            }
+            var bitmap = next.toBytes();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.stringCommands().set(staging, bitmap);
+                connection.stringCommands().bitOp(BitOperation.OR, key, key, staging);
+                connection.keyCommands().del(staging);
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            log.warn("Can't share product id filter through Redis, ids saved on other nodes arrive by pub/sub only: {}", ex.getMessage());
+        }
+    }
+
+    void sync() {
+        var current = filter;
+        var key = key(current);
+        try {
+            var shared = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+            if (shared != null) {
+                current.merge(shared);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Can't sync product id filter from Redis: {}", ex.getMessage());
+        }
+    }
+
+    private static byte[] key(BloomFilter filter) {
+        return bytes(KEY_PREFIX + filter.bitSize() + ":" + filter.hashCount());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("product.filter.rejections", rejected, LongAdder::sum)
+                .description("Product lookups answered not found without a query")
+                .register(registry);
+        FunctionCounter.builder("product.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("Product lookups the filter let through that found nothing")
+                .register(registry);
+        Gauge.builder("product.filter.expected.fpp", this, ProductIdFilter::expectedFalsePositiveRate)
+                .description("Chance that the filter lets an absent id through, given the bits set")
+                .register(registry);
+    }
+
+    private double expectedFalsePositiveRate() {
+        var current = filter;
+        return current != null ? current.expectedFalsePositiveRate() : 1.0;
+    }
+}
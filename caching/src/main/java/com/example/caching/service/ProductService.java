@@ -1,5 +1,7 @@
 package com.example.caching.service;
 
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.cache.TwoLevelCacheManager;
 import com.example.caching.entity.Product;
 import com.example.caching.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,30 +14,96 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final String PRODUCT = "product";
+    private static final String PRODUCT_LIST = "product_list";
+
     private final ProductRepository productRepository;
+    private final TwoLevelCacheManager cacheManager;
+    private final ProductIdFilter productIdFilter;
+    private final ProductWriteBehind productWriteBehind;
 
+    /**
+     * Ids that were never saved, according to {@link ProductIdFilter}, are not found without a query.
+     */
     @Transactional(readOnly = true)
     @Cacheable(cacheNames = "product", unless = "#result == null", key = "#id")
     public Optional<Product> findById(Long id) {
+        if (!productIdFilter.mightExist(id)) {
+            return Optional.empty();
+        }
+        Optional<Product> product;
         try {
-            return productRepository.findById(id);
+            product = productRepository.findById(id);
         } catch (DataAccessException ex) {
             log.warn("Can't get Product from cache with id = {}, got from database", id);
-            return productRepository.findById(id);
+            product = productRepository.findById(id);
+        }
+        if (product.isEmpty()) {
+            productIdFilter.recordFalsePositive();
+        }
+        return product;
+    }
+
+    /**
+     * The products with the given ids that exist, in the order asked. Cached ones come from L1 and
+     * one {@code MGET}, the rest from one {@code findAllById}, and are then cached with one
+     * pipelined write. Not transactional, so no database connection is held across the Redis
+     * round trips. Ids {@link ProductIdFilter} knows were never saved are not queried.
+     */
+    public List<Product> findAllById(Collection<Long> ids) {
+        var uniqueIds = new LinkedHashSet<>(ids);
+        var cache = (TwoLevelCache) cacheManager.getCache(PRODUCT);
+        var products = new HashMap<Long, Product>();
+        try {
+            cache.getAll(uniqueIds).forEach((id, product) -> products.put((Long) id, (Product) product));
+        } catch (DataAccessException ex) {
+            log.warn("Can't get Products from cache with ids = {}, got from database", uniqueIds);
+        }
+
+        var misses = uniqueIds.stream()
+                .filter(id -> !products.containsKey(id))
+                .filter(productIdFilter::mightExist)
+                .toList();
+        if (!misses.isEmpty()) {
+            var loaded = productRepository.findAllById(misses);
+            loaded.forEach(product -> products.put(product.getProductId(), product));
+            backFill(cache, loaded);
+        }
+        return uniqueIds.stream().map(products::get).filter(Objects::nonNull).toList();
+    }
+
+    private void backFill(TwoLevelCache cache, List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        var entries = new LinkedHashMap<Object, Object>();
+        products.forEach(product -> entries.put(product.getProductId(), product));
+        try {
+            cache.putAll(entries);
+        } catch (DataAccessException ex) {
+            log.warn("Can't cache Products with ids = {}, they are cached on next lookup", entries.keySet());
         }
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = "product_list", unless = "#result == null", key = "'myPrefix_'.concat(#productName)")
+    @Cacheable(cacheNames = "product_list", unless = "#result == null or #result.isEmpty()", key = "'myPrefix_'.concat(#productName)")
     public List<Product> findByProductNameOrderByUpdatedAtDesc(String productName) {
         try {
             return productRepository.findByProductName(productName, Sort.by("updatedAt").descending());
@@ -45,15 +113,62 @@ public class ProductService {
         }
     }
 
-    @Transactional
+    /**
+     * With write-behind enabled, an update of an existing product is only cached and queued, see
+     * {@link ProductWriteBehind}; new products, updates missing a required value and updates Redis
+     * can't queue are written at once.
+     * Not transactional itself, so a queued update holds no database connection.
+     */
     @Caching(
             put = @CachePut(cacheNames = "product", condition = "#result.inStock gt 0", key = "#result.productId"),
-            evict = {
-                    @CacheEvict(cacheNames = "product_list", allEntries = true),
-                    @CacheEvict(cacheNames = "product", condition = "#result.inStock eq 0", key = "#result.productId")
-            }
+            evict = @CacheEvict(cacheNames = "product", condition = "#result.inStock eq 0", key = "#result.productId")
     )
     public Product save(Product product) {
-        return productRepository.save(product);
+        if (writeBehind(product)) {
+            return product;
+        }
+        var saved = productRepository.save(product);
+        productIdFilter.add(saved.getProductId());
+        evictProductLists(saved);
+        return saved;
+    }
+
+    private boolean writeBehind(Product product) {
+        if (!productWriteBehind.isEnabled() || !ProductWriteBehind.isQueueable(product)) {
+            return false;
+        }
+        try {
+            productWriteBehind.enqueue(product);
+            return true;
+        } catch (DataAccessException ex) {
+            log.warn("Can't queue Product with id = {} for write-behind, saved to database", product.getProductId());
+            return false;
+        }
+    }
+
+    /**
+     * Evicts only the cached searches the product was or may now be part of, see {@link ProductCacheTags},
+     * once the transaction has committed so that a concurrent search cannot cache the old rows again.
+     */
+    private void evictProductLists(Product product) {
+        var tags = ProductCacheTags.of(product);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictProductLists(tags);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictProductLists(tags);
+            }
+        });
+    }
+
+    private void evictProductLists(Set<String> tags) {
+        try {
+            cacheManager.evictTagged(PRODUCT_LIST, tags);
+        } catch (DataAccessException ex) {
+            log.warn("Can't evict cached Products with tags {}, they expire with the cache TTL", tags);
+        }
     }
 }
@@ -0,0 +1,496 @@
+package com.example.caching.service;
+
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.config.CacheConfig;
+import com.example.caching.entity.Product;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind for product updates, enabled by {@code caching.write-behind.enabled}.
+ * <p>
+ * {@link #enqueue} appends the product to the {@code product:writes} stream, and the caller caches
+ * it. One node at a time, the one holding the flusher lease, reads the stream as the single
+ * consumer of a consumer group. It keeps the latest version of each product and writes them in one
+ * JDBC batch when {@code batch-size} products are buffered, or once the oldest buffered write is
+ * {@code max-staleness} old. The batch's entries are then acknowledged and deleted from the
+ * stream. An update never overwrites a row with a newer {@code updated_at}.
+ * <p>
+ * Entries read and not yet written stay pending in the group. A node that gets the lease, after
+ * the previous holder crashed, replays them before reading new ones. Stopping the flusher, after
+ * the web server, writes everything queued so far before handing the lease over.
+ * <p>
+ * If the database refuses a batch for its data, its rows are written one by one and the ones
+ * refused again are moved to the {@code product:writes:dead} stream, so they cannot hold back the
+ * updates behind them. Any other failure keeps the batch for the next attempt.
+ * <p>
+ * New products are still inserted synchronously, since their ids come from the database, and so
+ * are updates that the database would refuse, see {@link #isQueueable}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductWriteBehind implements SmartLifecycle, MeterBinder {
+
+    static final String STREAM = "product:writes";
+    static final String GROUP = "product-flusher";
+    static final String CONSUMER = "flusher";
+    static final String LEASE = "product:writes:lease";
+    static final String DEAD_LETTERS = "product:writes:dead";
+
+    private static final String ID_FIELD = "id";
+    private static final String PRODUCT_FIELD = "product";
+    private static final String ERROR_FIELD = "error";
+    // VARCHAR(255) and DECIMAL(10,2) columns
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_PRICE_DIGITS = 8;
+    private static final String UPDATE = """
+            update product
+               set product_name = ?, category = ?, price = ?, in_stock = ?, date_of_manufacture = ?, vendor = ?, updated_at = ?
+             where product_id = ? and updated_at <= ?
+            """;
+
+    // takes the lease if free, extends it if held by the same owner
+    private static final RedisScript<Long> HOLD_LEASE = RedisScript.of("""
+            local owner = redis.call('GET', KEYS[1])
+            if owner == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            if not owner then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_LEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private static final GenericJackson2JsonRedisSerializer JSON = CacheConfig.jsonSerializer();
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TwoLevelCacheManager cacheManager;
+
+    @Value("${caching.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${caching.write-behind.max-staleness:1s}")
+    private Duration maxStaleness;
+
+    @Value("${caching.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${caching.write-behind.lease-timeout:30s}")
+    private Duration leaseTimeout;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final Map<Long, Product> buffered = new LinkedHashMap<>();
+    private final List<RecordId> bufferedRecords = new ArrayList<>();
+    private final AtomicLong oldestBufferedMillis = new AtomicLong();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private volatile boolean running;
+    private volatile Thread flusher;
+    private boolean leader;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the product is an existing one with every value its row requires, so that queueing it
+     * cannot turn a write the database would refuse into a success for the caller.
+     */
+    public static boolean isQueueable(Product product) {
+        var price = product.getPrice();
+        return product.getProductId() != null
+                && fits(product.getProductName())
+                && product.getCategory() != null
+                && price != null && price.precision() - price.scale() <= MAX_PRICE_DIGITS
+                && product.getInStock() != null
+                && product.getDateOfManufacture() != null
+                && product.getUpdatedAt() != null
+                && (product.getVendor() == null || fits(product.getVendor()));
+    }
+
+    private static boolean fits(String text) {
+        return text != null && text.length() <= MAX_TEXT_LENGTH;
+    }
+
+    /**
+     * Appends an update of an existing product to the stream. Throws when Redis is unreachable,
+     * the caller should then write the product synchronously.
+     */
+    public void enqueue(Product product) {
+        redisTemplate.opsForStream().add(STREAM, Map.of(
+                ID_FIELD, product.getProductId().toString(),
+                PRODUCT_FIELD, new String(JSON.serialize(product), StandardCharsets.UTF_8)));
+        enqueued.increment();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.from("0"), GROUP);
+        } catch (DataAccessException e) {
+            // BUSYGROUP: another node, or an earlier run, created it
+            log.debug("Consumer group {} on {} not created: {}", GROUP, STREAM, e.getMessage());
+        }
+        running = true;
+        flusher = Thread.ofVirtual().name("product-flusher").start(this::run);
+    }
+
+    /**
+     * On the flusher, writes everything queued so far and hands the lease over.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        var thread = flusher;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(maxStaleness.plus(leaseTimeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the web server's, so that updates accepted while requests drain are flushed on
+     * shutdown, and above the Redis connection factory's (0), which is still open then.
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (holdLease()) {
+                    poll();
+                } else {
+                    pause(maxStaleness);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Can't flush product writes, retrying: {}", e.getMessage());
+                pause(maxStaleness);
+            } catch (RuntimeException e) {
+                log.error("Product write flusher failed, retrying", e);
+                pause(maxStaleness);
+            }
+        }
+        try {
+            if (leader) {
+                drain();
+                redisTemplate.execute(RELEASE_LEASE, List.of(LEASE), owner);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Can't flush product writes on shutdown, the next flusher replays them: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Takes or extends the flusher lease. On taking it, the entries the previous holder read and
+     * did not write are replayed into the buffer.
+     */
+    boolean holdLease() {
+        var held = Long.valueOf(1).equals(redisTemplate.execute(HOLD_LEASE, List.of(LEASE), owner, String.valueOf(leaseTimeout.toMillis())));
+        if (held && !leader) {
+            leader = true;
+            var replayed = replay();
+            if (replayed > 0) {
+                log.info("Replaying {} product writes not flushed by the previous flusher", replayed);
+            }
+        } else if (!held && leader) {
+            // lost it while stalled: another node replays everything this one did not acknowledge
+            leader = false;
+            clearBuffer();
+        }
+        return held;
+    }
+
+    private int replay() {
+        clearBuffer();
+        var count = 0;
+        var offset = ReadOffset.from("0");
+        List<MapRecord<String, Object, Object>> records;
+        do {
+            records = read(offset, null);
+            buffer(records);
+            count += records.size();
+            if (!records.isEmpty()) {
+                offset = ReadOffset.from(records.getLast().getId());
+            }
+        } while (records.size() == batchSize);
+        return count;
+    }
+
+    /**
+     * Reads new writes, waiting at most until the oldest buffered one is due, and flushes when the
+     * buffer is full or due.
+     */
+    void poll() {
+        var wait = maxStaleness;
+        if (oldestBufferedMillis.get() != 0) {
+            wait = Duration.ofMillis(Math.max(1, oldestBufferedMillis.get() + maxStaleness.toMillis() - System.currentTimeMillis()));
+        }
+        buffer(read(ReadOffset.lastConsumed(), wait));
+        if (buffered.size() >= batchSize || isDue()) {
+            flush();
+        }
+    }
+
+    /**
+     * Flushes the buffer and every write queued so far, without waiting for more.
+     */
+    void drain() {
+        List<MapRecord<String, Object, Object>> records;
+        do {
+            records = read(ReadOffset.lastConsumed(), null);
+            buffer(records);
+            flush();
+        } while (!records.isEmpty());
+    }
+
+    private boolean isDue() {
+        var oldest = oldestBufferedMillis.get();
+        return oldest != 0 && System.currentTimeMillis() - oldest >= maxStaleness.toMillis();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> read(ReadOffset offset, Duration block) {
+        var options = StreamReadOptions.empty().count(batchSize);
+        if (block != null) {
+            options = options.block(block);
+        }
+        var records = redisTemplate.opsForStream().read(Consumer.from(GROUP, CONSUMER), options, StreamOffset.create(STREAM, offset));
+        return records != null ? records : List.of();
+    }
+
+    private void buffer(List<MapRecord<String, Object, Object>> records) {
+        for (var record : records) {
+            try {
+                var product = (Product) JSON.deserialize(String.valueOf(record.getValue().get(PRODUCT_FIELD)).getBytes(StandardCharsets.UTF_8));
+                if (buffered.put(product.getProductId(), product) != null) {
+                    coalesced.increment();
+                }
+            } catch (SerializationException | ClassCastException e) {
+                // acknowledged with the batch, so it cannot block the stream
+                log.warn("Can't read product write {}, dropping it: {}", record.getId(), e.getMessage());
+            }
+            if (oldestBufferedMillis.get() == 0) {
+                var timestamp = record.getId().getTimestamp();
+                oldestBufferedMillis.set(timestamp != null ? timestamp : System.currentTimeMillis());
+            }
+            bufferedRecords.add(record.getId());
+        }
+    }
+
+    /**
+     * Writes the latest buffered version of each product in one JDBC batch, moves the ones the
+     * database refuses to the dead-letter stream, then acknowledges and deletes their entries and
+     * evicts what may have been cached from the old rows. Returns the number of products written.
+     */
+    int flush() {
+        if (bufferedRecords.isEmpty()) {
+            return 0;
+        }
+        var start = System.nanoTime();
+        var products = List.copyOf(buffered.values());
+        var refused = write(products);
+        deadLetter(refused);
+        var ids = bufferedRecords.toArray(RecordId[]::new);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            var key = STREAM.getBytes(StandardCharsets.UTF_8);
+            connection.streamCommands().xAck(key, GROUP, ids);
+            connection.streamCommands().xDel(key, ids);
+            return null;
+        });
+        evictStale(products);
+        clearBuffer();
+        written.add(products.size() - refused.size());
+        flushes.increment();
+        flushNanos.add(System.nanoTime() - start);
+        return products.size() - refused.size();
+    }
+
+    /**
+     * Writes the products in one batch. If the database refuses it for its data, writes them one
+     * by one and returns the error of each one refused again by product id. Other failures are
+     * thrown, leaving the buffer for the next attempt.
+     */
+    private Map<Long, String> write(List<Product> products) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE, products, batchSize, ProductWriteBehind::setValues);
+            return Map.of();
+        } catch (RuntimeException e) {
+            if (!isRefused(e)) {
+                throw e;
+            }
+            log.warn("Database refused a batch of {} product writes, writing them one by one: {}", products.size(), e.getMessage());
+        }
+        var refused = new LinkedHashMap<Long, String>();
+        for (var product : products) {
+            try {
+                jdbcTemplate.update(UPDATE, statement -> setValues(statement, product));
+            } catch (RuntimeException e) {
+                if (!isRefused(e)) {
+                    throw e;
+                }
+                refused.put(product.getProductId(), e.toString());
+            }
+        }
+        return refused;
+    }
+
+    /**
+     * Refused for the values written, which no retry can fix, as opposed to a failure of the
+     * database or the connection.
+     */
+    private static boolean isRefused(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException || !(e instanceof DataAccessException);
+    }
+
+    private static void setValues(PreparedStatement statement, Product product) throws SQLException {
+        var updatedAt = Timestamp.valueOf(product.getUpdatedAt());
+        statement.setString(1, product.getProductName());
+        statement.setString(2, product.getCategory().name());
+        statement.setBigDecimal(3, product.getPrice());
+        statement.setLong(4, product.getInStock());
+        statement.setTimestamp(5, Timestamp.valueOf(product.getDateOfManufacture()));
+        statement.setString(6, product.getVendor());
+        statement.setTimestamp(7, updatedAt);
+        statement.setLong(8, product.getProductId());
+        statement.setTimestamp(9, updatedAt);
+    }
+
+    private void deadLetter(Map<Long, String> refused) {
+        refused.forEach((id, error) -> {
+            log.error("Can't write Product with id = {}, moved to {}: {}", id, DEAD_LETTERS, error);
+            redisTemplate.opsForStream().add(DEAD_LETTERS, Map.of(
+                    ID_FIELD, id.toString(),
+                    PRODUCT_FIELD, new String(JSON.serialize(buffered.get(id)), StandardCharsets.UTF_8),
+                    ERROR_FIELD, error));
+            deadLettered.increment();
+        });
+    }
+
+    /**
+     * Searches may have cached the old rows meanwhile, and so may product lookups: a miss, an
+     * early recomputation or a multi-get back-fill reads the row before it is written. Refused
+     * products are evicted too, since the cache holds a version the database never got.
+     */
+    private void evictStale(List<Product> products) {
+        var tags = new HashSet<String>();
+        products.forEach(product -> tags.addAll(ProductCacheTags.of(product)));
+        try {
+            cacheManager.evictTagged("product_list", tags);
+            ((TwoLevelCache) cacheManager.getCache("product")).evictAll(products.stream().map(Product::getProductId).toList());
+        } catch (DataAccessException ex) {
+            log.warn("Can't evict cached Products with tags {}, they expire with the cache TTL", tags);
+        }
+    }
+
+    private void clearBuffer() {
+        buffered.clear();
+        bufferedRecords.clear();
+        oldestBufferedMillis.set(0);
+    }
+
+    private void pause(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("product.write.behind.enqueued", enqueued, LongAdder::sum)
+                .description("Product updates appended to the write-behind stream by this node")
+                .register(registry);
+        FunctionCounter.builder("product.write.behind.written", written, LongAdder::sum)
+                .description("Product rows written by this node's flushes")
+                .register(registry);
+        FunctionCounter.builder("product.write.behind.coalesced", coalesced, LongAdder::sum)
+                .description("Product updates superseded by a later one before being written")
+                .register(registry);
+        FunctionCounter.builder("product.write.behind.dead.lettered", deadLettered, LongAdder::sum)
+                .description("Product updates the database refused, moved to the dead-letter stream")
+                .register(registry);
+        FunctionTimer.builder("product.write.behind.flushes", this,
+                        writeBehind -> writeBehind.flushes.sum(), writeBehind -> writeBehind.flushNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("JDBC batches written, acknowledgement and cache eviction included")
+                .register(registry);
+        Gauge.builder("product.write.behind.lag", this, ProductWriteBehind::lagMillis)
+                .description("Age of the oldest write buffered and not yet flushed, 0 when none")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private long lagMillis() {
+        var oldest = oldestBufferedMillis.get();
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+}
@@ -1,32 +1,126 @@
 package com.example.caching.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Per-user activity lists in Redis, oldest first. Every append also trims the list to its newest
+ * {@code max-length} activities and refreshes its TTL, atomically and in one round trip, so a
+ * user's list never grows past the limit and is dropped once the user has been inactive for the TTL.
+ */
 @Service
 @RequiredArgsConstructor
 public class UserService {
+
+    /**
+     * KEYS[1] list, ARGV[1] max length, ARGV[2] TTL in milliseconds, ARGV[3..] activities.
+     * Returns the length of the list.
+     */
+    private static final RedisScript<Long> INGEST = RedisScript.of("""
+            redis.call('RPUSH', KEYS[1], unpack(ARGV, 3))
+            redis.call('LTRIM', KEYS[1], -tonumber(ARGV[1]), -1)
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return redis.call('LLEN', KEYS[1])
+            """, Long.class);
+
+    // activities per script call, well below the about 8,000 values Lua's unpack accepts
+    static final int MAX_ACTIVITIES_PER_CALL = 1000;
+
     private final StringRedisTemplate redisTemplate;
 
+    @Value("${caching.activity.max-length:1000}")
+    private int maxLength;
+
+    @Value("${caching.activity.ttl:7d}")
+    private Duration ttl;
+
+    @PostConstruct
+    void validateSettings() {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("caching.activity.max-length must be positive: " + maxLength);
+        }
+        if (!ttl.isPositive()) {
+            throw new IllegalArgumentException("caching.activity.ttl must be positive: " + ttl);
+        }
+    }
+
     public void addUserActivity(String userId, String activity) {
+        validateUserId(userId);
+        validateActivity(activity);
+        redisTemplate.execute(INGEST, List.of(key(userId)), String.valueOf(maxLength), String.valueOf(ttl.toMillis()), activity);
+    }
+
+    /**
+     * Appends the activities of many users in one pipelined round trip, each user's in the given
+     * order and with the same trimming and TTL as {@link #addUserActivity}. Everything is validated
+     * before anything is sent. Only a user's newest {@code max-length} activities are sent, since
+     * trimming would drop the others, in calls of at most {@link #MAX_ACTIVITIES_PER_CALL}.
+     */
+    public void addUserActivities(Map<String, List<String>> activitiesByUser) {
+        activitiesByUser.forEach((userId, activities) -> {
+            validateUserId(userId);
+            if (activities == null || activities.isEmpty()) {
+                throw new IllegalArgumentException("activities cannot be null or empty");
+            }
+            activities.forEach(this::validateActivity);
+        });
+        if (activitiesByUser.isEmpty()) {
+            return;
+        }
+
+        // EVAL rather than EVALSHA: a pipeline can't fall back to EVAL when the script is not cached
+        var script = INGEST.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            activitiesByUser.forEach((userId, activities) -> {
+                var kept = activities.subList(Math.max(0, activities.size() - maxLength), activities.size());
+                for (int from = 0; from < kept.size(); from += MAX_ACTIVITIES_PER_CALL) {
+                    var chunk = kept.subList(from, Math.min(kept.size(), from + MAX_ACTIVITIES_PER_CALL));
+                    var keysAndArgs = new ArrayList<byte[]>(chunk.size() + 3);
+                    keysAndArgs.add(bytes(key(userId)));
+                    keysAndArgs.add(bytes(String.valueOf(maxLength)));
+                    keysAndArgs.add(bytes(String.valueOf(ttl.toMillis())));
+                    chunk.forEach(activity -> keysAndArgs.add(bytes(activity)));
+                    connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1, keysAndArgs.toArray(byte[][]::new));
+                }
+            });
+            return null;
+        });
+    }
+
+    public String getOldestUserActivity(String userId) {
+        validateUserId(userId);
+        return redisTemplate.opsForList().leftPop(key(userId));
+    }
+
+    private void validateUserId(String userId) {
         if (userId == null || userId.isBlank()) {
             throw new IllegalArgumentException("userId cannot be null or blank");
         }
+    }
+
+    private void validateActivity(String activity) {
         if (activity == null || activity.isBlank()) {
             throw new IllegalArgumentException("activity cannot be null or blank");
         }
-        var key = "user:activities:" + userId;
-        redisTemplate.opsForList().rightPush(key, activity);
-        redisTemplate.expire(key, Duration.ofDays(7));
     }
 
-    public String getOldestUserActivity(String userId) {
-        if (userId == null || userId.isBlank()) {
-            throw new IllegalArgumentException("userId cannot be null or blank");
-        }
-        return redisTemplate.opsForList().leftPop("user:activities:" + userId);
+    private static String key(String userId) {
+        return "user:activities:" + userId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,83 @@
+package com.example.caching.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldFindEveryKeyPutAndRejectMostOthers() {
+        // Given
+        var filter = BloomFilter.create(100_000, 0.01);
+        for (long id = 1; id <= 100_000; id++) {
+            filter.put(id);
+        }
+
+        // When
+        var missed = 0;
+        for (long id = 1; id <= 100_000; id++) {
+            missed += filter.mightContain(id) ? 0 : 1;
+        }
+        var falsePositives = 0;
+        for (long id = 1_000_001; id <= 1_100_000; id++) {
+            falsePositives += filter.mightContain(id) ? 1 : 0;
+        }
+
+        // Then
+        assertThat(missed).isZero();
+        assertThat(falsePositives / 100_000.0).isLessThan(0.015);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    void create_shouldSizeFromExpectedInsertionsAndFalsePositiveRate() {
+        // When
+        var filter = BloomFilter.create(1_000_000, 0.01);
+
+        // Then: about 9.6 bits and 7 hashes per key
+        assertThat(filter.bitSize()).isBetween(9_585_000L, 9_586_000L);
+        assertThat(filter.bitSize() % 64).isZero();
+        assertThat(filter.hashCount()).isEqualTo(7);
+        assertThatThrownBy(() -> BloomFilter.create(1_000, 1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void toBytes_shouldUseRedisBitmapLayout() {
+        // Given
+        var filter = new BloomFilter(128, 1);
+        filter.put(42);
+        var position = filter.positions(42)[0];
+
+        // When
+        var bitmap = filter.toBytes();
+
+        // Then: SETBIT key position 1 sets the same bit
+        var expected = new byte[16];
+        expected[(int) (position / 8)] = (byte) (0x80 >>> (position % 8));
+        assertThat(bitmap).isEqualTo(expected);
+    }
+
+    @Test
+    void merge_shouldAddKeysFromShorterRedisBitmap() {
+        // Given
+        var source = new BloomFilter(1024, 3);
+        source.put(7);
+        var bitmap = source.toBytes();
+        var last = bitmap.length;
+        while (last > 0 && bitmap[last - 1] == 0) {
+            last--;
+        }
+        var target = new BloomFilter(1024, 3);
+
+        // When
+        target.merge(Arrays.copyOf(bitmap, last));
+
+        // Then
+        assertThat(target.mightContain(7)).isTrue();
+        assertThat(target.toBytes()).isEqualTo(bitmap);
+    }
+}
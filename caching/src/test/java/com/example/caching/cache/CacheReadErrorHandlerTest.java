@@ -0,0 +1,30 @@
+package com.example.caching.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class CacheReadErrorHandlerTest {
+
+    private final CacheReadErrorHandler handler = new CacheReadErrorHandler();
+    private final Cache cache = mock(Cache.class);
+
+    @Test
+    void handleCacheGetError_shouldTreatUnreadableValueAsMiss() {
+        var error = new SerializationException("Could not read JSON: missing type id property '@class'");
+
+        assertThatCode(() -> handler.handleCacheGetError(error, cache, 1L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void handleCacheGetError_shouldRethrowOtherErrors() {
+        var error = new RedisConnectionFailureException("Connection refused");
+
+        assertThatThrownBy(() -> handler.handleCacheGetError(error, cache, 1L)).isSameAs(error);
+    }
+}
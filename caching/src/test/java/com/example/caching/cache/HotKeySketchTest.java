@@ -0,0 +1,72 @@
+package com.example.caching.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotKeySketchTest {
+
+    @Test
+    void hottest_shouldRankHeavyHittersAmongManyColdKeys() {
+        // Given
+        var sketch = new HotKeySketch(new HotKeySettings(1024, 4, 3));
+
+        // When
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 50; i++) {
+                sketch.record("cold-" + (round * 50 + i));
+            }
+            for (int i = 0; i < 30; i++) {
+                sketch.record("product::1");
+            }
+            for (int i = 0; i < 20; i++) {
+                sketch.record("product::2");
+            }
+            for (int i = 0; i < 10; i++) {
+                sketch.record("product::3");
+            }
+        }
+
+        // Then
+        assertThat(sketch.hottest()).extracting(HotKeySketch.HotKey::key)
+                .containsExactly("product::1", "product::2", "product::3");
+    }
+
+    @Test
+    void estimate_shouldNeverUndercount() {
+        // Given
+        var sketch = new HotKeySketch(new HotKeySettings(64, 4, 5));
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            sketch.record("key-" + (i % 100));
+        }
+
+        // Then
+        for (int i = 0; i < 100; i++) {
+            assertThat(sketch.estimate("key-" + i)).isGreaterThanOrEqualTo(5);
+        }
+    }
+
+    @Test
+    void record_shouldHalveCountsPeriodically() {
+        // Given
+        var sketch = new HotKeySketch(new HotKeySettings(16, 2, 1));
+
+        // When: 10 * width accesses trigger one halving
+        for (int i = 0; i < 160; i++) {
+            sketch.record("hot");
+        }
+
+        // Then
+        assertThat(sketch.estimate("hot")).isEqualTo(80);
+        assertThat(sketch.hottest()).containsExactly(new HotKeySketch.HotKey("hot", 80));
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidDepth() {
+        assertThatThrownBy(() -> new HotKeySketch(new HotKeySettings(1024, 9, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.caching.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisBulkOperationsTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    @Test
+    void set_shouldOnlyFillKeysWithoutValue() {
+        // Given
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of();
+        });
+        var key = "product::1".getBytes(StandardCharsets.UTF_8);
+        var value = "widget".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        new RedisBulkOperations(redisTemplate).set(List.of(new RedisBulkOperations.Entry(key, value, Duration.ofMinutes(5))));
+
+        // Then: a concurrent put of a newer value wins
+        verify(stringCommands).set(key, value, Expiration.from(Duration.ofMinutes(5)), SetOption.ifAbsent());
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.caching.cache;
+
+import com.example.caching.config.CacheConfig;
+import com.example.caching.serializer.CompactRedisSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheEarlyRecomputeTest {
+
+    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private RedisCache redisCache;
+
+    @Mock
+    private RecomputeLock recomputeLock;
+
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisCache.getName()).thenReturn("product");
+        lenient().when(redisCache.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig());
+        var options = new TwoLevelCache.Options(new LocalCacheSettings(Duration.ofMinutes(1), 100), null, null,
+                new EarlyRecomputeSettings(Duration.ofHours(1), 1.0, LOCK_TIMEOUT), recomputeLock, null, null);
+        cache = new TwoLevelCache(redisCache, "node-1", invalidation -> {
+        }, options);
+    }
+
+    @Test
+    void get_shouldServeFreshValueWithoutLocking() {
+        // Given
+        var now = System.currentTimeMillis();
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper(new CachedValue("widget", 0, now + 60_000)));
+
+        // When
+        var result = cache.get(1L);
+
+        // Then
+        assertThat(result.get()).isEqualTo("widget");
+        verifyNoInteractions(recomputeLock);
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldReturnMissToLockWinner_whenValueExpired() {
+        // Given
+        var now = System.currentTimeMillis();
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper(new CachedValue("old", 50, now - 1)));
+        when(recomputeLock.tryAcquire("product::lock:1", "node-1", LOCK_TIMEOUT)).thenReturn(true);
+
+        // When
+        var result = cache.get(1L);
+        cache.put(1L, "new");
+
+        // Then
+        assertThat(result).isNull();
+        assertThat(cache.earlyRecomputeCount()).isEqualTo(1);
+        var stored = ArgumentCaptor.forClass(Object.class);
+        verify(redisCache).put(eq(1L), stored.capture());
+        var cached = (CachedValue) stored.getValue();
+        assertThat(cached.value()).isEqualTo("new");
+        assertThat(cached.expiresAtMillis()).isGreaterThanOrEqualTo(now + Duration.ofHours(1).toMillis());
+        verify(recomputeLock).release("product::lock:1", "node-1");
+    }
+
+    @Test
+    void evict_shouldReleaseLock_whenWinnerNeverPuts() {
+        // Given: the recomputation found nothing to cache
+        var now = System.currentTimeMillis();
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper(new CachedValue("old", 50, now - 1)));
+        when(recomputeLock.tryAcquire("product::lock:1", "node-1", LOCK_TIMEOUT)).thenReturn(true);
+        cache.get(1L);
+
+        // When
+        cache.evict(1L);
+        cache.evict(1L);
+
+        // Then
+        verify(recomputeLock, times(1)).release("product::lock:1", "node-1");
+    }
+
+    @Test
+    void clear_shouldReleaseEveryHeldLock() {
+        // Given
+        var now = System.currentTimeMillis();
+        when(redisCache.get(any())).thenReturn(new SimpleValueWrapper(new CachedValue("old", 50, now - 1)));
+        when(recomputeLock.tryAcquire(any(), eq("node-1"), eq(LOCK_TIMEOUT))).thenReturn(true);
+        cache.get(1L);
+        cache.get(2L);
+
+        // When
+        cache.clear();
+        cache.put(1L, "new");
+
+        // Then
+        verify(recomputeLock).release("product::lock:1", "node-1");
+        verify(recomputeLock).release("product::lock:2", "node-1");
+        verifyNoMoreInteractions(recomputeLock);
+    }
+
+    @Test
+    void get_shouldServeStaleValue_whenAnotherNodeIsRecomputing() {
+        // Given
+        var now = System.currentTimeMillis();
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper(new CachedValue("old", 50, now - 1)));
+        when(recomputeLock.tryAcquire(any(), any(), any())).thenReturn(false);
+
+        // When
+        var result = cache.get(1L);
+
+        // Then
+        assertThat(result.get()).isEqualTo("old");
+        assertThat(cache.staleHitCount()).isEqualTo(1);
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void get_shouldServeStaleValue_whenLockingFails() {
+        // Given
+        var now = System.currentTimeMillis();
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper(new CachedValue("old", 50, now - 1)));
+        when(recomputeLock.tryAcquire(any(), any(), any())).thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        // When
+        var result = cache.get(1L);
+
+        // Then
+        assertThat(result.get()).isEqualTo("old");
+    }
+
+    @Test
+    void get_shouldRecomputeEarly_whenComputeTimeIsLargeComparedToRemainingTtl() {
+        // Given: one second left, a value that takes an hour to compute
+        var now = System.currentTimeMillis();
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper(new CachedValue("widget", 3_600_000, now + 1_000)));
+        when(recomputeLock.tryAcquire(any(), any(), any())).thenReturn(true);
+
+        // When
+        var result = cache.get(1L);
+
+        // Then
+        assertThat(result).isNull();
+        assertThat(cache.earlyRecomputeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void put_shouldNotReleaseLock_whenNotHeld() {
+        // When
+        cache.put(1L, "widget");
+
+        // Then
+        verify(recomputeLock, never()).release(any(), any());
+    }
+
+    @Test
+    void get_withLoader_shouldStoreLoadedValue() {
+        // Given
+        when(redisCache.get(1L)).thenReturn(null);
+
+        // When
+        var result = cache.get(1L, () -> "loaded");
+
+        // Then
+        assertThat(result).isEqualTo("loaded");
+        verify(redisCache).put(eq(1L), any(CachedValue.class));
+    }
+
+    @Test
+    void putAll_shouldSpreadLogicalExpiriesOverLastTenthOfTtl() {
+        // Given
+        var serializer = new CompactRedisSerializer(CacheConfig.jsonSerializer(), 512);
+        when(redisCache.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(SerializationPair.fromSerializer(serializer)));
+        var bulk = mock(RedisBulkOperations.class);
+        var bulkCache = new TwoLevelCache(redisCache, "node-1", invalidation -> {
+        }, new TwoLevelCache.Options(new LocalCacheSettings(Duration.ofMinutes(1), 100), null, null,
+                new EarlyRecomputeSettings(Duration.ofHours(1), 1.0, LOCK_TIMEOUT), recomputeLock, bulk, null));
+        var entries = new HashMap<Object, Object>();
+        for (long id = 1; id <= 50; id++) {
+            entries.put(id, "product-" + id);
+        }
+        var now = System.currentTimeMillis();
+
+        // When
+        bulkCache.putAll(entries);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RedisBulkOperations.Entry>> writes = ArgumentCaptor.forClass(List.class);
+        verify(bulk).set(writes.capture());
+        var expiries = writes.getValue().stream()
+                .map(entry -> (CachedValue) serializer.deserialize(entry.value()))
+                .map(CachedValue::expiresAtMillis)
+                .toList();
+        assertThat(expiries).hasSize(50)
+                .allSatisfy(expiresAt -> assertThat(expiresAt).isBetween(now + 3_240_000, now + 3_601_000));
+        assertThat(Set.copyOf(expiries)).hasSizeGreaterThan(1);
+    }
+}
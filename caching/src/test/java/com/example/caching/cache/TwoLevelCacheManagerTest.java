@@ -0,0 +1,104 @@
+package com.example.caching.cache;
+
+import com.example.caching.sender.RedisPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    @Mock
+    private RedisCacheManager redisCacheManager;
+
+    @Mock
+    private RedisCache redisCache;
+
+    @Mock
+    private RedisPublisher redisPublisher;
+
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        when(redisCacheManager.getCacheNames()).thenReturn(List.of("product"));
+        when(redisCacheManager.getCache("product")).thenReturn(redisCache);
+        when(redisCache.getName()).thenReturn("product");
+        cacheManager = TwoLevelCacheManager.builder(redisCacheManager, redisPublisher)
+                .defaultLocalSettings(new LocalCacheSettings(Duration.ofMinutes(1), 100))
+                .build();
+        cacheManager.afterPropertiesSet();
+    }
+
+    @Test
+    void getCache_shouldDecorateRedisCaches() {
+        assertThat(cacheManager.getCache("product")).isInstanceOf(TwoLevelCache.class);
+        verify(redisCacheManager).initializeCaches();
+    }
+
+    @Test
+    void onInvalidation_shouldDropL1Entry_whenSentByAnotherNode() {
+        // Given
+        var cache = (TwoLevelCache) cacheManager.getCache("product");
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("widget"));
+        cache.get(1L);
+
+        // When
+        cacheManager.onInvalidation(new CacheInvalidationMessage("other-node", "product", "1").encode());
+
+        // Then
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void onInvalidation_shouldIgnoreOwnMessages() {
+        // Given
+        var cache = (TwoLevelCache) cacheManager.getCache("product");
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("widget"));
+        cache.get(1L);
+        cache.evict(2L);
+        var message = ArgumentCaptor.forClass(String.class);
+        verify(redisPublisher).publish(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), message.capture());
+
+        // When
+        cacheManager.onInvalidation(message.getValue().replace("|2", "|1"));
+
+        // Then
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void evict_shouldNotFail_whenBroadcastFails() {
+        // Given
+        doThrow(new IllegalStateException("Redis down")).when(redisPublisher).publish(any(), any());
+
+        // When
+        cacheManager.getCache("product").evict(1L);
+
+        // Then
+        verify(redisCache).evict(1L);
+    }
+
+    @Test
+    void build_shouldRequireLock_whenEarlyRecomputeIsConfigured() {
+        var builder = TwoLevelCacheManager.builder(redisCacheManager, redisPublisher)
+                .defaultLocalSettings(new LocalCacheSettings(Duration.ofMinutes(1), 100))
+                .earlyRecompute("product", new EarlyRecomputeSettings(Duration.ofHours(1), 1.0, Duration.ofSeconds(5)));
+
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class);
+    }
+}
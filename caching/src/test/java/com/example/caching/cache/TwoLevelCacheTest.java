@@ -0,0 +1,335 @@
+package com.example.caching.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    private static final LocalCacheSettings LOCAL = new LocalCacheSettings(Duration.ofMinutes(1), 100);
+
+    @Mock
+    private RedisCache redisCache;
+
+    private final List<CacheInvalidationMessage> published = new ArrayList<>();
+
+    @Mock
+    private CacheTagIndex tagIndex;
+
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisCache.getName()).thenReturn("product");
+        cache = new TwoLevelCache(redisCache, "node-1", published::add, TwoLevelCache.Options.local(LOCAL));
+    }
+
+    @Test
+    void get_shouldServeRepeatedLookupsFromL1() {
+        // Given
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("widget"));
+
+        // When
+        var first = cache.get(1L);
+        var second = cache.get(1L);
+
+        // Then
+        assertThat(first.get()).isEqualTo("widget");
+        assertThat(second.get()).isEqualTo("widget");
+        verify(redisCache, times(1)).get(1L);
+        assertThat(cache.localStatistics().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldNotCacheL2Misses() {
+        // Given
+        when(redisCache.get(1L)).thenReturn(null);
+
+        // When
+        cache.get(1L);
+        cache.get(1L);
+
+        // Then
+        verify(redisCache, times(2)).get(1L);
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void put_shouldWriteL2DropL1AndBroadcast() {
+        // Given
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("old"), new SimpleValueWrapper("new"));
+        cache.get(1L);
+
+        // When
+        cache.put(1L, "new");
+
+        // Then
+        verify(redisCache).put(1L, "new");
+        assertThat(cache.get(1L).get()).isEqualTo("new");
+        assertThat(published).containsExactly(new CacheInvalidationMessage("node-1", "product", "1"));
+    }
+
+    @Test
+    void evict_shouldEvictBothLevelsAndBroadcast() {
+        // Given
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("widget"));
+        cache.get(1L);
+
+        // When
+        cache.evict(1L);
+
+        // Then
+        verify(redisCache).evict(1L);
+        assertThat(cache.localSize()).isZero();
+        assertThat(published).containsExactly(new CacheInvalidationMessage("node-1", "product", "1"));
+    }
+
+    @Test
+    void clear_shouldBroadcastWithoutKey() {
+        // When
+        cache.clear();
+
+        // Then
+        verify(redisCache).clear();
+        assertThat(published).containsExactly(new CacheInvalidationMessage("node-1", "product", null));
+    }
+
+    @Test
+    void invalidateLocal_shouldOnlyDropL1() {
+        // Given
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("widget"));
+        cache.get(1L);
+
+        // When
+        cache.invalidateLocal("1");
+
+        // Then
+        assertThat(cache.localSize()).isZero();
+        verify(redisCache, never()).evict(any());
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void put_shouldTagEntry_whenCacheHasTagger() {
+        // Given
+        var tagged = taggedCache();
+
+        // When
+        tagged.put("myPrefix_widget", List.of("widget"));
+
+        // Then
+        verify(tagIndex).tag("product::", "myPrefix_widget", List.of("name:widget"), Duration.ofMinutes(15));
+        verify(redisCache).put("myPrefix_widget", List.of("widget"));
+    }
+
+    @Test
+    void evictTagged_shouldDropL1AndBroadcastEveryEvictedKey() {
+        // Given
+        var tagged = taggedCache();
+        when(redisCache.get("myPrefix_widget")).thenReturn(new SimpleValueWrapper(List.of("widget")));
+        tagged.get("myPrefix_widget");
+        when(tagIndex.evict("product::", Set.of("name:widget"))).thenReturn(List.of("myPrefix_widget", "myPrefix_gadget"));
+
+        // When
+        var evicted = tagged.evictTagged(Set.of("name:widget"));
+
+        // Then
+        assertThat(evicted).isEqualTo(2);
+        assertThat(tagged.localSize()).isZero();
+        assertThat(published).containsExactly(
+                new CacheInvalidationMessage("node-1", "product", "myPrefix_widget"),
+                new CacheInvalidationMessage("node-1", "product", "myPrefix_gadget"));
+    }
+
+    @Test
+    void evictTagged_shouldDoNothing_whenCacheHasNoTagger() {
+        assertThat(cache.evictTagged(Set.of("name:widget"))).isZero();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void putAll_shouldWriteAllEntriesInOneBulkCallAndDropL1WithoutBroadcast() {
+        // Given
+        var config = RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(65))
+                .serializeKeysWith(SerializationPair.fromSerializer(RedisSerializer.string()))
+                .serializeValuesWith(SerializationPair.fromSerializer(RedisSerializer.java()));
+        when(redisCache.getCacheConfiguration()).thenReturn(config);
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("old"));
+        var bulk = mock(RedisBulkOperations.class);
+        var bulkCache = new TwoLevelCache(redisCache, "node-1", published::add,
+                new TwoLevelCache.Options(LOCAL, null, null, null, null, bulk, null));
+        bulkCache.get(1L);
+
+        // When
+        var entries = new LinkedHashMap<Object, Object>();
+        entries.put(1L, "widget");
+        entries.put(2L, "gadget");
+        bulkCache.putAll(entries);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RedisBulkOperations.Entry>> writes = ArgumentCaptor.forClass(List.class);
+        verify(bulk).set(writes.capture());
+        assertThat(writes.getValue()).extracting(entry -> new String(entry.key(), StandardCharsets.UTF_8))
+                .containsExactly("product::1", "product::2");
+        assertThat(writes.getValue()).extracting(entry -> RedisSerializer.java().deserialize(entry.value()))
+                .containsExactly("widget", "gadget");
+        assertThat(writes.getValue()).extracting(RedisBulkOperations.Entry::ttl).containsOnly(Duration.ofMinutes(65));
+        verify(redisCache, never()).put(any(), any());
+        assertThat(bulkCache.localSize()).isZero();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void getAll_shouldServeL1HitsAndFetchTheRestWithOneMget() {
+        // Given
+        var config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeKeysWith(SerializationPair.fromSerializer(RedisSerializer.string()))
+                .serializeValuesWith(SerializationPair.fromSerializer(RedisSerializer.java()));
+        when(redisCache.getCacheConfiguration()).thenReturn(config);
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("widget"));
+        var bulk = mock(RedisBulkOperations.class);
+        var bulkCache = new TwoLevelCache(redisCache, "node-1", published::add,
+                new TwoLevelCache.Options(LOCAL, null, null, null, null, bulk, null));
+        bulkCache.get(1L);
+        when(bulk.get(any())).thenReturn(Arrays.asList(RedisSerializer.java().serialize("gadget"), null));
+
+        // When
+        var result = bulkCache.getAll(List.of(1L, 2L, 3L));
+
+        // Then
+        assertThat(result).containsExactly(entry(1L, "widget"), entry(2L, "gadget"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<byte[]>> keys = ArgumentCaptor.forClass(List.class);
+        verify(bulk).get(keys.capture());
+        assertThat(keys.getValue()).extracting(key -> new String(key, StandardCharsets.UTF_8))
+                .containsExactly("product::2", "product::3");
+        assertThat(bulkCache.getAll(List.of(2L))).containsExactly(entry(2L, "gadget"));
+        verifyNoMoreInteractions(bulk);
+    }
+
+    @Test
+    void evictAll_shouldDeleteAllKeysInOneBulkCallAndBroadcast() {
+        // Given
+        var config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeKeysWith(SerializationPair.fromSerializer(RedisSerializer.string()));
+        when(redisCache.getCacheConfiguration()).thenReturn(config);
+        var bulk = mock(RedisBulkOperations.class);
+        var bulkCache = new TwoLevelCache(redisCache, "node-1", published::add,
+                new TwoLevelCache.Options(LOCAL, null, null, null, null, bulk, null));
+
+        // When
+        bulkCache.evictAll(List.of(1L, 2L));
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<byte[]>> keys = ArgumentCaptor.forClass(List.class);
+        verify(bulk).delete(keys.capture());
+        assertThat(keys.getValue()).extracting(key -> new String(key, StandardCharsets.UTF_8))
+                .containsExactly("product::1", "product::2");
+        verify(redisCache, never()).evict(any());
+        assertThat(published).containsExactly(new CacheInvalidationMessage("node-1", "product", "1"),
+                new CacheInvalidationMessage("node-1", "product", "2"));
+    }
+
+    @Test
+    void getAll_shouldReadUnreadableValuesAsMissesAndDeleteThem() {
+        // Given
+        var config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeKeysWith(SerializationPair.fromSerializer(RedisSerializer.string()))
+                .serializeValuesWith(SerializationPair.fromSerializer(RedisSerializer.java()));
+        when(redisCache.getCacheConfiguration()).thenReturn(config);
+        var bulk = mock(RedisBulkOperations.class);
+        var bulkCache = new TwoLevelCache(redisCache, "node-1", published::add,
+                new TwoLevelCache.Options(LOCAL, null, null, null, null, bulk, null));
+        when(bulk.get(any())).thenReturn(List.of("{\"productId\":1}".getBytes(StandardCharsets.UTF_8),
+                RedisSerializer.java().serialize("gadget")));
+
+        // When
+        var result = bulkCache.getAll(List.of(1L, 2L));
+
+        // Then: the caller reloads 1 and its putAll can replace it
+        assertThat(result).containsExactly(entry(2L, "gadget"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<byte[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(bulk).delete(deleted.capture());
+        assertThat(deleted.getValue()).extracting(key -> new String(key, StandardCharsets.UTF_8)).containsExactly("product::1");
+    }
+
+    @Test
+    void putAll_shouldFallBackToPutIfAbsent_whenNoBulkOperations() {
+        // When
+        cache.putAll(Map.of(1L, "widget"));
+
+        // Then
+        verify(redisCache).putIfAbsent(1L, "widget");
+        verify(redisCache, never()).put(any(), any());
+    }
+
+    @Test
+    void accessStatistics_shouldCountAndTimeEveryOperationAndTrackHotKeys() {
+        // Given
+        var tracked = new TwoLevelCache(redisCache, "node-1", published::add,
+                new TwoLevelCache.Options(LOCAL, null, null, null, null, null, new HotKeySettings(256, 4, 2)));
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("widget"));
+        when(redisCache.get(2L)).thenReturn(new SimpleValueWrapper("gadget"));
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            tracked.get(1L);
+        }
+        tracked.get(2L);
+        tracked.get(3L);
+        tracked.put(3L, "gizmo");
+        tracked.evict(2L);
+
+        // Then
+        var stats = tracked.accessStatistics();
+        assertThat(stats.hitCount()).isEqualTo(6);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.putCount()).isEqualTo(1);
+        assertThat(stats.evictionCount()).isEqualTo(1);
+        assertThat(stats.count(CacheAccessStats.Operation.GET)).isEqualTo(7);
+        assertThat(stats.totalTime(CacheAccessStats.Operation.GET, TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(stats.hotKeys()).extracting(HotKeySketch.HotKey::key).first().isEqualTo("1");
+    }
+
+    @Test
+    void invalidationMessage_shouldRoundTrip() {
+        var keyed = new CacheInvalidationMessage("node-1", "product_list", "myPrefix_a|b");
+        var all = new CacheInvalidationMessage("node-1", "product_list", null);
+
+        assertThat(CacheInvalidationMessage.decode(keyed.encode())).isEqualTo(keyed);
+        assertThat(CacheInvalidationMessage.decode(all.encode())).isEqualTo(all);
+    }
+
+    private TwoLevelCache taggedCache() {
+        when(redisCache.getCacheConfiguration())
+                .thenReturn(RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(15)));
+        var options = new TwoLevelCache.Options(LOCAL, tagIndex, (key, value) -> List.of("name:" + ((List<?>) value).getFirst()), null, null, null, null);
+        return new TwoLevelCache(redisCache, "node-1", published::add, options);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.caching.config;
+
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.entity.Product;
+import com.example.caching.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private TwoLevelCache productCache;
+
+    @InjectMocks
+    private CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheWarmer, "pageSize", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "parallelism", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "readinessCoverage", 0.8);
+        lenient().when(cacheManager.getCache("product")).thenReturn(productCache);
+    }
+
+    @Test
+    void warmUp_shouldWriteEveryKeysetPageInBulk() {
+        // Given
+        when(productRepository.count()).thenReturn(5L);
+        when(productRepository.findByProductIdGreaterThanOrderByProductIdAsc(0L, Limit.of(2))).thenReturn(products(1, 2));
+        when(productRepository.findByProductIdGreaterThanOrderByProductIdAsc(2L, Limit.of(2))).thenReturn(products(3, 4));
+        when(productRepository.findByProductIdGreaterThanOrderByProductIdAsc(4L, Limit.of(2))).thenReturn(products(5, 5));
+
+        // When
+        cacheWarmer.warmUp();
+
+        // Then
+        verify(productCache).putAll(argThat(entries -> entries.keySet().equals(Set.of(1L, 2L))));
+        verify(productCache).putAll(argThat(entries -> entries.keySet().equals(Set.of(3L, 4L))));
+        verify(productCache).putAll(argThat(entries -> entries.keySet().equals(Set.of(5L))));
+        verify(productRepository, never()).findByProductIdGreaterThanOrderByProductIdAsc(5L, Limit.of(2));
+        var progress = cacheWarmer.progress();
+        assertThat(progress.state()).isEqualTo(CacheWarmer.State.COMPLETED);
+        assertThat(progress.warmed()).isEqualTo(5);
+        assertThat(progress.coverage()).isEqualTo(1.0);
+    }
+
+    @Test
+    void health_shouldBeOutOfServiceUntilReadinessCoverage() {
+        // Given
+        var health = new CacheWarmupHealthIndicator(cacheWarmer);
+
+        // Then
+        assertThat(cacheWarmer.isReady()).isFalse();
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    void warmUp_shouldReportReady_whenRedisFails() {
+        // Given
+        ReflectionTestUtils.setField(cacheWarmer, "parallelism", 1);
+        when(productRepository.count()).thenReturn(4L);
+        when(productRepository.findByProductIdGreaterThanOrderByProductIdAsc(0L, Limit.of(2))).thenReturn(products(1, 2));
+        // the next page may be read before the failed write is noticed
+        lenient().when(productRepository.findByProductIdGreaterThanOrderByProductIdAsc(2L, Limit.of(2))).thenReturn(products(3, 4));
+        doThrow(new RedisConnectionFailureException("Connection refused")).when(productCache).putAll(anyMap());
+
+        // When
+        cacheWarmer.warmUp();
+
+        // Then
+        verify(productRepository, never()).findByProductIdGreaterThanOrderByProductIdAsc(4L, Limit.of(2));
+        assertThat(cacheWarmer.progress().state()).isEqualTo(CacheWarmer.State.FAILED);
+        assertThat(cacheWarmer.progress().warmed()).isZero();
+        assertThat(new CacheWarmupHealthIndicator(cacheWarmer).health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void bindTo_shouldExposeProgressMetrics() {
+        // Given
+        var registry = new SimpleMeterRegistry();
+        cacheWarmer.bindTo(registry);
+        when(productRepository.count()).thenReturn(2L);
+        when(productRepository.findByProductIdGreaterThanOrderByProductIdAsc(any(), any())).thenReturn(products(1, 2), List.of());
+
+        // When
+        cacheWarmer.warmUp();
+
+        // Then
+        assertThat(registry.get("cache.warmup.entries").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("cache.warmup.coverage").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("cache.warmup.throughput").gauge().value()).isGreaterThanOrEqualTo(0.0);
+    }
+
+    private static List<Product> products(long from, long to) {
+        return LongStream.rangeClosed(from, to).mapToObj(CacheWarmerTest::product).toList();
+    }
+
+    private static Product product(long id) {
+        return Product.builder().productId(id).productName("product-" + id).build();
+    }
+}
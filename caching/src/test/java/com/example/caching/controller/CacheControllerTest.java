@@ -1,5 +1,8 @@
 package com.example.caching.controller;
 
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.dto.CacheStatsResponse;
+import com.example.caching.mapper.CacheStatsMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -28,6 +31,9 @@ class CacheControllerTest {
     @MockitoBean
     private Cache cache;
 
+    @MockitoBean
+    private CacheStatsMapper cacheStatsMapper;
+
     @Test
     void getCacheNames_shouldReturnCacheNames() throws Exception {
         // Given
@@ -81,6 +87,39 @@ class CacheControllerTest {
         verify(cache, times(1)).evict("123");
     }
 
+    @Test
+    void getStats_shouldReturnStatistics_whenTwoLevelCache() throws Exception {
+        // Given
+        var twoLevelCache = mock(TwoLevelCache.class);
+        when(cacheManager.getCache("product")).thenReturn(twoLevelCache);
+        when(cacheStatsMapper.toResponse(twoLevelCache)).thenReturn(CacheStatsResponse.builder()
+                .cacheName("product")
+                .hits(9)
+                .misses(1)
+                .hitRatio(0.9)
+                .hotKeys(List.of(new CacheStatsResponse.HotKey("42", 7)))
+                .build());
+
+        // When / Then
+        mockMvc.perform(get("/api/cache/product/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitRatio").value(0.9))
+                .andExpect(jsonPath("$.hotKeys[0].key").value("42"))
+                .andExpect(jsonPath("$.hotKeys[0].estimatedAccesses").value(7));
+    }
+
+    @Test
+    void getStats_shouldReturn404_whenCacheNotFound() throws Exception {
+        // Given
+        when(cacheManager.getCache("nonexistent")).thenReturn(null);
+
+        // When / Then
+        mockMvc.perform(get("/api/cache/nonexistent/stats"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(cacheStatsMapper);
+    }
+
     @Test
     void evictKey_shouldReturn404_whenCacheNotFound() throws Exception {
         // Given
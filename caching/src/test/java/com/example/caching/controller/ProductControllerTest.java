@@ -21,6 +21,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -110,6 +111,37 @@ class ProductControllerTest {
         verify(productService, times(1)).findById(999L);
     }
 
+    @Test
+    void getByIds_shouldReturnProductsInOneServiceCall() throws Exception {
+        // Given
+        var other = testProduct.toBuilder().productId(2L).productName("Other Product").build();
+        var otherResponse = ProductResponse.builder().productId(2L).productName("Other Product").build();
+        when(productService.findAllById(List.of(2L, 1L))).thenReturn(List.of(other, testProduct));
+        when(productMapper.toResponse(testProduct)).thenReturn(testProductResponse);
+        when(productMapper.toResponse(other)).thenReturn(otherResponse);
+
+        // When / Then
+        mockMvc.perform(get("/api/products").param("ids", "2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(2))
+                .andExpect(jsonPath("$[1].productId").value(1));
+
+        verify(productService, times(1)).findAllById(List.of(2L, 1L));
+        verify(productService, never()).findById(any());
+    }
+
+    @Test
+    void getByIds_shouldReturn400_whenTooManyIds() throws Exception {
+        // Given
+        var ids = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).toArray(String[]::new);
+
+        // When / Then
+        mockMvc.perform(get("/api/products").param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).findAllById(any());
+    }
+
     @Test
     void searchByName_shouldReturnProducts() throws Exception {
         // Given
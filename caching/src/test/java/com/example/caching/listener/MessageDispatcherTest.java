@@ -0,0 +1,110 @@
+package com.example.caching.listener;
+
+import com.example.caching.enums.MessageTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageDispatcherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MessageDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.destroy();
+    }
+
+    @Test
+    void dispatch_shouldRunAtMostConcurrencyHandlersAtOnce() {
+        // Given
+        dispatcher = new MessageDispatcher(2, 10);
+        dispatcher.bindTo(registry);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var results = new ArrayList<CompletableFuture<Void>>();
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            results.add(dispatcher.dispatch(MessageTransport.STREAM, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(registry.get("messaging.handling").tag("transport", "stream").functionTimer().count()).isEqualTo(8);
+        assertThat(dispatcher.inFlight()).isZero();
+    }
+
+    @Test
+    void offer_shouldDropMessage_whenQueueIsFull() throws InterruptedException {
+        // Given: one handler running, one waiting
+        dispatcher = new MessageDispatcher(1, 1);
+        dispatcher.bindTo(registry);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        assertThat(dispatcher.offer(MessageTransport.PUBSUB, () -> {
+            started.countDown();
+            await(release);
+        })).isTrue();
+        started.await();
+        assertThat(dispatcher.offer(MessageTransport.PUBSUB, () -> {
+        })).isTrue();
+
+        // When
+        var accepted = dispatcher.offer(MessageTransport.PUBSUB, () -> {
+        });
+        release.countDown();
+
+        // Then
+        assertThat(accepted).isFalse();
+        assertThat(registry.get("messaging.messages.rejected").tag("transport", "pubsub").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("messaging.messages.received").tag("transport", "pubsub").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void dispatch_shouldCompleteExceptionally_whenHandlerThrows() {
+        // Given
+        dispatcher = new MessageDispatcher(1, 1);
+        dispatcher.bindTo(registry);
+
+        // When
+        var result = dispatcher.dispatch(MessageTransport.STREAM, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        // Then
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("boom");
+        assertThat(registry.get("messaging.messages.failed").tag("transport", "stream").functionCounter().count()).isEqualTo(1);
+        assertThat(dispatcher.inFlight()).isZero();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
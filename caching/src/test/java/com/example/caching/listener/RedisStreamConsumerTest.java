@@ -0,0 +1,144 @@
+package com.example.caching.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisStreamConsumerTest {
+
+    private static final String KEY = "stream:my-channel";
+    private static final String GROUP = "caching";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private RedisSubscriber subscriber;
+
+    private final MessageDispatcher dispatcher = new MessageDispatcher(4, 16);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RedisStreamConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        consumer = new RedisStreamConsumer(redisTemplate, subscriber, dispatcher);
+        ReflectionTestUtils.setField(consumer, "group", GROUP);
+        ReflectionTestUtils.setField(consumer, "batchSize", 100);
+        ReflectionTestUtils.setField(consumer, "block", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(consumer, "reclaimIdle", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(consumer, "reclaimInterval", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(consumer, "maxDeliveries", 5L);
+        consumer.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.destroy();
+    }
+
+    @Test
+    void poll_shouldAcknowledgeHandledEntriesInOneCall() {
+        // Given
+        var sent = System.currentTimeMillis() - 1_500;
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record(sent + "-0", "ok"), record(sent + "-1", "bad"), record(sent + "-2", "ok too")));
+        lenient().doThrow(new IllegalStateException("boom")).when(subscriber).handle("my-channel", "bad");
+
+        // When
+        var acknowledged = consumer.poll();
+
+        // Then
+        assertThat(acknowledged).isEqualTo(2);
+        verify(subscriber).handle("my-channel", "ok");
+        verify(subscriber).handle("my-channel", "ok too");
+        verify(streamOperations).acknowledge(KEY, GROUP, RecordId.of(sent + "-0"), RecordId.of(sent + "-2"));
+        assertThat(registry.get("messaging.stream.lag").gauge().value()).isGreaterThanOrEqualTo(1_500);
+    }
+
+    @Test
+    void poll_shouldReportNoLag_whenNothingIsWaiting() {
+        // Given
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(List.of());
+
+        // When
+        var acknowledged = consumer.poll();
+
+        // Then
+        assertThat(acknowledged).isZero();
+        verify(streamOperations, never()).acknowledge(any(), any(), any(RecordId[].class));
+        assertThat(registry.get("messaging.stream.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void reclaim_shouldRetryIdleEntriesAndDropOnesDeliveredTooOften() {
+        // Given
+        var idle = new PendingMessage(RecordId.of("1-0"), Consumer.from(GROUP, "dead"), Duration.ofMinutes(1), 1);
+        var poison = new PendingMessage(RecordId.of("1-1"), Consumer.from(GROUP, "dead"), Duration.ofMinutes(1), 5);
+        var recent = new PendingMessage(RecordId.of("1-2"), Consumer.from(GROUP, "alive"), Duration.ofSeconds(1), 1);
+        when(streamOperations.pending(KEY, GROUP)).thenReturn(new PendingMessagesSummary(GROUP, 3, Range.unbounded(), Map.of()));
+        when(streamOperations.pending(KEY, GROUP, Range.unbounded(), 100L)).thenReturn(new PendingMessages(GROUP, List.of(idle, poison, recent)));
+        when(streamOperations.claim(eq(KEY), eq(GROUP), any(), eq(Duration.ofSeconds(30)), eq(RecordId.of("1-0"))))
+                .thenReturn(List.of(record("1-0", "retry me")));
+
+        // When
+        var acknowledged = consumer.reclaim();
+
+        // Then
+        assertThat(acknowledged).isEqualTo(1);
+        verify(subscriber).handle("my-channel", "retry me");
+        verify(streamOperations).acknowledge(KEY, GROUP, RecordId.of("1-1"));
+        verify(streamOperations).acknowledge(KEY, GROUP, RecordId.of("1-0"));
+        assertThat(registry.get("messaging.stream.pending").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("messaging.stream.abandoned").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("messaging.stream.reclaimed").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void reclaim_shouldStop_whenNothingIsPending() {
+        // Given
+        when(streamOperations.pending(KEY, GROUP)).thenReturn(new PendingMessagesSummary(GROUP, 0, Range.unbounded(), Map.of()));
+
+        // When
+        var acknowledged = consumer.reclaim();
+
+        // Then
+        assertThat(acknowledged).isZero();
+        verify(streamOperations, never()).pending(any(), anyString(), any(Range.class), anyLong());
+        verifyNoInteractions(subscriber);
+    }
+
+    private static MapRecord<String, Object, Object> record(String id, String payload) {
+        return StreamRecords.newRecord().in(KEY).withId(RecordId.of(id)).ofMap(Map.<Object, Object>of("payload", payload));
+    }
+}
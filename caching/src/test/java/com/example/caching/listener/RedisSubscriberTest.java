@@ -0,0 +1,67 @@
+package com.example.caching.listener;
+
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.enums.MessageTransport;
+import com.example.caching.service.ProductIdFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisSubscriberTest {
+
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private MessageDispatcher dispatcher;
+
+    @Mock
+    private ProductIdFilter productIdFilter;
+
+    @InjectMocks
+    private RedisSubscriber subscriber;
+
+    @Test
+    void onMessage_shouldApplyInvalidationOnTheListenerThread() {
+        // When
+        subscriber.onMessage(message(TwoLevelCacheManager.INVALIDATION_CHANNEL, "node-2|product|1"), null);
+
+        // Then
+        verify(cacheManager).onInvalidation("node-2|product|1");
+        verifyNoInteractions(dispatcher);
+    }
+
+    @Test
+    void onMessage_shouldAddSavedProductIdToFilter() {
+        // When
+        subscriber.onMessage(message(ProductIdFilter.CHANNEL, "42"), null);
+
+        // Then
+        verify(productIdFilter).onAdded("42");
+        verifyNoInteractions(dispatcher, cacheManager);
+    }
+
+    @Test
+    void onMessage_shouldHandApplicationMessageToDispatcher() {
+        // When
+        subscriber.onMessage(message("my-channel", "hello"), null);
+
+        // Then
+        verify(dispatcher).offer(eq(MessageTransport.PUBSUB), any(Runnable.class));
+        verifyNoInteractions(cacheManager);
+    }
+
+    private static DefaultMessage message(String channel, String body) {
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.caching.serializer;
+
+import com.example.caching.cache.CachedValue;
+import com.example.caching.config.CacheConfig;
+import com.example.caching.entity.Product;
+import com.example.caching.enums.Category;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactRedisSerializerTest {
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CompactRedisSerializer serializer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        json = CacheConfig.jsonSerializer();
+        serializer = new CompactRedisSerializer(json, 512);
+        product = Product.builder()
+                .productId(42L)
+                .productName("Widget")
+                .category(Category.PRODUCT)
+                .price(new BigDecimal("29.99"))
+                .inStock(100L)
+                .dateOfManufacture(LocalDateTime.of(2026, 1, 2, 9, 59, 1))
+                .updatedAt(LocalDateTime.of(2026, 1, 3, 10, 0, 0, 123_456_000))
+                .vendor("ABC")
+                .build();
+    }
+
+    @Test
+    void product_shouldRoundTrip() {
+        var bytes = serializer.serialize(product);
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo(product);
+        assertThat(bytes.length).isLessThan(json.serialize(product).length / 4);
+    }
+
+    @Test
+    void product_shouldRoundTripNullFields() {
+        var sparse = new Product();
+        sparse.setProductId(7L);
+
+        assertThat(serializer.deserialize(serializer.serialize(sparse))).isEqualTo(sparse);
+    }
+
+    @Test
+    void price_shouldRoundTripBeyondLongRange() {
+        product.setPrice(new BigDecimal("-123456789012345678901234567890.123456"));
+
+        assertThat(((Product) serializer.deserialize(serializer.serialize(product))).getPrice())
+                .isEqualTo(product.getPrice());
+    }
+
+    @Test
+    void largeList_shouldBeCompressed() {
+        var products = products(200);
+
+        var bytes = serializer.serialize(products);
+
+        assertThat(bytes[2] & 1).isEqualTo(1);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(products);
+        assertThat(bytes.length).isLessThan(serializer.serialize(products(1)).length * 200 / 2);
+    }
+
+    @Test
+    void smallList_shouldNotBeCompressed() {
+        var bytes = serializer.serialize(products(2));
+
+        assertThat(bytes[2] & 1).isZero();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(products(2));
+    }
+
+    @Test
+    void emptyList_shouldRoundTrip() {
+        assertThat(serializer.deserialize(serializer.serialize(new ArrayList<Product>()))).isEqualTo(List.of());
+    }
+
+    @Test
+    void otherValues_shouldUseFallback() {
+        var value = new HashMap<>(Map.of("key", "value"));
+
+        assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+    }
+
+    @Test
+    void jsonValues_shouldBeReadByFallback() {
+        assertThat(serializer.deserialize(json.serialize(product))).isEqualTo(product);
+    }
+
+    @Test
+    void untypedJsonValues_shouldFailWithSerializationException() {
+        // Given: JSON written without type hints, as cached before either format
+        var mapper = JsonMapper.builder().addModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        var untyped = new GenericJackson2JsonRedisSerializer(mapper).serialize(product);
+
+        // Then: left to CacheReadErrorHandler, which reads it as a miss
+        assertThatThrownBy(() -> serializer.deserialize(untyped)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void newerFormatVersion_shouldBeReadAsMiss() {
+        var bytes = serializer.serialize(product);
+        bytes[1] = CompactRedisSerializer.VERSION + 1;
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void truncatedValue_shouldFail() {
+        var bytes = serializer.serialize(product);
+        var truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+        assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void cachedValue_shouldRoundTripWithCompression() {
+        var cached = new CachedValue(products(200), 35, 1_767_000_000_000L);
+
+        var bytes = serializer.serialize(cached);
+
+        assertThat(bytes[2] & 1).isEqualTo(1);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(cached);
+    }
+
+    @Test
+    void cachedValue_shouldRoundTripAsJson() {
+        var cached = new CachedValue(product, 35, 1_767_000_000_000L);
+
+        assertThat(json.deserialize(json.serialize(cached))).isEqualTo(cached);
+    }
+
+    @Test
+    void previousFormatVersion_shouldStillBeRead() {
+        var bytes = serializer.serialize(product);
+        bytes[1] = 1;
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo(product);
+    }
+
+    private List<Product> products(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> product.toBuilder().productId(id).inStock(id * 3).build())
+                .toList();
+    }
+}
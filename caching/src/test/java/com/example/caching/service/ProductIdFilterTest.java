@@ -0,0 +1,163 @@
+package com.example.caching.service;
+
+import com.example.caching.cache.BloomFilter;
+import com.example.caching.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIdFilterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @InjectMocks
+    private ProductIdFilter productIdFilter;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productIdFilter, "expectedInsertions", 1_000L);
+        ReflectionTestUtils.setField(productIdFilter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(productIdFilter, "pageSize", 2);
+        ReflectionTestUtils.setField(productIdFilter, "syncInterval", Duration.ofSeconds(30));
+        productIdFilter.bindTo(registry);
+    }
+
+    @Test
+    void mightExist_shouldLetEveryIdThrough_untilBuilt() {
+        // When
+        var result = productIdFilter.mightExist(999L);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(registry.get("product.filter.rejections").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void rebuild_shouldLoadIdsInKeysetPagesAndMergeRedisCopy() {
+        // Given: id 77 was saved on another node
+        when(productRepository.findProductIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(productRepository.findProductIdsAfter(2L, Limit.of(2))).thenReturn(List.of(3L, 4L));
+        when(productRepository.findProductIdsAfter(4L, Limit.of(2))).thenReturn(List.of(5L));
+        var shared = BloomFilter.create(1_000, 0.01);
+        shared.put(77L);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(shared.toBytes());
+
+        // When
+        productIdFilter.rebuild();
+
+        // Then
+        assertThat(List.of(1L, 2L, 3L, 4L, 5L, 77L)).allMatch(productIdFilter::mightExist);
+        assertThat(productIdFilter.mightExist(999L)).isFalse();
+        assertThat(registry.get("product.filter.rejections").functionCounter().count()).isEqualTo(1);
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void rebuild_shouldKeepLettingIdsThrough_whenDatabaseFails() {
+        // Given
+        when(productRepository.findProductIdsAfter(0L, Limit.of(2))).thenThrow(new RedisConnectionFailureException("down"));
+
+        // When
+        productIdFilter.rebuild();
+
+        // Then
+        assertThat(productIdFilter.mightExist(999L)).isTrue();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void rebuild_shouldBuildLocally_whenRedisFails() {
+        // Given
+        when(productRepository.findProductIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L));
+        when(redisTemplate.execute(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("down"));
+
+        // When
+        productIdFilter.rebuild();
+
+        // Then
+        assertThat(productIdFilter.mightExist(1L)).isTrue();
+        assertThat(productIdFilter.mightExist(999L)).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void add_shouldSetBitsAndPublishIdInOnePipeline() {
+        // Given
+        when(productRepository.findProductIdsAfter(0L, Limit.of(2))).thenReturn(List.of());
+        productIdFilter.rebuild();
+        assertThat(productIdFilter.mightExist(42L)).isFalse();
+        var connection = mock(RedisConnection.class);
+        var stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        ArgumentCaptor<RedisCallback<Object>> pipeline = ArgumentCaptor.forClass(RedisCallback.class);
+
+        // When
+        productIdFilter.add(42L);
+
+        // Then
+        assertThat(productIdFilter.mightExist(42L)).isTrue();
+        verify(redisTemplate, times(2)).executePipelined(pipeline.capture());
+        pipeline.getValue().doInRedis(connection);
+        var hashes = BloomFilter.create(1_000, 0.01).hashCount();
+        verify(stringCommands, times(hashes)).setBit(any(), anyLong(), eq(true));
+        verify(connection).publish(ProductIdFilter.CHANNEL.getBytes(StandardCharsets.UTF_8), "42".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void onAdded_shouldAddIdPublishedByAnotherNode() {
+        // Given
+        when(productRepository.findProductIdsAfter(0L, Limit.of(2))).thenReturn(List.of());
+        productIdFilter.rebuild();
+
+        // When
+        productIdFilter.onAdded("42");
+
+        // Then
+        assertThat(productIdFilter.mightExist(42L)).isTrue();
+    }
+
+    @Test
+    void sync_shouldMergeIdsMissedOnPubSub() {
+        // Given
+        when(productRepository.findProductIdsAfter(0L, Limit.of(2))).thenReturn(List.of());
+        productIdFilter.rebuild();
+        var shared = BloomFilter.create(1_000, 0.01);
+        shared.put(42L);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(shared.toBytes());
+
+        // When
+        productIdFilter.sync();
+
+        // Then
+        assertThat(productIdFilter.mightExist(42L)).isTrue();
+    }
+}
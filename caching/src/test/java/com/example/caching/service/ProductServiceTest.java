@@ -1,5 +1,7 @@
 package com.example.caching.service;
 
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.cache.TwoLevelCacheManager;
 import com.example.caching.entity.Product;
 import com.example.caching.enums.Category;
 import com.example.caching.repository.ProductRepository;
@@ -10,14 +12,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -28,6 +34,15 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private ProductIdFilter productIdFilter;
+
+    @Mock
+    private ProductWriteBehind productWriteBehind;
+
     @InjectMocks
     private ProductService productService;
 
@@ -35,6 +50,7 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(productIdFilter.mightExist(any())).thenReturn(true);
         testProduct = Product.builder()
                 .productId(1L)
                 .productName("Test Product")
@@ -73,6 +89,20 @@ class ProductServiceTest {
         // Then
         assertThat(result).isEmpty();
         verify(productRepository, times(1)).findById(999L);
+        verify(productIdFilter).recordFalsePositive();
+    }
+
+    @Test
+    void findById_shouldNotQueryDatabase_whenIdFilterKnowsIdDoesNotExist() {
+        // Given
+        when(productIdFilter.mightExist(999L)).thenReturn(false);
+
+        // When
+        Optional<Product> result = productService.findById(999L);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -126,6 +156,73 @@ class ProductServiceTest {
         verify(productRepository, times(2)).findByProductName(eq("Test"), any(Sort.class));
     }
 
+    @Test
+    void findAllById_shouldLoadOnlyCacheMissesAndBackFillThem() {
+        // Given
+        var cache = mock(TwoLevelCache.class);
+        when(cacheManager.getCache("product")).thenReturn(cache);
+        var cached = testProduct.toBuilder().productId(2L).build();
+        when(cache.getAll(Set.of(3L, 2L, 1L))).thenReturn(Map.of(2L, cached));
+        when(productRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(testProduct));
+
+        // When
+        var result = productService.findAllById(List.of(3L, 2L, 1L, 2L));
+
+        // Then
+        assertThat(result).extracting(Product::getProductId).containsExactly(2L, 1L);
+        verify(productRepository, times(1)).findAllById(List.of(3L, 1L));
+        verify(cache).putAll(Map.of(1L, testProduct));
+    }
+
+    @Test
+    void findAllById_shouldNotQueryIdsThatIdFilterKnowsDoNotExist() {
+        // Given
+        var cache = mock(TwoLevelCache.class);
+        when(cacheManager.getCache("product")).thenReturn(cache);
+        when(cache.getAll(Set.of(1L, 999L))).thenReturn(Map.of());
+        when(productIdFilter.mightExist(999L)).thenReturn(false);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
+
+        // When
+        var result = productService.findAllById(List.of(1L, 999L));
+
+        // Then
+        assertThat(result).containsExactly(testProduct);
+        verify(productRepository).findAllById(List.of(1L));
+    }
+
+    @Test
+    void findAllById_shouldNotQueryDatabase_whenAllCached() {
+        // Given
+        var cache = mock(TwoLevelCache.class);
+        when(cacheManager.getCache("product")).thenReturn(cache);
+        when(cache.getAll(Set.of(1L))).thenReturn(Map.of(1L, testProduct));
+
+        // When
+        var result = productService.findAllById(List.of(1L));
+
+        // Then
+        assertThat(result).containsExactly(testProduct);
+        verifyNoInteractions(productRepository);
+        verify(cache, never()).putAll(any());
+    }
+
+    @Test
+    void findAllById_shouldFallbackToDatabase_whenCacheFails() {
+        // Given
+        var cache = mock(TwoLevelCache.class);
+        when(cacheManager.getCache("product")).thenReturn(cache);
+        when(cache.getAll(any())).thenThrow(new DataAccessException("Redis connection failed") {});
+        doThrow(new DataAccessException("Redis connection failed") {}).when(cache).putAll(any());
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
+
+        // When
+        var result = productService.findAllById(List.of(1L));
+
+        // Then
+        assertThat(result).containsExactly(testProduct);
+    }
+
     @Test
     void save_shouldSaveProduct() {
         // Given
@@ -160,5 +257,104 @@ class ProductServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getPrice()).isEqualByComparingTo(new BigDecimal("39.99"));
         verify(productRepository, times(1)).save(testProduct);
+        verify(productIdFilter).add(1L);
+    }
+
+    @Test
+    void save_shouldQueueUpdateInsteadOfWriting_whenWriteBehindEnabled() {
+        // Given
+        when(productWriteBehind.isEnabled()).thenReturn(true);
+
+        // When
+        Product result = productService.save(testProduct);
+
+        // Then
+        assertThat(result).isSameAs(testProduct);
+        verify(productWriteBehind).enqueue(testProduct);
+        verifyNoInteractions(productRepository);
+        verify(cacheManager, never()).evictTagged(any(), any());
+    }
+
+    @Test
+    void save_shouldInsertNewProductAtOnce_whenWriteBehindEnabled() {
+        // Given
+        var newProduct = testProduct.toBuilder().productId(null).build();
+        when(productWriteBehind.isEnabled()).thenReturn(true);
+        when(productRepository.save(newProduct)).thenReturn(testProduct);
+
+        // When
+        productService.save(newProduct);
+
+        // Then
+        verify(productWriteBehind, never()).enqueue(any());
+        verify(productRepository).save(newProduct);
+    }
+
+    @Test
+    void save_shouldWriteIncompleteUpdateAtOnce_whenWriteBehindEnabled() {
+        // Given: the database refuses it, the caller must see that
+        var incomplete = testProduct.toBuilder().price(null).build();
+        when(productWriteBehind.isEnabled()).thenReturn(true);
+        when(productRepository.save(incomplete)).thenThrow(new DataIntegrityViolationException("Column 'price' cannot be null"));
+
+        // When / Then
+        assertThatThrownBy(() -> productService.save(incomplete)).isInstanceOf(DataIntegrityViolationException.class);
+        verify(productWriteBehind, never()).enqueue(any());
+    }
+
+    @Test
+    void save_shouldWriteToDatabase_whenUpdateCannotBeQueued() {
+        // Given
+        when(productWriteBehind.isEnabled()).thenReturn(true);
+        doThrow(new DataAccessException("Redis down") {
+        }).when(productWriteBehind).enqueue(testProduct);
+        when(productRepository.save(testProduct)).thenReturn(testProduct);
+
+        // When
+        Product result = productService.save(testProduct);
+
+        // Then
+        assertThat(result).isEqualTo(testProduct);
+        verify(productRepository).save(testProduct);
+    }
+
+    @Test
+    void save_shouldEvictOnlyProductListsTaggedWithProduct() {
+        // Given
+        when(productRepository.save(testProduct)).thenReturn(testProduct);
+
+        // When
+        productService.save(testProduct);
+
+        // Then
+        verify(cacheManager, times(1)).evictTagged("product_list", Set.of("product:1", "name:Test Product"));
+        verify(cacheManager, never()).getCache("product_list");
+    }
+
+    @Test
+    void save_shouldNotFail_whenTaggedEvictionFails() {
+        // Given
+        when(productRepository.save(testProduct)).thenReturn(testProduct);
+        when(cacheManager.evictTagged(eq("product_list"), any()))
+                .thenThrow(new DataAccessException("Redis connection failed") {
+                });
+
+        // When
+        Product result = productService.save(testProduct);
+
+        // Then
+        assertThat(result).isSameAs(testProduct);
+    }
+
+    @Test
+    void productListTags_shouldContainIdAndNameOfEveryProduct() {
+        // Given
+        var other = testProduct.toBuilder().productId(2L).productName("Other").build();
+
+        // When
+        var tags = ProductCacheTags.ofList("myPrefix_Test", List.of(testProduct, other));
+
+        // Then
+        assertThat(tags).containsExactlyInAnyOrder("product:1", "name:Test Product", "product:2", "name:Other");
     }
 }
@@ -0,0 +1,300 @@
+package com.example.caching.service;
+
+import com.example.caching.cache.TwoLevelCache;
+import com.example.caching.cache.TwoLevelCacheManager;
+import com.example.caching.config.CacheConfig;
+import com.example.caching.entity.Product;
+import com.example.caching.enums.Category;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductWriteBehindTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private TwoLevelCache productCache;
+
+    private ProductWriteBehind writeBehind;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        lenient().when(cacheManager.getCache("product")).thenReturn(productCache);
+        writeBehind = new ProductWriteBehind(redisTemplate, jdbcTemplate, cacheManager);
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "maxStaleness", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 3);
+        ReflectionTestUtils.setField(writeBehind, "leaseTimeout", Duration.ofSeconds(30));
+        writeBehind.bindTo(registry);
+    }
+
+    @Test
+    void enqueue_shouldAppendProductToStream() {
+        // When
+        writeBehind.enqueue(product(1L, "10.00", 5));
+
+        // Then
+        verify(streamOperations).add(eq(ProductWriteBehind.STREAM), argThat((Map<String, String> fields) ->
+                fields.get("id").equals("1") && fields.get("product").contains("Widget 1")));
+        assertThat(registry.get("product.write.behind.enqueued").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void poll_shouldCoalesceUpdatesAndFlushFullBatch() {
+        // Given: two price ticks for product 1
+        var now = System.currentTimeMillis();
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(List.of(
+                record(now + "-0", product(1L, "10.00", 5)),
+                record(now + "-1", product(2L, "20.00", 5)),
+                record(now + "-2", product(1L, "11.00", 5)),
+                record(now + "-3", product(3L, "30.00", 5))));
+
+        // When
+        writeBehind.poll();
+
+        // Then
+        var written = writtenProducts();
+        assertThat(written).extracting(Product::getProductId).containsExactly(1L, 2L, 3L);
+        assertThat(written.getFirst().getPrice()).isEqualByComparingTo("11.00");
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(cacheManager).evictTagged(eq("product_list"), argThat(tags -> tags.containsAll(Set.of("product:1", "name:Widget 3"))));
+        assertThat(registry.get("product.write.behind.coalesced").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("product.write.behind.written").functionCounter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void poll_shouldKeepBuffering_untilOldestWriteIsDue() {
+        // Given
+        var now = System.currentTimeMillis();
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record(now + "-0", product(1L, "10.00", 5))))
+                .thenReturn(List.of());
+
+        // When
+        writeBehind.poll();
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(registry.get("product.write.behind.lag").gauge().value()).isGreaterThanOrEqualTo(0);
+
+        // When: the write is a second old
+        ReflectionTestUtils.setField(writeBehind, "maxStaleness", Duration.ZERO);
+        writeBehind.poll();
+
+        // Then
+        assertThat(writtenProducts()).extracting(Product::getProductId).containsExactly(1L);
+        assertThat(registry.get("product.write.behind.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void holdLease_shouldReplayWritesThePreviousFlusherDidNotFlush() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(1L);
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record("1-0", product(1L, "10.00", 5))));
+
+        // When
+        var held = writeBehind.holdLease();
+        writeBehind.flush();
+
+        // Then
+        assertThat(held).isTrue();
+        ArgumentCaptor<StreamOffset<String>> offset = ArgumentCaptor.forClass(StreamOffset.class);
+        verify(streamOperations).read(any(Consumer.class), any(StreamReadOptions.class), offset.capture());
+        assertThat(offset.getValue().getOffset().getOffset()).isEqualTo("0");
+        assertThat(writtenProducts()).extracting(Product::getProductId).containsExactly(1L);
+    }
+
+    @Test
+    void flush_shouldEvictEveryWrittenProduct() {
+        // Given: product 1 may have been reloaded from its old row meanwhile
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record("1-0", product(1L, "10.00", 5)), record("1-1", product(2L, "20.00", 0))))
+                .thenReturn(List.of());
+
+        // When
+        writeBehind.drain();
+
+        // Then
+        assertThat(writtenProducts()).extracting(Product::getProductId).containsExactly(1L, 2L);
+        verify(productCache).evictAll(List.of(1L, 2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldDeadLetterPoisonWrite_andKeepFlushingTheOthers() {
+        // Given: product 2 misses a NOT NULL value, the statement setter throws
+        var poison = product(2L, "20.00", 5).toBuilder().inStock(null).build();
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record("1-0", product(1L, "10.00", 5)), record("1-1", poison)))
+                .thenReturn(List.of(record("2-0", product(3L, "30.00", 5))))
+                .thenReturn(List.of());
+        var statement = mock(PreparedStatement.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any())).thenAnswer(invocation -> {
+            ParameterizedPreparedStatementSetter<Product> setter = invocation.getArgument(3);
+            for (var product : (Collection<Product>) invocation.getArgument(1)) {
+                setter.setValues(statement, product);
+            }
+            return new int[][]{{1}};
+        });
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+            ((PreparedStatementSetter) invocation.getArgument(1)).setValues(statement);
+            return 1;
+        });
+
+        // When
+        writeBehind.drain();
+
+        // Then
+        verify(jdbcTemplate, times(2)).update(anyString(), any(PreparedStatementSetter.class));
+        verify(streamOperations).add(eq(ProductWriteBehind.DEAD_LETTERS), argThat((Map<String, String> fields) ->
+                fields.get("id").equals("2") && fields.get("error").contains("NullPointerException")));
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+        verify(productCache).evictAll(List.of(1L, 2L));
+        assertThat(writtenProducts()).extracting(Product::getProductId).containsExactly(3L);
+        assertThat(registry.get("product.write.behind.written").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("product.write.behind.dead.lettered").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_shouldDeadLetterWritesViolatingConstraints() {
+        // Given
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record("1-0", product(1L, "10.00", 5)), record("1-1", product(2L, "20.00", 5))))
+                .thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'vendor'"));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'vendor'"))
+                .thenReturn(1);
+
+        // When
+        writeBehind.drain();
+
+        // Then
+        verify(streamOperations).add(eq(ProductWriteBehind.DEAD_LETTERS), argThat((Map<String, String> fields) -> fields.get("id").equals("1")));
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        assertThat(registry.get("product.write.behind.written").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void isQueueable_shouldRejectUpdatesTheDatabaseWouldRefuse() {
+        var product = product(1L, "10.00", 5);
+
+        assertThat(ProductWriteBehind.isQueueable(product)).isTrue();
+        assertThat(ProductWriteBehind.isQueueable(product.toBuilder().productId(null).build())).isFalse();
+        assertThat(ProductWriteBehind.isQueueable(product.toBuilder().price(null).build())).isFalse();
+        assertThat(ProductWriteBehind.isQueueable(product.toBuilder().price(new BigDecimal("123456789.00")).build())).isFalse();
+        assertThat(ProductWriteBehind.isQueueable(product.toBuilder().inStock(null).build())).isFalse();
+        assertThat(ProductWriteBehind.isQueueable(product.toBuilder().dateOfManufacture(null).build())).isFalse();
+        assertThat(ProductWriteBehind.isQueueable(product.toBuilder().vendor("v".repeat(256)).build())).isFalse();
+        assertThat(ProductWriteBehind.isQueueable(product.toBuilder().vendor(null).build())).isTrue();
+    }
+
+    @Test
+    void getPhase_shouldStopAfterWebServerAndBeforeRedis() {
+        assertThat(writeBehind.getPhase())
+                .isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024)
+                .isGreaterThan(0);
+    }
+
+    @Test
+    void flush_shouldKeepWritesBuffered_whenDatabaseFails() {
+        // Given
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record("1-0", product(1L, "10.00", 5))))
+                .thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[][]{{1}});
+
+        // When
+        assertThatThrownBy(() -> writeBehind.drain()).isInstanceOf(QueryTimeoutException.class);
+        writeBehind.flush();
+
+        // Then: acknowledged only once written
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), anyInt(), any());
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Product> writtenProducts() {
+        ArgumentCaptor<Collection<Product>> products = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), products.capture(), eq(3), any());
+        return List.copyOf(products.getValue());
+    }
+
+    private static MapRecord<String, Object, Object> record(String id, Product product) {
+        var json = new String(CacheConfig.jsonSerializer().serialize(product), StandardCharsets.UTF_8);
+        return StreamRecords.newRecord().in(ProductWriteBehind.STREAM).withId(RecordId.of(id))
+                .ofMap(Map.<Object, Object>of("id", product.getProductId().toString(), "product", json));
+    }
+
+    private static Product product(Long id, String price, long inStock) {
+        return Product.builder()
+                .productId(id)
+                .productName("Widget " + id)
+                .category(Category.PRODUCT)
+                .price(new BigDecimal(price))
+                .inStock(inStock)
+                .dateOfManufacture(LocalDateTime.of(2026, 1, 2, 9, 59, 1))
+                .updatedAt(LocalDateTime.of(2026, 1, 3, 10, 0))
+                .vendor("ABC")
+                .build();
+    }
+}
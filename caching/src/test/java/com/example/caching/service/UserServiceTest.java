@@ -1,20 +1,34 @@
 package com.example.caching.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -28,19 +42,105 @@ class UserServiceTest {
     @InjectMocks
     private UserService userService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "maxLength", 1000);
+        ReflectionTestUtils.setField(userService, "ttl", Duration.ofDays(7));
+    }
+
     @Test
-    void addUserActivity_shouldAddActivityAndSetTTL() {
+    void addUserActivity_shouldAppendTrimAndSetTTLInOneScript() {
         // Given
-        when(redisTemplate.opsForList()).thenReturn(listOperations);
-        when(listOperations.rightPush(any(), any())).thenReturn(1L);
-        when(redisTemplate.expire(any(), any(Duration.class))).thenReturn(true);
+        ArgumentCaptor<RedisScript<Long>> script = ArgumentCaptor.forClass(RedisScript.class);
 
         // When
         userService.addUserActivity("user123", "Logged in");
 
         // Then
-        verify(listOperations).rightPush("user:activities:user123", "Logged in");
-        verify(redisTemplate).expire("user:activities:user123", Duration.ofDays(7));
+        verify(redisTemplate).execute(script.capture(), eq(List.of("user:activities:user123")),
+                eq("1000"), eq(String.valueOf(Duration.ofDays(7).toMillis())), eq("Logged in"));
+        assertThat(script.getValue().getScriptAsString()).contains("RPUSH", "LTRIM", "PEXPIRE");
+        verify(redisTemplate, never()).opsForList();
+        verify(redisTemplate, never()).expire(any(), any(Duration.class));
+    }
+
+    @Test
+    void addUserActivities_shouldIngestEveryUserInOnePipeline() {
+        // Given
+        var connection = mock(RedisConnection.class);
+        var scripting = mock(RedisScriptingCommands.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+        var activities = new LinkedHashMap<String, List<String>>();
+        activities.put("user1", List.of("Logged in", "Viewed product"));
+        activities.put("user2", List.of("Logged out"));
+
+        // When
+        userService.addUserActivities(activities);
+
+        // Then
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        ArgumentCaptor<byte[][]> keysAndArgs = ArgumentCaptor.forClass(byte[][].class);
+        verify(scripting, times(2)).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1), keysAndArgs.capture());
+        assertThat(keysAndArgs.getAllValues().stream().flatMap(Arrays::stream))
+                .extracting(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                .containsExactly("user:activities:user1", "1000", "604800000", "Logged in", "Viewed product",
+                        "user:activities:user2", "1000", "604800000", "Logged out");
+    }
+
+    @Test
+    void addUserActivities_shouldSplitLargeBatchesAndSendOnlyWhatTrimmingKeeps() {
+        // Given
+        ReflectionTestUtils.setField(userService, "maxLength", 2500);
+        var connection = mock(RedisConnection.class);
+        var scripting = mock(RedisScriptingCommands.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+        var activities = IntStream.range(0, 10_000).mapToObj(i -> "activity " + i).toList();
+
+        // When
+        userService.addUserActivities(Map.of("user1", activities));
+
+        // Then
+        ArgumentCaptor<byte[][]> keysAndArgs = ArgumentCaptor.forClass(byte[][].class);
+        verify(scripting, times(3)).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1), keysAndArgs.capture());
+        assertThat(keysAndArgs.getAllValues()).extracting(args -> args.length - 3).containsExactly(1000, 1000, 500);
+        var sent = keysAndArgs.getAllValues().stream()
+                .flatMap(args -> Arrays.stream(args, 3, args.length))
+                .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                .toList();
+        assertThat(sent).isEqualTo(activities.subList(7500, 10_000));
+    }
+
+    @Test
+    void validateSettings_shouldRejectNonPositiveMaxLength() {
+        // Given
+        ReflectionTestUtils.setField(userService, "maxLength", 0);
+
+        // When / Then
+        assertThatThrownBy(() -> userService.validateSettings())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("caching.activity.max-length must be positive: 0");
+    }
+
+    @Test
+    void addUserActivities_shouldSendNothing_whenAnyActivityIsBlank() {
+        // Given
+        var activities = new LinkedHashMap<String, List<String>>();
+        activities.put("user1", List.of("Logged in"));
+        activities.put("user2", List.of(" "));
+
+        // When / Then
+        assertThatThrownBy(() -> userService.addUserActivities(activities))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("activity cannot be null or blank");
+        verifyNoInteractions(redisTemplate);
     }
 
     @Test